@@ -0,0 +1,54 @@
+package building;
+
+/**
+ * This class holds the limits on the backlog of requests a building accepts.
+ * The backlog is every request that was admitted but not yet given to an elevator.
+ * A request over the per-floor limit is deferred: it is kept, but only queued
+ * for dispatch once its floor has room. A request over the global limit is rejected.
+ */
+public class AdmissionPolicy {
+  private final int perFloorLimit;
+  private final int globalLimit;
+
+  /**
+   * The constructor for the admission policy.
+   *
+   * @param perFloorLimit the most requests queued for dispatch from one floor.
+   * @param globalLimit the most requests in the backlog of the building.
+   * @throws IllegalArgumentException if a limit is not greater than 0.
+   */
+  public AdmissionPolicy(int perFloorLimit, int globalLimit) {
+    if (perFloorLimit <= 0 || globalLimit <= 0) {
+      throw new IllegalArgumentException("The backlog limits must be greater than 0.");
+    }
+    this.perFloorLimit = perFloorLimit;
+    this.globalLimit = globalLimit;
+  }
+
+  /**
+   * Returns a policy that admits every request.
+   *
+   * @return a policy without limits.
+   */
+  public static AdmissionPolicy unlimited() {
+    return new AdmissionPolicy(Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the most requests queued for dispatch from one floor.
+   *
+   * @return the per-floor limit.
+   */
+  public int getPerFloorLimit() {
+    return this.perFloorLimit;
+  }
+
+  /**
+   * Returns the most requests in the backlog of the building.
+   *
+   * @return the global limit.
+   */
+  public int getGlobalLimit() {
+    return this.globalLimit;
+  }
+}
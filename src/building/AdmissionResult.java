@@ -0,0 +1,74 @@
+package building;
+
+import building.enums.AdmissionStatus;
+
+/**
+ * This class is the result of offering a request to a building.
+ * A rejected request comes with an estimate of when to retry.
+ */
+public class AdmissionResult {
+  /**
+   * The result of a request that was queued for dispatch.
+   */
+  public static final AdmissionResult ACCEPTED =
+          new AdmissionResult(AdmissionStatus.accepted, 0);
+
+  /**
+   * The result of a request that was kept, but held back until its floor has room.
+   */
+  public static final AdmissionResult DEFERRED =
+          new AdmissionResult(AdmissionStatus.deferred, 0);
+
+  private final AdmissionStatus status;
+  private final int retryAfterTicks;
+
+  private AdmissionResult(AdmissionStatus status, int retryAfterTicks) {
+    this.status = status;
+    this.retryAfterTicks = retryAfterTicks;
+  }
+
+  /**
+   * Returns the result of a rejected request.
+   *
+   * @param retryAfterTicks the number of steps after which a retry may succeed.
+   * @return the result of a rejected request.
+   */
+  public static AdmissionResult rejected(int retryAfterTicks) {
+    return new AdmissionResult(AdmissionStatus.rejected, retryAfterTicks);
+  }
+
+  /**
+   * Returns what happened to the request.
+   *
+   * @return the status of the request.
+   */
+  public AdmissionStatus getStatus() {
+    return this.status;
+  }
+
+  /**
+   * Returns whether the building kept the request, now or deferred.
+   *
+   * @return true if the request was not rejected.
+   */
+  public boolean isAdmitted() {
+    return this.status != AdmissionStatus.rejected;
+  }
+
+  /**
+   * Returns the number of steps after which a retry may succeed.
+   *
+   * @return the number of steps to wait, 0 unless rejected.
+   */
+  public int getRetryAfterTicks() {
+    return this.retryAfterTicks;
+  }
+
+  @Override
+  public String toString() {
+    if (this.status == AdmissionStatus.rejected) {
+      return this.status + ", retry after " + this.retryAfterTicks + " steps";
+    }
+    return this.status.toString();
+  }
+}
@@ -0,0 +1,51 @@
+package building;
+
+/**
+ * This class holds the limit on how long a group may wait before it goes
+ * ahead of every other group. The priority of a waiting group is how long its
+ * first person has waited, so it rises with time; once it reaches the limit the
+ * group is overdue, and dispatch gives overdue groups to elevators first.
+ */
+public class AgingPolicy {
+  private final int maxWaitTicks;
+
+  /**
+   * The constructor for the aging policy.
+   *
+   * @param maxWaitTicks the steps a group may wait before it is overdue.
+   * @throws IllegalArgumentException if the limit is not greater than 0.
+   */
+  public AgingPolicy(int maxWaitTicks) {
+    if (maxWaitTicks <= 0) {
+      throw new IllegalArgumentException("The maximum wait must be greater than 0.");
+    }
+    this.maxWaitTicks = maxWaitTicks;
+  }
+
+  /**
+   * Returns a policy under which no group is ever overdue.
+   *
+   * @return a policy without a limit.
+   */
+  public static AgingPolicy unlimited() {
+    return new AgingPolicy(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the steps a group may wait before it is overdue.
+   *
+   * @return the maximum wait.
+   */
+  public int getMaxWaitTicks() {
+    return this.maxWaitTicks;
+  }
+
+  /**
+   * Returns whether the policy has a limit.
+   *
+   * @return true if groups can become overdue.
+   */
+  public boolean isLimited() {
+    return this.maxWaitTicks != Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,352 @@
+package building;
+
+import elevator.Elevator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class dispatches by solving an assignment problem every step.
+ * The cost of giving a waiting group to an elevator is the number of floors the
+ * elevator travels to pick it up, less a weight for each step the group has waited.
+ * Every person of a group who does not fit in the room an elevator has left
+ * costs a floor more, so large groups go whole to large cars when they can.
+ * An elevator that has to wait for another car in its shaft to reach the
+ * group, or to take it to its floor, costs as much again as a run through
+ * the building, so a car with a clear way is picked when there is one.
+ * Overdue groups cost so much less that as many of them as possible are matched
+ * before any other group, the longest waiting first.
+ * Each round matches every elevator with room left to at most one group, for
+ * the least total cost, with the Hungarian algorithm. Rounds repeat until no
+ * elevator has room or no group is left that an elevator can take, so the
+ * elevators are filled up to their free capacity. A group too large for the
+ * room left is split.
+ * <p>
+ * A round costs O(n * n * m) for n elevators and m groups, with n the smaller.
+ * The working arrays are kept between steps, so a step allocates little.
+ */
+public class AssignmentDispatcher implements Dispatcher {
+  private static final double INFEASIBLE = 1e9;
+  private static final double OVERDUE_BONUS = 1e6;
+  private static final double OVERDUE_WAIT_WEIGHT = 100;
+  private static final int NONE = 0;
+  private static final int UP = 1;
+  private static final int DOWN = 2;
+
+  private final double waitWeight;
+  private int[] room = new int[0];
+  private int[] heading = new int[0];
+  private int[] left = new int[0];
+  private int[] rows = new int[0];
+  private int[] columns = new int[0];
+  private int[] columnIndex = new int[0];
+  private boolean[] columnFeasible = new boolean[0];
+  private double[] grid = new double[0];
+  private double[] cost = new double[0];
+  private double[] rowPotential = new double[0];
+  private double[] columnPotential = new double[0];
+  private double[] slack = new double[0];
+  private int[] matchOfColumn = new int[0];
+  private int[] previousColumn = new int[0];
+  private boolean[] visited = new boolean[0];
+  private int[] matchOfRow = new int[0];
+
+  /**
+   * The constructor for the assignment dispatcher, with a wait weight of 0.5.
+   */
+  public AssignmentDispatcher() {
+    this(0.5);
+  }
+
+  /**
+   * The constructor for the assignment dispatcher.
+   *
+   * @param waitWeight the floors of travel a step of waiting is worth.
+   * @throws IllegalArgumentException if the weight is negative.
+   */
+  public AssignmentDispatcher(double waitWeight) {
+    if (!(waitWeight >= 0)) {
+      throw new IllegalArgumentException("The wait weight cannot be negative.");
+    }
+    this.waitWeight = waitWeight;
+  }
+
+  /**
+   * Returns the floors of travel a step of waiting is worth.
+   *
+   * @return the wait weight.
+   */
+  public double getWaitWeight() {
+    return this.waitWeight;
+  }
+
+  @Override
+  public List<CallAssignment> assign(List<Elevator> elevators, List<RequestGroup> calls,
+                                     long tick) {
+    List<CallAssignment> assignments = new ArrayList<>();
+    int carCount = elevators.size();
+    int callCount = calls.size();
+    if (carCount == 0 || callCount == 0) {
+      return assignments;
+    }
+    this.reserve(carCount, callCount);
+    for (int car = 0; car < carCount; car++) {
+      Elevator elevator = elevators.get(car);
+      boolean ready = elevator.isTakingRequests() && elevator.getFreeCapacity() > 0;
+      this.room[car] = ready ? elevator.getFreeCapacity() : 0;
+      int floor = elevator.getCurrentFloor();
+      boolean midPark = elevator.isParked() && floor != elevator.getBottomFloor()
+              && floor != elevator.getTopFloor();
+      this.heading[car] = midPark ? NONE : floor == elevator.getBottomFloor() ? UP : DOWN;
+    }
+    for (int call = 0; call < callCount; call++) {
+      this.left[call] = calls.get(call).getPassengerCount();
+    }
+
+    while (true) {
+      // cars bound one way never compete with cars bound the other way,
+      // so the two ways are solved apart once no car is free to go either way
+      boolean unbound = false;
+      for (int car = 0; car < carCount; car++) {
+        unbound |= this.room[car] > 0 && this.heading[car] == NONE;
+      }
+      boolean matched;
+      if (unbound) {
+        matched = this.round(elevators, calls, tick, NONE, assignments);
+      } else {
+        matched = this.round(elevators, calls, tick, UP, assignments);
+        matched |= this.round(elevators, calls, tick, DOWN, assignments);
+      }
+      if (!matched) {
+        return assignments;
+      }
+    }
+  }
+
+  /**
+   * Runs one round of matching elevators with room left to groups.
+   * Elevators and groups that can no longer be matched are dropped for good,
+   * as elevators only lose room and ways to go in later rounds.
+   *
+   * @param elevators the elevators.
+   * @param calls the groups.
+   * @param tick the current step.
+   * @param way the way of the elevators and groups in the round, or none for all.
+   * @param assignments the list to add the matches to.
+   * @return true if anything was matched.
+   */
+  private boolean round(List<Elevator> elevators, List<RequestGroup> calls, long tick,
+                        int way, List<CallAssignment> assignments) {
+    int rowCount = 0;
+    for (int car = 0; car < elevators.size(); car++) {
+      if (this.room[car] > 0 && (way == NONE || this.heading[car] == way)) {
+        this.rows[rowCount++] = car;
+      }
+    }
+    int columnCount = 0;
+    for (int call = 0; call < calls.size(); call++) {
+      if (this.left[call] > 0 && (way == NONE || this.wayOf(calls.get(call)) == way)) {
+        this.columns[columnCount++] = call;
+      }
+    }
+    if (rowCount == 0 || columnCount == 0) {
+      return false;
+    }
+
+    // costs go to the grid with a row per elevator, and unmatchable lines are dropped
+    Arrays.fill(this.columnFeasible, 0, columnCount, false);
+    int keptRows = 0;
+    for (int i = 0; i < rowCount; i++) {
+      int car = this.rows[i];
+      Elevator elevator = elevators.get(car);
+      boolean feasible = false;
+      int offset = keptRows * columnCount;
+      for (int j = 0; j < columnCount; j++) {
+        int call = this.columns[j];
+        double value = this.cost(elevator, this.heading[car], calls.get(call), tick);
+        if (value < INFEASIBLE) {
+          // people left behind by splitting the group cost a floor each
+          value += Math.max(0, this.left[call] - this.room[car]);
+          feasible = true;
+          this.columnFeasible[j] = true;
+        }
+        this.grid[offset + j] = value;
+      }
+      if (feasible) {
+        this.rows[keptRows++] = car;
+      } else {
+        this.room[car] = 0;
+      }
+    }
+    int keptColumns = 0;
+    for (int j = 0; j < columnCount; j++) {
+      if (this.columnFeasible[j]) {
+        this.columnIndex[keptColumns] = j;
+        this.columns[keptColumns++] = this.columns[j];
+      } else {
+        this.left[this.columns[j]] = 0;
+      }
+    }
+    if (keptRows == 0 || keptColumns == 0) {
+      return false;
+    }
+
+    // the matrix is laid out with the smaller side as its rows
+    boolean carRows = keptRows <= keptColumns;
+    int n = carRows ? keptRows : keptColumns;
+    int m = carRows ? keptColumns : keptRows;
+    for (int i = 0; i < keptRows; i++) {
+      int offset = i * columnCount;
+      for (int j = 0; j < keptColumns; j++) {
+        double value = this.grid[offset + this.columnIndex[j]];
+        if (carRows) {
+          this.cost[(i + 1) * (m + 1) + j + 1] = value;
+        } else {
+          this.cost[(j + 1) * (m + 1) + i + 1] = value;
+        }
+      }
+    }
+    this.solve(n, m);
+
+    boolean matched = false;
+    for (int r = 1; r <= n; r++) {
+      int c = this.matchOfRow[r];
+      if (this.cost[r * (m + 1) + c] >= INFEASIBLE) {
+        continue;
+      }
+      int car = this.rows[(carRows ? r : c) - 1];
+      int call = this.columns[(carRows ? c : r) - 1];
+      int count = Math.min(this.room[car], this.left[call]);
+      assignments.add(new CallAssignment(car, call, count));
+      this.room[car] -= count;
+      this.left[call] -= count;
+      this.heading[car] = this.wayOf(calls.get(call));
+      matched = true;
+    }
+    return matched;
+  }
+
+  private int wayOf(RequestGroup group) {
+    return group.getStartFloor() < group.getEndFloor() ? UP : DOWN;
+  }
+
+  /**
+   * Returns the cost of giving a group to an elevator.
+   *
+   * @param elevator the elevator.
+   * @param heading the way the elevator is bound to go, or none yet.
+   * @param group the group.
+   * @param tick the current step.
+   * @return the cost, or INFEASIBLE if the elevator cannot take the group.
+   */
+  private double cost(Elevator elevator, int heading, RequestGroup group, long tick) {
+    if (heading != NONE && heading != this.wayOf(group)
+            || !Dispatcher.canTake(elevator, group)) {
+      return INFEASIBLE;
+    }
+    double wait = tick - (double) group.getArrivalTickSum() / group.getPassengerCount();
+    int stop = elevator.getStopFloor(group.getStartFloor());
+    double distance = Math.abs(stop - elevator.getCurrentFloor());
+    if (!elevator.canRunTo(stop) || !elevator.canRunTo(group.getEndFloor())) {
+      distance += elevator.getMaxFloor();
+    }
+    if (group.isOverdue()) {
+      return distance - OVERDUE_BONUS - OVERDUE_WAIT_WEIGHT * wait;
+    }
+    return distance - this.waitWeight * wait;
+  }
+
+  /**
+   * Solves the assignment problem on the cost matrix, with n rows and m columns,
+   * both counted from 1, and n no more than m. Every row is matched to a column.
+   *
+   * @param n the number of rows.
+   * @param m the number of columns.
+   */
+  private void solve(int n, int m) {
+    int width = m + 1;
+    Arrays.fill(this.rowPotential, 0, n + 1, 0);
+    Arrays.fill(this.columnPotential, 0, m + 1, 0);
+    Arrays.fill(this.matchOfColumn, 0, m + 1, 0);
+    for (int row = 1; row <= n; row++) {
+      this.matchOfColumn[0] = row;
+      int column = 0;
+      Arrays.fill(this.slack, 0, m + 1, Double.POSITIVE_INFINITY);
+      Arrays.fill(this.visited, 0, m + 1, false);
+      do {
+        this.visited[column] = true;
+        int current = this.matchOfColumn[column];
+        double delta = Double.POSITIVE_INFINITY;
+        int next = 0;
+        int offset = current * width;
+        double potential = this.rowPotential[current];
+        for (int j = 1; j <= m; j++) {
+          if (!this.visited[j]) {
+            double reduced = this.cost[offset + j] - potential - this.columnPotential[j];
+            if (reduced < this.slack[j]) {
+              this.slack[j] = reduced;
+              this.previousColumn[j] = column;
+            }
+            if (this.slack[j] < delta) {
+              delta = this.slack[j];
+              next = j;
+            }
+          }
+        }
+        for (int j = 0; j <= m; j++) {
+          if (this.visited[j]) {
+            this.rowPotential[this.matchOfColumn[j]] += delta;
+            this.columnPotential[j] -= delta;
+          } else {
+            this.slack[j] -= delta;
+          }
+        }
+        column = next;
+      } while (this.matchOfColumn[column] != 0);
+      // flip the augmenting path back to the root
+      do {
+        int previous = this.previousColumn[column];
+        this.matchOfColumn[column] = this.matchOfColumn[previous];
+        column = previous;
+      } while (column != 0);
+    }
+    for (int j = 1; j <= m; j++) {
+      if (this.matchOfColumn[j] != 0) {
+        this.matchOfRow[this.matchOfColumn[j]] = j;
+      }
+    }
+  }
+
+  /**
+   * Grows the working arrays to fit a number of elevators and groups.
+   */
+  private void reserve(int carCount, int callCount) {
+    if (this.room.length < carCount) {
+      this.room = new int[carCount];
+      this.heading = new int[carCount];
+      this.rows = new int[carCount];
+    }
+    if (this.left.length < callCount) {
+      this.left = new int[callCount];
+      this.columns = new int[callCount];
+      this.columnIndex = new int[callCount];
+      this.columnFeasible = new boolean[callCount];
+    }
+    int side = Math.max(carCount, callCount) + 1;
+    if (this.cost.length < (carCount + 1) * (callCount + 1)) {
+      this.cost = new double[(carCount + 1) * (callCount + 1)];
+    }
+    if (this.grid.length < carCount * callCount) {
+      this.grid = new double[carCount * callCount];
+    }
+    if (this.slack.length < side) {
+      this.rowPotential = new double[side];
+      this.columnPotential = new double[side];
+      this.slack = new double[side];
+      this.matchOfColumn = new int[side];
+      this.previousColumn = new int[side];
+      this.visited = new boolean[side];
+      this.matchOfRow = new int[side];
+    }
+  }
+}
@@ -1,24 +1,114 @@
 package building;
 
+import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
+import building.enums.ParkingMode;
+import building.enums.TrafficMode;
+import elevator.CarClass;
+import elevator.DeparturePolicy;
+import elevator.DoorTiming;
 import elevator.Elevator;
 import elevator.ElevatorReport;
+import elevator.Kinematics;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import scanerzus.Request;
 
 
 /**
  * This class represents a building.
+ * Requests may be added from any thread; they are validated right away and
+ * handed to the stepping thread through a lock-free inbox.
+ * All other methods must be called from the one thread that steps the building.
+ * <p>
+ * An admission policy can cap the backlog of requests per floor and for the
+ * whole building, so callers are told to slow down instead of piling up requests.
+ * <p>
+ * Queued requests with the same start and end floor are counted in one group,
+ * which is only split when an elevator does not have room for all of it.
+ * <p>
+ * The building counts its steps and how long people wait, so its handling
+ * capacity can be measured with {@link #getStats()}.
+ * <p>
+ * The elevators can be split into zones, each serving the lobby and a band of
+ * floors from its own queues. By default there is one zone serving every floor.
+ * A journey no zone serves is split into legs, each served by one zone, and
+ * people change elevators at the end of every leg: at the lobby, or at a sky
+ * lobby served by two zones. The next leg is queued once the elevator of the
+ * last one lets them out.
+ * <p>
+ * A car can serve only some floors, skipping garage levels or secured floors.
+ * A zone takes a trip only if one of its cars serves both floors of it, and
+ * only such cars are given the trip; journeys no car can complete, even by
+ * changing elevators, are rejected when they are added. Which zone takes
+ * every trip is worked out in advance, so routing a request is a table lookup.
+ * <p>
+ * Idle elevators keep cycling unless a parking policy parks them at home floors.
+ * A parked elevator takes requests on its way up or down from its floor, and is
+ * recalled to the lobby or the top of its zone when nobody else is coming there.
+ * <p>
+ * With a traffic classifier, the building watches its arrivals and switches to
+ * the dispatch plan for the kind of traffic it sees: up peak, down peak, two way
+ * or light.
  */
 public class Building implements BuildingInterface {
+  /**
+   * The steps an elevator spends waiting at the bottom and top on a round trip.
+   */
+  private static final int ROUND_TRIP_WAIT = 10;
+
   private final int numberOfFloors;
   private final int numberOfElevators;
   private final int elevatorCapacity;
   private final List<Elevator> elevators;
-  private final List<Request> upRequests;
-  private final List<Request> downRequests;
-  private ElevatorSystemStatus systemStatus;
+  private final List<ElevatorBank> banks;
+  private final List<Shaft> shafts;
+  private final Shaft[] shaftOf;
+  private int[] tripBanks;
+  private int[] legEnds;
+  private final List<Transfer> transfers;
+  private final RequestGroup[] queuedGroups;
+  private final RequestInbox inbox;
+  private final List<Request> deferredRequests;
+  private final int[] queuedFromFloor;
+  private final AtomicInteger backlog;
+  private final AtomicIntegerArray floorBacklog;
+  private final AtomicInteger backlogWaiters;
+  private final Object backlogMonitor;
+  private volatile AdmissionPolicy admissionPolicy;
+  private AgingPolicy agingPolicy;
+  private ParkingPolicy parkingPolicy;
+  private TrafficClassifier trafficClassifier;
+  private Dispatcher dispatcher;
+  private final Map<TrafficMode, DispatchPlan> dispatchPlans;
+  private volatile ElevatorSystemStatus systemStatus;
+  private long ticks;
+  private long dispatchedCount;
+  private long waitTickSum;
+  private long maxWaitTicks;
+  private final long[] dispatchedTo;
+  private final long[] waitTicksTo;
+  private final long[] maxWaitTicksTo;
+  private final long[] dispatchedBy;
+  private final long[] waitTicksBy;
+  private final long[] maxWaitTicksBy;
+  private long transferCount;
+  private final long[] transfersAt;
+  private final long[] transfersTo;
+  private final long[] legServiceAt;
+  private final long[] legServiceTo;
 
   /**
    * The constructor for the building.
@@ -46,8 +136,37 @@ public class Building implements BuildingInterface {
     for (int i = 0; i < numberOfElevators; i++) {
       this.elevators.add(new Elevator(this.numberOfFloors, this.elevatorCapacity));
     }
-    this.upRequests = new ArrayList<>();
-    this.downRequests = new ArrayList<>();
+    this.banks = new ArrayList<>();
+    this.shafts = new ArrayList<>();
+    this.shaftOf = new Shaft[numberOfElevators];
+    this.buildBanks(Collections.singletonList(
+            new Zone("all", 1, numberOfFloors - 1, numberOfElevators)));
+    this.queuedGroups = new RequestGroup[numberOfFloors * numberOfFloors];
+    this.inbox = new RequestInbox();
+    this.deferredRequests = new ArrayList<>();
+    this.queuedFromFloor = new int[numberOfFloors];
+    this.dispatchedTo = new long[numberOfFloors];
+    this.waitTicksTo = new long[numberOfFloors];
+    this.maxWaitTicksTo = new long[numberOfFloors];
+    this.dispatchedBy = new long[numberOfElevators];
+    this.waitTicksBy = new long[numberOfElevators];
+    this.maxWaitTicksBy = new long[numberOfElevators];
+    this.transfers = new ArrayList<>();
+    this.transfersAt = new long[numberOfFloors];
+    this.transfersTo = new long[numberOfFloors];
+    this.legServiceAt = new long[numberOfFloors];
+    this.legServiceTo = new long[numberOfFloors];
+    this.backlog = new AtomicInteger();
+    this.floorBacklog = new AtomicIntegerArray(numberOfFloors);
+    this.backlogWaiters = new AtomicInteger();
+    this.backlogMonitor = new Object();
+    this.admissionPolicy = AdmissionPolicy.unlimited();
+    this.agingPolicy = AgingPolicy.unlimited();
+    this.parkingPolicy = ParkingPolicy.none();
+    this.dispatchPlans = new EnumMap<>(TrafficMode.class);
+    for (TrafficMode mode : TrafficMode.values()) {
+      this.dispatchPlans.put(mode, DispatchPlan.standard(mode, elevatorCapacity));
+    }
     this.systemStatus = ElevatorSystemStatus.outOfService;
   }
 
@@ -72,7 +191,8 @@ public class Building implements BuildingInterface {
   }
 
   /**
-   * Returns the capacity of the elevators in the building.
+   * Returns the capacity of the elevators in the building, as built.
+   * Elevators of another car class hold as many people as their class.
    *
    * @return the capacity of the elevators in the building.
    */
@@ -88,19 +208,658 @@ public class Building implements BuildingInterface {
    */
   @Override
   public BuildingReport getElevatorSystemStatus() {
+    this.drainInbox();
     ElevatorReport[] elevatorReports = new ElevatorReport[this.getNumberOfElevators()];
     for (int i = 0; i < this.getNumberOfElevators(); i++) {
       elevatorReports[i] = this.elevators.get(i).getElevatorStatus();
     }
+    // groups are copied so the report does not change as people join them,
+    // and deferred requests are waiting too, behind the queued ones
+    List<Request> up = new ArrayList<>();
+    List<Request> down = new ArrayList<>();
+    for (ElevatorBank bank : this.banks) {
+      for (RequestGroup group : bank.getUpRequests()) {
+        up.add(group.copy());
+      }
+      for (RequestGroup group : bank.getDownRequests()) {
+        down.add(group.copy());
+      }
+    }
+    for (Request request : this.deferredRequests) {
+      if (request.getStartFloor() < request.getEndFloor()) {
+        up.add(request);
+      } else {
+        down.add(request);
+      }
+    }
     return new BuildingReport(this.numberOfFloors, this.numberOfElevators, this.elevatorCapacity,
-            elevatorReports, this.upRequests, this.downRequests, this.systemStatus);
+            elevatorReports, up, down, this.systemStatus);
+  }
+
+  /**
+   * Splits the elevators into zones. The first zones get the first elevators.
+   * A request is served by the first zone that serves both of its floors, or
+   * in legs by the zones that take it there with the fewest changes.
+   * Every elevator goes back to a shaft of its own.
+   *
+   * @param zones the zones, with one elevator for each elevator in the building.
+   * @throws IllegalArgumentException if there are no zones, a zone goes past the top
+   *                                  floor, or the zones do not have every elevator.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void setZones(List<Zone> zones) {
+    if (zones == null || zones.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one zone.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.outOfService) {
+      throw new IllegalStateException("The zones can only change when out of service.");
+    }
+    int elevatorCount = 0;
+    for (Zone zone : zones) {
+      if (zone.getHighFloor() > this.numberOfFloors - 1) {
+        throw new IllegalArgumentException("The zone " + zone.getName()
+                + " goes past the top floor.");
+      }
+      elevatorCount += zone.getElevatorCount();
+    }
+    if (elevatorCount != this.numberOfElevators) {
+      throw new IllegalArgumentException("The zones must have every elevator in the building.");
+    }
+    for (Shaft shaft : this.shafts) {
+      for (Elevator car : shaft.getCars()) {
+        car.setTravelLimits(0, this.numberOfFloors - 1);
+      }
+    }
+    this.shafts.clear();
+    Arrays.fill(this.shaftOf, null);
+    this.buildBanks(zones);
+  }
+
+  /**
+   * Puts several elevators in one shaft, one above the other. Each car keeps
+   * the floors of its zone, and of two cars next to each other the upper one
+   * must start and end its runs above the lower one. The floors both can reach
+   * are shared: only one of the two cars may be in them at a time, and the
+   * other waits at their edge until they are clear. Set the zones first.
+   *
+   * @param elevatorIndexes the indexes of the elevators, lowest car first.
+   * @throws IllegalArgumentException if there are fewer than two elevators, an index
+   *                                  is not valid or already shares a shaft, a car has
+   *                                  two decks, or a car does not run above the one
+   *                                  below it.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void shareShaft(int... elevatorIndexes) {
+    if (elevatorIndexes == null || elevatorIndexes.length < 2) {
+      throw new IllegalArgumentException("A shared shaft must have at least two elevators.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.outOfService) {
+      throw new IllegalStateException("The shafts can only change when out of service.");
+    }
+    List<Elevator> cars = new ArrayList<>();
+    for (int index : elevatorIndexes) {
+      if (index < 0 || index >= this.numberOfElevators || this.shaftOf[index] != null) {
+        throw new IllegalArgumentException("The elevator index is not valid.");
+      }
+      Elevator car = this.elevators.get(index);
+      if (cars.contains(car)) {
+        throw new IllegalArgumentException("The elevator index is not valid.");
+      }
+      if (car.getDeckCount() > 1) {
+        throw new IllegalArgumentException("Double-deck cars cannot share a shaft.");
+      }
+      if (!cars.isEmpty()) {
+        Elevator below = cars.get(cars.size() - 1);
+        if (car.getBottomFloor() <= below.getBottomFloor()
+                || car.getTopFloor() <= below.getTopFloor()) {
+          throw new IllegalArgumentException(
+                  "Each car in a shaft must run above the car below it.");
+        }
+      }
+      cars.add(car);
+    }
+    Shaft shaft = new Shaft(cars);
+    this.shafts.add(shaft);
+    for (int index : elevatorIndexes) {
+      this.shaftOf[index] = shaft;
+    }
+  }
+
+  /**
+   * Returns the zones of the building.
+   *
+   * @return the zones, in order.
+   */
+  public List<Zone> getZones() {
+    List<Zone> zones = new ArrayList<>();
+    for (ElevatorBank bank : this.banks) {
+      zones.add(bank.getZone());
+    }
+    return zones;
+  }
+
+  /**
+   * Builds a bank for every zone and works out which bank serves every trip,
+   * and where every journey changes elevators. The elevators of a bank turn
+   * around at the lobby and the top of its zone, and keep the floors they serve.
+   *
+   * @param zones the zones of the building.
+   */
+  private void buildBanks(List<Zone> zones) {
+    this.banks.clear();
+    int next = 0;
+    for (Zone zone : zones) {
+      List<Elevator> bankElevators = new ArrayList<>();
+      for (int i = 0; i < zone.getElevatorCount(); i++) {
+        Elevator elevator = this.elevators.get(next++);
+        // the bottom floor goes down first so the top floor is above it
+        elevator.setBottomFloor(0);
+        elevator.setTopFloor(zone.getHighFloor());
+        elevator.setBottomFloor(zone.getLobbyFloor());
+        bankElevators.add(elevator);
+      }
+      this.banks.add(new ElevatorBank(zone, bankElevators, this.numberOfFloors));
+    }
+    this.planTrips();
+  }
+
+  /**
+   * Works out which bank serves every trip, and where every journey changes
+   * elevators. A bank only serves a trip one of its cars serves both floors of.
+   */
+  private void planTrips() {
+    // the table is only read by callers once the system is running,
+    // which the write of the status makes visible to them
+    int[] tripBanks = new int[this.numberOfFloors * this.numberOfFloors];
+    Arrays.fill(tripBanks, -1);
+    // a trip goes to the first local zone serving both floors, but trips to or
+    // from the lobby go to the first such express zone, and so do trips no
+    // local zone serves
+    for (int start = 0; start < this.numberOfFloors; start++) {
+      for (int end = 0; end < this.numberOfFloors; end++) {
+        int local = -1;
+        int express = -1;
+        for (int bank = 0; bank < this.banks.size() && start != end; bank++) {
+          Zone zone = this.banks.get(bank).getZone();
+          if (zone.serves(start) && zone.serves(end)
+                  && servesTrip(this.banks.get(bank).getElevators(), start, end)) {
+            if (zone.isExpress() && express < 0) {
+              express = bank;
+            } else if (!zone.isExpress() && local < 0) {
+              local = bank;
+            }
+          }
+        }
+        boolean longHaul = start == 0 || end == 0;
+        tripBanks[start * this.numberOfFloors + end] =
+                express >= 0 && (longHaul || local < 0) ? express : local;
+      }
+    }
+    this.tripBanks = tripBanks;
+    this.legEnds = this.planLegs(tripBanks);
+  }
+
+  /**
+   * Returns whether one of some elevators serves both floors of a trip.
+   *
+   * @param bankElevators the elevators.
+   * @param start the start floor.
+   * @param end the end floor.
+   * @return true if an elevator serves both floors.
+   */
+  private static boolean servesTrip(List<Elevator> bankElevators, int start, int end) {
+    for (Elevator elevator : bankElevators) {
+      if (elevator.serves(start) && elevator.serves(end)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Works out the first leg of every journey: the fewest legs, then the fewest
+   * floors run, over the trips a zone serves.
+   *
+   * @param tripBanks the bank serving every trip, -1 for none.
+   * @return the end floor of the first leg of every journey, -1 if there is no way.
+   */
+  private int[] planLegs(int[] tripBanks) {
+    int floors = this.numberOfFloors;
+    int[] legs = new int[floors * floors];
+    int[] run = new int[floors * floors];
+    int[] legEnds = new int[floors * floors];
+    for (int start = 0; start < floors; start++) {
+      for (int end = 0; end < floors; end++) {
+        int trip = start * floors + end;
+        boolean served = tripBanks[trip] >= 0;
+        legs[trip] = served ? 1 : Integer.MAX_VALUE;
+        run[trip] = Math.abs(end - start);
+        legEnds[trip] = served ? end : -1;
+      }
+    }
+    // shortest paths over the floors, keeping the first change of every journey
+    for (int change = 0; change < floors; change++) {
+      for (int start = 0; start < floors; start++) {
+        int first = start * floors + change;
+        if (start == change || legEnds[first] < 0) {
+          continue;
+        }
+        for (int end = 0; end < floors; end++) {
+          int second = change * floors + end;
+          int trip = start * floors + end;
+          if (end == start || end == change || legEnds[second] < 0) {
+            continue;
+          }
+          int throughLegs = legs[first] + legs[second];
+          int throughRun = run[first] + run[second];
+          if (throughLegs < legs[trip] || throughLegs == legs[trip] && throughRun < run[trip]) {
+            legs[trip] = throughLegs;
+            run[trip] = throughRun;
+            legEnds[trip] = legEnds[first];
+          }
+        }
+      }
+    }
+    return legEnds;
+  }
+
+  /**
+   * Sets what the elevators do when they are idle.
+   * Elevators already parked stay parked until they get requests.
+   *
+   * @param parkingPolicy the new parking policy.
+   * @throws IllegalArgumentException if the policy is null.
+   */
+  public void setParkingPolicy(ParkingPolicy parkingPolicy) {
+    if (parkingPolicy == null) {
+      throw new IllegalArgumentException("The parking policy cannot be null.");
+    }
+    this.parkingPolicy = parkingPolicy;
+    for (Elevator elevator : this.elevators) {
+      elevator.setParkWhenIdle(parkingPolicy.getMode() != ParkingMode.none);
+    }
+  }
+
+  /**
+   * Returns what the elevators do when they are idle.
+   *
+   * @return the parking policy.
+   */
+  public ParkingPolicy getParkingPolicy() {
+    return this.parkingPolicy;
+  }
+
+  /**
+   * Sets the classifier that picks the dispatch plan from the traffic.
+   * The plan for the current mode of the classifier is used right away.
+   *
+   * @param trafficClassifier the classifier, null to stop switching plans.
+   *                          The policies in use are then kept.
+   */
+  public void setTrafficClassifier(TrafficClassifier trafficClassifier) {
+    this.trafficClassifier = trafficClassifier;
+    if (trafficClassifier != null) {
+      this.applyDispatchPlan(trafficClassifier.getMode());
+    }
+  }
+
+  /**
+   * Returns the kind of traffic the building sees.
+   *
+   * @return the traffic mode, null without a traffic classifier.
+   */
+  public TrafficMode getTrafficMode() {
+    return this.trafficClassifier == null ? null : this.trafficClassifier.getMode();
+  }
+
+  /**
+   * Sets the dispatch plan used in a kind of traffic.
+   *
+   * @param mode the kind of traffic.
+   * @param plan the dispatch plan.
+   * @throws IllegalArgumentException if the mode or plan is null.
+   */
+  public void setDispatchPlan(TrafficMode mode, DispatchPlan plan) {
+    if (mode == null || plan == null) {
+      throw new IllegalArgumentException("The traffic mode and dispatch plan cannot be null.");
+    }
+    this.dispatchPlans.put(mode, plan);
+    if (this.trafficClassifier != null && this.trafficClassifier.getMode() == mode) {
+      this.applyDispatchPlan(mode);
+    }
+  }
+
+  /**
+   * Returns the dispatch plan used in a kind of traffic.
+   *
+   * @param mode the kind of traffic.
+   * @return the dispatch plan.
+   */
+  public DispatchPlan getDispatchPlan(TrafficMode mode) {
+    return this.dispatchPlans.get(mode);
+  }
+
+  /**
+   * Switches to the dispatch plan of a kind of traffic.
+   *
+   * @param mode the kind of traffic.
+   */
+  private void applyDispatchPlan(TrafficMode mode) {
+    DispatchPlan plan = this.dispatchPlans.get(mode);
+    this.setDeparturePolicy(plan.getLobbyDeparture(), plan.getTopDeparture());
+    this.setParkingPolicy(plan.getParkingPolicy());
+  }
+
+  /**
+   * Sets the dispatcher that picks which elevators take the waiting requests.
+   *
+   * @param dispatcher the dispatcher, null for the built-in one, which gives
+   *                   every elevator the requests at the head of its queue.
+   */
+  public void setDispatcher(Dispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * Returns the dispatcher that picks which elevators take the waiting requests.
+   *
+   * @return the dispatcher, null for the built-in one.
+   */
+  public Dispatcher getDispatcher() {
+    return this.dispatcher;
+  }
+
+  /**
+   * Sets how long a group may wait before it goes ahead of every other group.
+   *
+   * @param agingPolicy the new aging policy.
+   * @throws IllegalArgumentException if the policy is null.
+   */
+  public void setAgingPolicy(AgingPolicy agingPolicy) {
+    if (agingPolicy == null) {
+      throw new IllegalArgumentException("The aging policy cannot be null.");
+    }
+    this.agingPolicy = agingPolicy;
+  }
+
+  /**
+   * Returns how long a group may wait before it goes ahead of every other group.
+   *
+   * @return the aging policy.
+   */
+  public AgingPolicy getAgingPolicy() {
+    return this.agingPolicy;
+  }
+
+  /**
+   * Sets the limits on the backlog of requests.
+   *
+   * @param admissionPolicy the new admission policy.
+   * @throws IllegalArgumentException if the policy is null.
+   */
+  public void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+    if (admissionPolicy == null) {
+      throw new IllegalArgumentException("The admission policy cannot be null.");
+    }
+    this.admissionPolicy = admissionPolicy;
+  }
+
+  /**
+   * Returns the limits on the backlog of requests.
+   *
+   * @return the admission policy.
+   */
+  public AdmissionPolicy getAdmissionPolicy() {
+    return this.admissionPolicy;
+  }
+
+  /**
+   * Sets how long the elevators keep their doors open at a stop.
+   *
+   * @param doorTiming the door timing for every elevator.
+   * @throws IllegalArgumentException if the door timing is null.
+   */
+  public void setDoorTiming(DoorTiming doorTiming) {
+    for (Elevator elevator : this.elevators) {
+      elevator.setDoorTiming(doorTiming);
+    }
+  }
+
+  /**
+   * Sets when the elevators leave the bottom and top floors.
+   *
+   * @param lobbyDeparture when the elevators leave the bottom floor.
+   * @param topDeparture when the elevators leave the top floor.
+   * @throws IllegalArgumentException if a policy is null.
+   */
+  public void setDeparturePolicy(DeparturePolicy lobbyDeparture, DeparturePolicy topDeparture) {
+    for (Elevator elevator : this.elevators) {
+      elevator.setDeparturePolicy(lobbyDeparture, topDeparture);
+    }
+  }
+
+  /**
+   * Makes every elevator a single-deck or a double-deck car.
+   * A double-deck car serves two floors at every stop, and people whose start
+   * and end floors are not on the same deck walk one floor to the other deck.
+   *
+   * @param deckCount 1 for single-deck cars, 2 for double-deck cars.
+   * @throws IllegalArgumentException if the deck count is not 1 or 2, or a zone
+   *                                  has too few floors for double-deck cars.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void setDeckCount(int deckCount) {
+    for (int i = 0; i < this.numberOfElevators; i++) {
+      this.setDeckCount(i, deckCount);
+    }
+  }
+
+  /**
+   * Makes one elevator a single-deck or a double-deck car.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param deckCount 1 for a single-deck car, 2 for a double-deck car.
+   * @throws IllegalArgumentException if the index is not valid, the deck count is
+   *                                  not 1 or 2, its zone has too few floors
+   *                                  for a double-deck car, or it shares a shaft.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void setDeckCount(int elevatorIndex, int deckCount) {
+    if (elevatorIndex < 0 || elevatorIndex >= this.numberOfElevators) {
+      throw new IllegalArgumentException("The elevator index is not valid.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.outOfService) {
+      throw new IllegalStateException("The decks can only change when out of service.");
+    }
+    if (deckCount > 1 && this.shaftOf[elevatorIndex] != null) {
+      throw new IllegalArgumentException("Double-deck cars cannot share a shaft.");
+    }
+    this.elevators.get(elevatorIndex).setDeckCount(deckCount);
+    for (ElevatorBank bank : this.banks) {
+      bank.sortBySize();
+    }
+  }
+
+  /**
+   * Makes one elevator a car of a class, with its capacity, speed and door
+   * timing. Door timings set for the whole building later replace the door
+   * timing of the class.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param carClass the class of car.
+   * @throws IllegalArgumentException if the index is not valid or the class is null.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void setCarClass(int elevatorIndex, CarClass carClass) {
+    if (elevatorIndex < 0 || elevatorIndex >= this.numberOfElevators) {
+      throw new IllegalArgumentException("The elevator index is not valid.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.outOfService) {
+      throw new IllegalStateException("The car classes can only change when out of service.");
+    }
+    this.elevators.get(elevatorIndex).setCarClass(carClass);
+    for (ElevatorBank bank : this.banks) {
+      bank.sortBySize();
+    }
+  }
+
+  /**
+   * Sets the floors one elevator serves. The elevator still runs the floors of
+   * its zone, but is only given people whose start and end floors it serves.
+   * Journeys no elevator can complete are rejected from then on.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param floors the floors the elevator serves, null for every floor.
+   * @throws IllegalArgumentException if the index is not valid or a floor is
+   *                                  not in the building.
+   * @throws IllegalStateException if the elevator system is not out of service.
+   */
+  public void setServedFloors(int elevatorIndex, BitSet floors) {
+    if (elevatorIndex < 0 || elevatorIndex >= this.numberOfElevators) {
+      throw new IllegalArgumentException("The elevator index is not valid.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.outOfService) {
+      throw new IllegalStateException("The served floors can only change when out of service.");
+    }
+    this.elevators.get(elevatorIndex).setServedFloors(floors);
+    this.planTrips();
+  }
+
+  /**
+   * Puts every elevator in kinematic mode, or back to one floor per step.
+   *
+   * @param kinematics how the elevators move, null to move one floor per step.
+   * @throws IllegalArgumentException if the kinematics are for a different number of floors.
+   * @throws IllegalStateException if an elevator is between floors.
+   */
+  public void setKinematics(Kinematics kinematics) {
+    for (Elevator elevator : this.elevators) {
+      elevator.setKinematics(kinematics);
+    }
+  }
+
+  /**
+   * Puts one elevator in kinematic mode, or back to one floor per step.
+   * Each elevator can have its own motion profile and floor heights.
+   *
+   * @param elevatorIndex the index of the elevator.
+   * @param kinematics how the elevator moves, null to move one floor per step.
+   * @throws IllegalArgumentException if the index is not valid, or the kinematics
+   *                                  are for a different number of floors.
+   * @throws IllegalStateException if the elevator is between floors.
+   */
+  public void setKinematics(int elevatorIndex, Kinematics kinematics) {
+    if (elevatorIndex < 0 || elevatorIndex >= this.numberOfElevators) {
+      throw new IllegalArgumentException("The elevator index is not valid.");
+    }
+    this.elevators.get(elevatorIndex).setKinematics(kinematics);
+  }
+
+  /**
+   * Returns how well the building has served its people so far.
+   *
+   * @return the stats of the building.
+   */
+  public BuildingStats getStats() {
+    long delivered = 0;
+    long serviceTickSum = 0;
+    long floorsTravelled = 0;
+    for (Elevator elevator : this.elevators) {
+      delivered += elevator.getDeliveredCount();
+      serviceTickSum += elevator.getServiceTickSum();
+      floorsTravelled += elevator.getFloorsTravelled();
+    }
+    return new BuildingStats(this.ticks, this.dispatchedCount, delivered - this.transferCount,
+            this.transferCount, this.waitTickSum, this.maxWaitTicks, serviceTickSum,
+            floorsTravelled);
+  }
+
+  /**
+   * Returns how well the building has served the people going to a range of floors.
+   * The floors travelled are those of every elevator.
+   *
+   * @param lowFloor the lowest floor people went to.
+   * @param highFloor the highest floor people went to.
+   * @return the stats of the people going to the floors.
+   * @throws IllegalArgumentException if the range is not floors of the building.
+   */
+  public BuildingStats getStats(int lowFloor, int highFloor) {
+    if (lowFloor < 0 || highFloor >= this.numberOfFloors || lowFloor > highFloor) {
+      throw new IllegalArgumentException("The floors must be a range in the building.");
+    }
+    long dispatched = 0;
+    long waitTicks = 0;
+    long maxWait = 0;
+    long delivered = 0;
+    long transferred = 0;
+    long serviceTicks = 0;
+    for (int floor = lowFloor; floor <= highFloor; floor++) {
+      dispatched += this.dispatchedTo[floor];
+      waitTicks += this.waitTicksTo[floor];
+      maxWait = Math.max(maxWait, this.maxWaitTicksTo[floor]);
+      // the legs of people changing elevators count for the end of their journey
+      transferred += this.transfersTo[floor];
+      delivered -= this.transfersAt[floor];
+      serviceTicks += this.legServiceTo[floor] - this.legServiceAt[floor];
+      for (Elevator elevator : this.elevators) {
+        delivered += elevator.getDeliveredCount(floor);
+        serviceTicks += elevator.getServiceTickSum(floor);
+      }
+    }
+    long floorsTravelled = 0;
+    for (Elevator elevator : this.elevators) {
+      floorsTravelled += elevator.getFloorsTravelled();
+    }
+    return new BuildingStats(this.ticks, dispatched, delivered, transferred, waitTicks, maxWait,
+            serviceTicks, floorsTravelled);
+  }
+
+  /**
+   * Returns the stats of the cars of each class. Every leg a car carries
+   * counts as a trip of its own, from the wait for the car to getting out of it,
+   * so people who change elevators count once for every car they ride.
+   *
+   * @return the stats of every car class by its name, in the order of the
+   *         first elevator of each class.
+   */
+  public Map<String, BuildingStats> getStatsByCarClass() {
+    Map<String, long[]> sums = new LinkedHashMap<>();
+    for (int i = 0; i < this.numberOfElevators; i++) {
+      Elevator elevator = this.elevators.get(i);
+      long[] sum = sums.computeIfAbsent(elevator.getCarClass().getName(), name -> new long[6]);
+      sum[0] += this.dispatchedBy[i];
+      sum[1] += elevator.getDeliveredCount();
+      sum[2] += this.waitTicksBy[i];
+      sum[3] = Math.max(sum[3], this.maxWaitTicksBy[i]);
+      sum[4] += elevator.getServiceTickSum();
+      sum[5] += elevator.getFloorsTravelled();
+    }
+    Map<String, BuildingStats> stats = new LinkedHashMap<>();
+    for (Map.Entry<String, long[]> entry : sums.entrySet()) {
+      long[] sum = entry.getValue();
+      stats.put(entry.getKey(), new BuildingStats(this.ticks, sum[0], sum[1], 0, sum[2], sum[3],
+              sum[4], sum[5]));
+    }
+    return stats;
+  }
+
+  /**
+   * Returns the number of requests admitted but not yet given to an elevator.
+   * This can be called from any thread.
+   *
+   * @return the backlog of the building.
+   */
+  public int getBacklog() {
+    return this.backlog.get();
   }
 
   /**
    * Adds a request to the building.
+   * This can be called from any thread. The request is validated right away
+   * and queued for dispatch at the start of the next step.
    *
    * @param request the request to add.
-   * @return true if the request was added, false otherwise.
+   * @return true if the request was added, false if the backlog is full.
    * @throws IllegalStateException if elevator system status is not running.
    * @throws IllegalArgumentException if the request floor is not valid.
    * @throws IllegalArgumentException if the start floor is the same as the end floor.
@@ -109,6 +868,178 @@ public class Building implements BuildingInterface {
   @Override
   public boolean addRequest(Request request)
           throws IllegalArgumentException, IllegalStateException {
+    return this.offerRequest(request).isAdmitted();
+  }
+
+  /**
+   * Offers a request to the building without blocking.
+   * This can be called from any thread. The request is validated right away,
+   * then accepted, deferred until its floor has room, or rejected if the
+   * backlog of the building is full.
+   *
+   * @param request the request to offer.
+   * @return what happened to the request.
+   * @throws IllegalStateException if elevator system status is not running.
+   * @throws IllegalArgumentException if the request is not valid.
+   */
+  public AdmissionResult offerRequest(Request request)
+          throws IllegalArgumentException, IllegalStateException {
+    this.validateRequest(request);
+    AdmissionPolicy policy = this.admissionPolicy;
+    int count = request.getPassengerCount();
+    int current;
+    do {
+      current = this.backlog.get();
+      if (current + count > policy.getGlobalLimit()) {
+        return AdmissionResult.rejected(
+                this.retryAfterTicks(current + count - policy.getGlobalLimit()));
+      }
+    } while (!this.backlog.compareAndSet(current, current + count));
+    boolean deferred = this.floorBacklog.addAndGet(request.getStartFloor(), count)
+            > policy.getPerFloorLimit();
+    this.inbox.offer(request);
+    return deferred ? AdmissionResult.DEFERRED : AdmissionResult.ACCEPTED;
+  }
+
+  /**
+   * Adds a batch of requests to the building.
+   * This can be called from any thread. The batch is checked in one pass and
+   * handed to the building in one go; invalid requests are skipped instead of
+   * throwing, and requests that do not fit under the global backlog limit are
+   * rejected, while later requests that still fit are admitted.
+   * Requests over a per-floor limit are admitted and deferred.
+   *
+   * @param requests the requests to add.
+   * @return a bitmap with bit i set if request i was admitted.
+   * @throws IllegalArgumentException if the array is null.
+   * @throws IllegalStateException if elevator system status is not running.
+   */
+  public BitSet addRequests(Request[] requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("The requests cannot be null.");
+    }
+    if (this.systemStatus != ElevatorSystemStatus.running) {
+      throw new IllegalStateException("The elevator system is not running.");
+    }
+    BitSet admitted = new BitSet(requests.length);
+    int lastFloor = this.numberOfFloors - 1;
+    Request[] batch = new Request[requests.length];
+    int[] positions = new int[requests.length];
+    int size = 0;
+    int people = 0;
+    for (int i = 0; i < requests.length; i++) {
+      Request request = requests[i];
+      if (request == null) {
+        continue;
+      }
+      int start = request.getStartFloor();
+      int end = request.getEndFloor();
+      if (start < 0 || start > lastFloor || end < 0 || end > lastFloor || start == end
+              || this.legEnds[start * this.numberOfFloors + end] < 0) {
+        continue;
+      }
+      batch[size] = request;
+      positions[size] = i;
+      size++;
+      people += request.getPassengerCount();
+    }
+    // reserve room for the whole batch at once, trimmed to the global limit
+    int limit = this.admissionPolicy.getGlobalLimit();
+    int current;
+    int reserved;
+    do {
+      current = this.backlog.get();
+      reserved = (int) Math.min(people, Math.max(0L, (long) limit - current));
+    } while (!this.backlog.compareAndSet(current, current + reserved));
+    // a request that does not fit is skipped, so a large group early in the
+    // batch does not reject the smaller requests after it
+    int kept = 0;
+    int keptPeople = 0;
+    int[] perFloor = new int[this.numberOfFloors];
+    for (int i = 0; i < size && keptPeople < reserved; i++) {
+      int count = batch[i].getPassengerCount();
+      if (keptPeople + count > reserved) {
+        continue;
+      }
+      keptPeople += count;
+      perFloor[batch[i].getStartFloor()] += count;
+      admitted.set(positions[i]);
+      batch[kept++] = batch[i];
+    }
+    if (keptPeople < reserved) {
+      this.backlog.addAndGet(keptPeople - reserved);
+    }
+    for (int floor = 0; floor <= lastFloor; floor++) {
+      if (perFloor[floor] > 0) {
+        this.floorBacklog.addAndGet(floor, perFloor[floor]);
+      }
+    }
+    this.inbox.offerAll(batch, kept);
+    return admitted;
+  }
+
+  /**
+   * Adds a batch of requests to the building.
+   *
+   * @param requests the requests to add, in iteration order.
+   * @return a bitmap with bit i set if the i-th request was admitted.
+   * @throws IllegalArgumentException if the collection is null.
+   * @throws IllegalStateException if elevator system status is not running.
+   * @see #addRequests(Request[])
+   */
+  public BitSet addRequests(Collection<? extends Request> requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("The requests cannot be null.");
+    }
+    return this.addRequests(requests.toArray(new Request[0]));
+  }
+
+  /**
+   * Offers a request to the building, waiting for room in the backlog.
+   * This can be called from any thread.
+   *
+   * @param request the request to offer.
+   * @param timeout the longest time to wait.
+   * @param unit the unit of the timeout.
+   * @return what happened to the request, rejected if the timeout passed.
+   * @throws InterruptedException if the thread is interrupted while waiting.
+   * @throws IllegalStateException if elevator system status is not running.
+   * @throws IllegalArgumentException if the request is not valid.
+   */
+  public AdmissionResult offerRequest(Request request, long timeout, TimeUnit unit)
+          throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    AdmissionResult result = this.offerRequest(request);
+    if (result.isAdmitted()) {
+      return result;
+    }
+    this.backlogWaiters.incrementAndGet();
+    try {
+      synchronized (this.backlogMonitor) {
+        while (true) {
+          result = this.offerRequest(request);
+          long left = deadline - System.nanoTime();
+          if (result.isAdmitted() || left <= 0) {
+            return result;
+          }
+          TimeUnit.NANOSECONDS.timedWait(this.backlogMonitor, left);
+        }
+      }
+    } finally {
+      this.backlogWaiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Checks that a request can be added to the building.
+   *
+   * @param request the request to check.
+   * @throws IllegalStateException if elevator system status is not running.
+   * @throws IllegalArgumentException if the request floor is not valid.
+   * @throws IllegalArgumentException if the start floor is the same as the end floor.
+   * @throws IllegalArgumentException if the request floor is null
+   */
+  private void validateRequest(Request request) {
     if (request == null) {
       throw new IllegalArgumentException("The request cannot be null.");
     }
@@ -123,12 +1054,213 @@ public class Building implements BuildingInterface {
     if (request.getStartFloor() == request.getEndFloor()) {
       throw new IllegalArgumentException("The start floor and end floor must be different.");
     }
-    if (request.getStartFloor() < request.getEndFloor()) {
-      this.upRequests.add(request);
+    if (this.legEnds[this.groupKey(request)] < 0) {
+      throw new IllegalArgumentException("No elevators can take the request to its end floor.");
+    }
+  }
+
+  /**
+   * Estimates how many steps it takes for the backlog to shrink by some requests.
+   * Every elevator is assumed to carry a full load per round trip.
+   *
+   * @param excess the number of requests the backlog must shrink by.
+   * @return the estimated number of steps.
+   */
+  private int retryAfterTicks(int excess) {
+    int roundTrip = 2 * (this.numberOfFloors - 1) + ROUND_TRIP_WAIT;
+    int perRoundTrip = 0;
+    for (Elevator elevator : this.elevators) {
+      perRoundTrip += elevator.getMaxOccupancy() * elevator.getDeckCount();
+    }
+    return (excess + perRoundTrip - 1) / perRoundTrip * roundTrip;
+  }
+
+  /**
+   * Moves the requests waiting in the inbox to the up and down requests.
+   * A request from a floor that is at its limit is deferred instead.
+   * Requests that arrive after the system stopped running are dropped.
+   */
+  private void drainInbox() {
+    if (this.inbox.isEmpty()) {
+      return;
+    }
+    this.inbox.drain(request -> {
+      if (this.systemStatus != ElevatorSystemStatus.running) {
+        this.release(request);
+        return;
+      }
+      if (this.trafficClassifier != null) {
+        this.trafficClassifier.record(request);
+      }
+      if (this.queuedFromFloor[request.getStartFloor()]
+              >= this.admissionPolicy.getPerFloorLimit()) {
+        this.deferredRequests.add(request);
+      } else {
+        this.queue(request);
+      }
+    });
+  }
+
+  /**
+   * Queues a request for dispatch, for the first leg of its journey.
+   * The request joins the queued group for the same journey if there is one.
+   *
+   * @param request the request to queue.
+   */
+  private void queue(Request request) {
+    int key = this.groupKey(request);
+    int start = request.getStartFloor();
+    int legEnd = this.legEnds[key];
+    if (this.dispatcher != null) {
+      this.dispatcher.arrived(legEnd == request.getEndFloor() ? request
+              : new RequestGroup(start, legEnd, request.getPassengerCount()), this.ticks);
+    }
+    this.queuedFromFloor[start] += request.getPassengerCount();
+    // every person counts towards the demand, also when joining a group
+    ElevatorBank bank = this.banks.get(this.tripBanks[start * this.numberOfFloors + legEnd]);
+    bank.getDemand()[start] += request.getPassengerCount();
+    RequestGroup group = this.queuedGroups[key];
+    if (group != null) {
+      group.add(request.getPassengerCount(), this.ticks);
+      return;
+    }
+    group = new RequestGroup(start, legEnd, request.getPassengerCount(),
+            request.getPassengerCount() * this.ticks, request.getEndFloor());
+    this.queuedGroups[key] = group;
+    bank.getAgingLine().add(group);
+    // the queue goes by the way of the leg, which can be away from the journey end
+    if (start < legEnd) {
+      bank.getUpRequests().add(group);
     } else {
-      this.downRequests.add(request);
+      bank.getDownRequests().add(group);
+    }
+  }
+
+  /**
+   * Returns the index of the queued group for the journey of a request.
+   * A group is found by its start floor and the end floor of its journey,
+   * which also sets the end floor of its leg.
+   *
+   * @param request the request, or a group.
+   * @return the index in the queued groups.
+   */
+  private int groupKey(Request request) {
+    int end = request instanceof RequestGroup
+            ? ((RequestGroup) request).getJourneyEndFloor() : request.getEndFloor();
+    return request.getStartFloor() * this.numberOfFloors + end;
+  }
+
+  /**
+   * Takes the groups an elevator serves from the head of a queue, up to its
+   * free capacity. The last group is only split if it does not fit whole.
+   *
+   * @param queue the queue to take from.
+   * @param elevator the elevator to take for.
+   * @return the groups taken.
+   */
+  private List<Request> takeRequests(List<RequestGroup> queue, Elevator elevator) {
+    return this.takeRequests(queue, elevator, 0, this.numberOfFloors - 1);
+  }
+
+  /**
+   * Takes the groups an elevator serves starting in a range of floors from
+   * a queue, in order, up to its free capacity. The last group is only split
+   * if it does not fit whole.
+   *
+   * @param queue the queue to take from.
+   * @param elevator the elevator to take for.
+   * @param lowStart the lowest start floor to take.
+   * @param highStart the highest start floor to take.
+   * @return the groups taken.
+   */
+  private List<Request> takeRequests(List<RequestGroup> queue, Elevator elevator, int lowStart,
+                                     int highStart) {
+    List<Request> taken = new ArrayList<>();
+    int room = elevator.getFreeCapacity();
+    int kept = 0;
+    for (int i = 0; i < queue.size(); i++) {
+      RequestGroup group = queue.get(i);
+      int start = group.getStartFloor();
+      if (room > 0 && start >= lowStart && start <= highStart && serves(elevator, group)) {
+        if (group.getPassengerCount() <= room) {
+          taken.add(group);
+          room -= group.getPassengerCount();
+          this.queuedGroups[this.groupKey(group)] = null;
+          continue;
+        }
+        taken.add(group.split(room));
+        room = 0;
+      }
+      queue.set(kept++, group);
+    }
+    queue.subList(kept, queue.size()).clear();
+    this.dispatched(taken);
+    return taken;
+  }
+
+  /**
+   * Adds the wait of a group given to an elevator to the stats, by the end
+   * floor of its journey and by the elevator.
+   *
+   * @param group the group given out.
+   * @param elevatorIndex the index of the elevator it was given to.
+   */
+  private void recordWait(RequestGroup group, int elevatorIndex) {
+    int count = group.getPassengerCount();
+    long waitTicks = count * this.ticks - group.getArrivalTickSum();
+    long maxWait = this.ticks - group.getFirstArrivalTick();
+    int end = group.getJourneyEndFloor();
+    this.dispatchedCount += count;
+    this.waitTickSum += waitTicks;
+    this.maxWaitTicks = Math.max(this.maxWaitTicks, maxWait);
+    this.dispatchedTo[end] += count;
+    this.waitTicksTo[end] += waitTicks;
+    this.maxWaitTicksTo[end] = Math.max(this.maxWaitTicksTo[end], maxWait);
+    this.dispatchedBy[elevatorIndex] += count;
+    this.waitTicksBy[elevatorIndex] += waitTicks;
+    this.maxWaitTicksBy[elevatorIndex] = Math.max(this.maxWaitTicksBy[elevatorIndex], maxWait);
+  }
+
+  /**
+   * Queues the deferred requests whose floors have room again, in order.
+   */
+  private void promoteDeferredRequests() {
+    int limit = this.admissionPolicy.getPerFloorLimit();
+    Iterator<Request> iterator = this.deferredRequests.iterator();
+    while (iterator.hasNext()) {
+      Request request = iterator.next();
+      if (this.queuedFromFloor[request.getStartFloor()] < limit) {
+        iterator.remove();
+        this.queue(request);
+      }
+    }
+  }
+
+  /**
+   * Takes queued requests out of the backlog once they are given to an elevator.
+   *
+   * @param requests the requests given to an elevator.
+   */
+  private void dispatched(List<? extends Request> requests) {
+    for (Request request : requests) {
+      this.queuedFromFloor[request.getStartFloor()] -= request.getPassengerCount();
+      this.release(request);
+    }
+  }
+
+  /**
+   * Takes a request out of the backlog and wakes callers waiting for room.
+   *
+   * @param request the request leaving the backlog.
+   */
+  private void release(Request request) {
+    this.floorBacklog.addAndGet(request.getStartFloor(), -request.getPassengerCount());
+    this.backlog.addAndGet(-request.getPassengerCount());
+    if (this.backlogWaiters.get() > 0) {
+      synchronized (this.backlogMonitor) {
+        this.backlogMonitor.notifyAll();
+      }
     }
-    return true;
   }
 
   /**
@@ -165,13 +1297,61 @@ public class Building implements BuildingInterface {
       throw new IllegalStateException("The elevator system is already stopping.");
     }
     this.systemStatus = ElevatorSystemStatus.stopping;
-    this.upRequests.clear();
-    this.downRequests.clear();
+    this.drainInbox();
+    for (ElevatorBank bank : this.banks) {
+      this.dispatched(bank.getUpRequests());
+      this.dispatched(bank.getDownRequests());
+      bank.getUpRequests().clear();
+      bank.getDownRequests().clear();
+      bank.getAgingLine().clear();
+    }
+    for (Request request : this.deferredRequests) {
+      this.release(request);
+    }
+    this.deferredRequests.clear();
+    this.transfers.clear();
+    Arrays.fill(this.queuedGroups, null);
     for (Elevator elevator : this.elevators) {
       elevator.takeOutOfService();
     }
   }
 
+  /**
+   * Returns whether the elevator system has nothing left to do.
+   * A stopping system is idle once it is out of service.
+   *
+   * @return true if no requests are waiting and no elevator has stops left.
+   */
+  @Override
+  public boolean isIdle() {
+    if (this.systemStatus == ElevatorSystemStatus.outOfService) {
+      return true;
+    }
+    if (this.systemStatus == ElevatorSystemStatus.stopping) {
+      return false;
+    }
+    this.drainInbox();
+    if (!this.deferredRequests.isEmpty() || !this.transfers.isEmpty()) {
+      return false;
+    }
+    for (ElevatorBank bank : this.banks) {
+      if (!bank.hasNoRequests()) {
+        return false;
+      }
+    }
+    for (Elevator elevator : this.elevators) {
+      if (!elevator.isDoorClosed()) {
+        return false;
+      }
+      for (boolean floorRequest : elevator.getFloorRequests()) {
+        if (floorRequest) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   /**
    * Steps the elevator system.
    */
@@ -181,12 +1361,13 @@ public class Building implements BuildingInterface {
     if (this.systemStatus == ElevatorSystemStatus.outOfService) {
       return;
     }
-    // if the system is stopping, check if all elevators are on the ground floor
+    this.ticks++;
+    // if the system is stopping, check if all elevators are on their bottom floor
     // if yes, set the system status to out of service
     if (this.systemStatus == ElevatorSystemStatus.stopping) {
       boolean allElevatorsOnGroundFloor = true;
       for (Elevator elevator : this.elevators) {
-        if (elevator.getCurrentFloor() != 0) {
+        if (elevator.getCurrentFloor() != elevator.getBottomFloor() || elevator.isMoving()) {
           allElevatorsOnGroundFloor = false;
           break;
         }
@@ -195,52 +1376,488 @@ public class Building implements BuildingInterface {
         this.systemStatus = ElevatorSystemStatus.outOfService;
       }
     }
-    // if the system is running, distribute requests to elevators and step each elevator
+    // if the system is running, take the new requests in one batch,
+    // distribute requests to the elevators of every zone
     if (this.systemStatus == ElevatorSystemStatus.running) {
-      this.distributeRequestToElevator();
+      this.drainInbox();
+      if (this.trafficClassifier != null && this.trafficClassifier.advance()) {
+        this.applyDispatchPlan(this.trafficClassifier.getMode());
+      }
+      // show the dispatch where the cars of shared shafts can run to now
+      for (Shaft shaft : this.shafts) {
+        for (Elevator car : shaft.getCars()) {
+          shaft.limit(car);
+        }
+      }
+      for (ElevatorBank bank : this.banks) {
+        this.markOverdue(bank);
+        this.distributeRequestToElevator(bank);
+        this.parkIdleElevators(bank);
+      }
+      this.promoteDeferredRequests();
+      // clear the way for cars waiting on a car parked in their shaft with nothing to do
+      for (Shaft shaft : this.shafts) {
+        shaft.moveParkedCars();
+      }
     }
-    // step each elevator
-    for (Elevator elevator : this.elevators) {
+    // step each elevator, the cars of a shared shaft kept clear of each other
+    // from where the others are after their own step
+    for (int i = 0; i < this.numberOfElevators; i++) {
+      Elevator elevator = this.elevators.get(i);
+      if (this.shaftOf[i] != null) {
+        this.shaftOf[i].limit(elevator);
+      }
       elevator.step();
     }
+    if (this.systemStatus == ElevatorSystemStatus.running && !this.transfers.isEmpty()) {
+      this.changeElevators();
+    }
   }
 
   /**
-   * Distributes requests to elevators.
+   * Distributes the requests of a zone to its elevators.
+   *
+   * @param bank the elevators and queues of the zone.
    */
-  private void distributeRequestToElevator() {
+  private void distributeRequestToElevator(ElevatorBank bank) {
     // if there are no requests, do nothing
-    if (this.upRequests.isEmpty() && this.downRequests.isEmpty()) {
+    if (bank.hasNoRequests()) {
       return;
     }
-    // distribute requests to elevators
-    for (Elevator elevator : this.elevators) {
-      if (elevator.isTakingRequests()) {
-        // for elevator waiting at ground floor, give it requests going up
-        if (elevator.getCurrentFloor() == 0) {
-          if (!this.upRequests.isEmpty()) {
-            if (this.upRequests.size() > elevator.getMaxOccupancy()) {
-              elevator.processRequests(this.upRequests.subList(0, elevator.getMaxOccupancy()));
-              this.upRequests.subList(0, elevator.getMaxOccupancy()).clear();
-            } else {
-              elevator.processRequests(this.upRequests);
-              this.upRequests.clear();
-            }
+    if (this.dispatcher != null) {
+      this.assignRequests(bank);
+      return;
+    }
+    List<RequestGroup> upRequests = bank.getUpRequests();
+    List<RequestGroup> downRequests = bank.getDownRequests();
+    // distribute requests to elevators, up to the room each has left,
+    // since a held elevator may already have people for this trip;
+    // the largest cars go first, so large groups go whole to large cars
+    for (Elevator elevator : bank.getElevatorsBySize()) {
+      if (elevator.isTakingRequests() && elevator.getFreeCapacity() > 0) {
+        int floor = elevator.getCurrentFloor();
+        int bottom = elevator.getBottomFloor();
+        int top = elevator.getTopFloor();
+        if (elevator.isParked() && floor != bottom && floor != top) {
+          // a parked elevator takes the people on its way up or down, whichever is more
+          // unless only one way has overdue people; the upper deck of a double-deck
+          // car takes people from the floor above
+          int upper = floor + elevator.getDeckCount() - 1;
+          int upPeople = countFrom(upRequests, elevator, floor, top);
+          int downPeople = countFrom(downRequests, elevator, bottom, upper);
+          boolean upOverdue = hasOverdueFrom(upRequests, elevator, floor, top);
+          boolean downOverdue = hasOverdueFrom(downRequests, elevator, bottom, upper);
+          if (upPeople > 0 && (upOverdue || !downOverdue && upPeople >= downPeople)) {
+            this.give(elevator, this.takeRequests(upRequests, elevator, floor, top));
+          } else if (downPeople > 0) {
+            this.give(elevator, this.takeRequests(downRequests, elevator, bottom, upper));
           }
-        } else if (elevator.getCurrentFloor() == this.numberOfFloors - 1) {
-          // for elevator waiting at top floor, give it requests going down
-          if (!this.downRequests.isEmpty()) {
-            if (this.downRequests.size() > elevator.getMaxOccupancy()) {
-              elevator.processRequests(this.downRequests.subList(0, elevator.getMaxOccupancy()));
-              this.downRequests.subList(0, elevator.getMaxOccupancy()).clear();
-            } else {
-              elevator.processRequests(this.downRequests);
-              this.downRequests.clear();
-            }
+        } else if (elevator.getCurrentFloor() == bottom) {
+          // for elevator waiting at the lobby of its zone, give it requests going up
+          if (!upRequests.isEmpty()) {
+            this.give(elevator, this.takeRequests(upRequests, elevator));
           }
+        } else if (elevator.getCurrentFloor() == top) {
+          // for elevator waiting at the top of its zone, give it requests going down
+          if (!downRequests.isEmpty()) {
+            this.give(elevator, this.takeRequests(downRequests, elevator));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Gives groups to an elevator, keeping track of the people who change
+   * elevators at the end of their leg.
+   *
+   * @param elevator the elevator.
+   * @param groups the groups taken from the queues for it.
+   */
+  private void give(Elevator elevator, List<Request> groups) {
+    elevator.processRequests(groups);
+    int elevatorIndex = this.elevators.indexOf(elevator);
+    for (Request request : groups) {
+      RequestGroup group = (RequestGroup) request;
+      this.recordWait(group, elevatorIndex);
+      if (group.getJourneyEndFloor() != group.getEndFloor()) {
+        this.transfers.add(new Transfer(elevator, group, this.ticks));
+      }
+    }
+  }
+
+  /**
+   * Queues the next leg for the people let out at the end of their last one.
+   * They are already in the building, so the next leg skips admission.
+   */
+  private void changeElevators() {
+    Iterator<Transfer> iterator = this.transfers.iterator();
+    while (iterator.hasNext()) {
+      Transfer transfer = iterator.next();
+      if (!transfer.isOver()) {
+        continue;
+      }
+      iterator.remove();
+      RequestGroup leg = transfer.getLeg();
+      int count = leg.getPassengerCount();
+      int floor = leg.getEndFloor();
+      int end = leg.getJourneyEndFloor();
+      // the elevator counts the people in service from the step it took them
+      // through the step it let them out
+      long legService = count * (this.ticks - transfer.getGivenTick() + 1);
+      this.transferCount += count;
+      this.transfersAt[floor] += count;
+      this.transfersTo[end] += count;
+      this.legServiceAt[floor] += legService;
+      this.legServiceTo[end] += legService;
+      this.backlog.addAndGet(count);
+      this.floorBacklog.addAndGet(floor, count);
+      this.queue(new RequestGroup(floor, end, count));
+    }
+  }
+
+  /**
+   * Gives the requests of a zone to its elevators as the dispatcher assigns them.
+   *
+   * @param bank the elevators and queues of the zone.
+   * @throws IllegalStateException if the dispatcher gives an elevator people
+   *                               it cannot take.
+   */
+  private void assignRequests(ElevatorBank bank) {
+    List<Elevator> bankElevators = bank.getElevators();
+    boolean ready = false;
+    for (Elevator elevator : bankElevators) {
+      ready |= elevator.isTakingRequests() && elevator.getFreeCapacity() > 0;
+    }
+    if (!ready) {
+      return;
+    }
+    List<RequestGroup> upRequests = bank.getUpRequests();
+    List<RequestGroup> downRequests = bank.getDownRequests();
+    List<RequestGroup> calls = new ArrayList<>(upRequests.size() + downRequests.size());
+    calls.addAll(upRequests);
+    calls.addAll(downRequests);
+    List<CallAssignment> assignments = this.dispatcher.assign(
+            Collections.unmodifiableList(bankElevators), Collections.unmodifiableList(calls),
+            this.ticks);
+
+    // check every assignment before anything is taken from the queues
+    int[] room = new int[bankElevators.size()];
+    Boolean[] goingUp = new Boolean[bankElevators.size()];
+    for (int i = 0; i < bankElevators.size(); i++) {
+      room[i] = bankElevators.get(i).getFreeCapacity();
+    }
+    int[] left = new int[calls.size()];
+    for (int i = 0; i < calls.size(); i++) {
+      left[i] = calls.get(i).getPassengerCount();
+    }
+    for (CallAssignment assignment : assignments) {
+      int car = assignment.getElevatorIndex();
+      int call = assignment.getCallIndex();
+      int count = assignment.getPassengerCount();
+      if (car < 0 || car >= bankElevators.size() || call < 0 || call >= calls.size()
+              || count <= 0 || count > room[car] || count > left[call]
+              || !Dispatcher.canTake(bankElevators.get(car), calls.get(call))) {
+        throw new IllegalStateException("The dispatcher gave an elevator a request "
+                + "it cannot take.");
+      }
+      boolean up = call < upRequests.size();
+      if (goingUp[car] != null && goingUp[car] != up) {
+        throw new IllegalStateException("The dispatcher sent an elevator both ways.");
+      }
+      goingUp[car] = up;
+      room[car] -= count;
+      left[call] -= count;
+    }
+
+    List<List<Request>> taken = new ArrayList<>(bankElevators.size());
+    for (int i = 0; i < bankElevators.size(); i++) {
+      taken.add(new ArrayList<>());
+    }
+    List<Request> given = new ArrayList<>();
+    for (CallAssignment assignment : assignments) {
+      RequestGroup group = calls.get(assignment.getCallIndex());
+      int count = assignment.getPassengerCount();
+      RequestGroup part = count == group.getPassengerCount() ? group : group.split(count);
+      taken.get(assignment.getElevatorIndex()).add(part);
+      given.add(part);
+    }
+    for (int i = 0; i < calls.size(); i++) {
+      if (left[i] == 0) {
+        this.queuedGroups[this.groupKey(calls.get(i))] = null;
+      }
+    }
+    int kept = 0;
+    for (int i = 0; i < upRequests.size(); i++) {
+      if (left[i] > 0) {
+        upRequests.set(kept++, upRequests.get(i));
+      }
+    }
+    int upCount = upRequests.size();
+    upRequests.subList(kept, upCount).clear();
+    kept = 0;
+    for (int i = 0; i < downRequests.size(); i++) {
+      if (left[upCount + i] > 0) {
+        downRequests.set(kept++, downRequests.get(i));
+      }
+    }
+    downRequests.subList(kept, downRequests.size()).clear();
+    this.dispatched(given);
+    for (int i = 0; i < bankElevators.size(); i++) {
+      if (!taken.get(i).isEmpty()) {
+        this.give(bankElevators.get(i), taken.get(i));
+      }
+    }
+  }
+
+  /**
+   * Marks the groups of a zone that have waited as long as the aging policy
+   * allows as overdue. Only the head of the aging line is looked at, so this
+   * costs nothing per waiting group each step.
+   *
+   * @param bank the elevators and queues of the zone.
+   */
+  private void markOverdue(ElevatorBank bank) {
+    ArrayDeque<RequestGroup> line = bank.getAgingLine();
+    while (!line.isEmpty()) {
+      RequestGroup oldest = line.peek();
+      if (this.queuedGroups[this.groupKey(oldest)] == oldest) {
+        if (this.ticks - oldest.getFirstArrivalTick() < this.agingPolicy.getMaxWaitTicks()) {
+          return;
         }
+        oldest.markOverdue();
+      }
+      line.poll();
+    }
+  }
+
+  /**
+   * Returns whether a queue has overdue groups an elevator serves starting
+   * in a range of floors.
+   *
+   * @param queue the queue.
+   * @param elevator the elevator.
+   * @param lowStart the lowest start floor.
+   * @param highStart the highest start floor.
+   * @return true if an overdue group starts in the range.
+   */
+  private static boolean hasOverdueFrom(List<RequestGroup> queue, Elevator elevator,
+                                        int lowStart, int highStart) {
+    for (RequestGroup group : queue) {
+      if (group.isOverdue() && group.getStartFloor() >= lowStart
+              && group.getStartFloor() <= highStart && serves(elevator, group)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts the people in a queue an elevator serves starting in a range of floors.
+   *
+   * @param queue the queue.
+   * @param elevator the elevator.
+   * @param lowStart the lowest start floor.
+   * @param highStart the highest start floor.
+   * @return the number of people.
+   */
+  private static int countFrom(List<RequestGroup> queue, Elevator elevator, int lowStart,
+                               int highStart) {
+    int people = 0;
+    for (RequestGroup group : queue) {
+      if (group.getStartFloor() >= lowStart && group.getStartFloor() <= highStart
+              && serves(elevator, group)) {
+        people += group.getPassengerCount();
+      }
+    }
+    return people;
+  }
+
+  /**
+   * Returns whether an elevator serves the start and end floor of a group.
+   *
+   * @param elevator the elevator.
+   * @param group the group, for its leg.
+   * @return true if the elevator serves both floors.
+   */
+  private static boolean serves(Elevator elevator, RequestGroup group) {
+    return elevator.serves(group.getStartFloor()) && elevator.serves(group.getEndFloor());
+  }
+
+  /**
+   * Returns whether an elevator serves any group of a queue.
+   *
+   * @param queue the queue.
+   * @param elevator the elevator.
+   * @return true if the elevator serves a group.
+   */
+  private static boolean servesAny(List<RequestGroup> queue, Elevator elevator) {
+    for (RequestGroup group : queue) {
+      if (serves(elevator, group)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sends the parked elevators of a zone to their home floors, and recalls one
+   * to the lobby or the top of the zone if people wait for an elevator there
+   * and no other elevator is coming.
+   *
+   * @param bank the elevators and queues of the zone.
+   */
+  private void parkIdleElevators(ElevatorBank bank) {
+    List<Elevator> bankElevators = bank.getElevators();
+    if (this.parkingPolicy.getMode() == ParkingMode.learned) {
+      double keep = Math.pow(0.5, 1.0 / this.parkingPolicy.getHalfLifeTicks());
+      double[] demand = bank.getDemand();
+      for (int floor = 0; floor < demand.length; floor++) {
+        demand[floor] *= keep;
+      }
+    }
+    if (this.parkingPolicy.getMode() != ParkingMode.none) {
+      int[] homes = this.homeFloors(bank);
+      boolean[] claimed = new boolean[homes.length];
+      // elevators at or on their way to a home floor keep it
+      List<Elevator> homeless = new ArrayList<>();
+      for (Elevator elevator : bankElevators) {
+        if (elevator.getParkFloor() < 0) {
+          continue;
+        }
+        int home = nearestHome(homes, claimed, elevator.getParkFloor());
+        if (home >= 0 && elevator.getStopFloor(homes[home]) == elevator.getParkFloor()) {
+          claimed[home] = true;
+        } else if (elevator.isParked()) {
+          homeless.add(elevator);
+        }
+      }
+      for (Elevator elevator : homeless) {
+        int home = nearestHome(homes, claimed, elevator.getCurrentFloor());
+        if (home < 0) {
+          // every home floor is taken, so share the nearest one
+          home = nearestHome(homes, new boolean[homes.length], elevator.getCurrentFloor());
+        }
+        claimed[home] = true;
+        if (elevator.getStopFloor(homes[home]) != elevator.getCurrentFloor()) {
+          elevator.park(homes[home]);
+        }
+      }
+    }
+    if (!bank.getUpRequests().isEmpty()) {
+      this.recall(bankElevators, bank.getUpRequests(), true);
+    }
+    if (!bank.getDownRequests().isEmpty()) {
+      this.recall(bankElevators, bank.getDownRequests(), false);
+    }
+  }
+
+  /**
+   * Recalls the nearest parked elevator to the lobby or the top of its zone,
+   * unless another elevator is already there or on its way. An elevator
+   * with no car of its shaft in the way goes first. Only elevators that serve
+   * one of the waiting groups count.
+   *
+   * @param bankElevators the elevators of a zone.
+   * @param queue the groups waiting to go the way of the recall.
+   * @param toLobby true to recall to the lobby, false to the top of the zone.
+   */
+  private void recall(List<Elevator> bankElevators, List<RequestGroup> queue,
+                      boolean toLobby) {
+    Direction towards = toLobby ? Direction.DOWN : Direction.UP;
+    Elevator nearest = null;
+    boolean nearestClear = false;
+    for (Elevator elevator : bankElevators) {
+      if (!servesAny(queue, elevator)) {
+        continue;
+      }
+      int terminal = toLobby ? elevator.getBottomFloor() : elevator.getTopFloor();
+      if (elevator.getParkFloor() == terminal
+              || (elevator.isTakingRequests() && elevator.getCurrentFloor() == terminal)
+              || (elevator.getParkFloor() < 0 && elevator.getDirection() == towards)) {
+        return;
+      }
+      // a car another car in its shaft is in the way of comes last
+      boolean clear = elevator.canRunTo(terminal);
+      if (elevator.isParked() && (nearest == null || clear && !nearestClear
+              || clear == nearestClear && Math.abs(elevator.getCurrentFloor() - terminal)
+              < Math.abs(nearest.getCurrentFloor() - terminal))) {
+        nearest = elevator;
+        nearestClear = clear;
+      }
+    }
+    if (nearest != null) {
+      nearest.park(toLobby ? nearest.getBottomFloor() : nearest.getTopFloor());
+    }
+  }
+
+  /**
+   * Returns the home floors of the elevators of a zone, lowest first.
+   * Fixed home floors the zone does not serve are left out, and the lobby is
+   * used if none are left. Learned home floors split the recent demand of the
+   * zone into one equal share per elevator, the middle of each share being a
+   * home floor; with no demand yet every elevator parks at the lobby.
+   *
+   * @param bank the elevators and queues of the zone.
+   * @return the home floors.
+   */
+  private int[] homeFloors(ElevatorBank bank) {
+    Zone zone = bank.getZone();
+    if (this.parkingPolicy.getMode() == ParkingMode.fixed) {
+      int[] homes = this.parkingPolicy.getHomeFloors();
+      int served = 0;
+      for (int floor : homes) {
+        if (floor < this.numberOfFloors && zone.serves(floor)) {
+          homes[served++] = floor;
+        }
+      }
+      if (served == 0) {
+        return new int[] {zone.getLobbyFloor()};
+      }
+      int[] result = Arrays.copyOf(homes, served);
+      Arrays.sort(result);
+      return result;
+    }
+    double[] demand = bank.getDemand();
+    double total = 0;
+    for (double floorDemand : demand) {
+      total += floorDemand;
+    }
+    int[] homes = new int[bank.getElevators().size()];
+    if (total <= 0) {
+      Arrays.fill(homes, zone.getLobbyFloor());
+      return homes;
+    }
+    int floor = 0;
+    double below = demand[0];
+    for (int i = 0; i < homes.length; i++) {
+      double middle = total * (2 * i + 1) / (2 * homes.length);
+      while (below < middle && floor < demand.length - 1) {
+        floor++;
+        below += demand[floor];
+      }
+      homes[i] = floor;
+    }
+    return homes;
+  }
+
+  /**
+   * Returns the index of the unclaimed home floor nearest a floor.
+   *
+   * @param homes the home floors.
+   * @param claimed which home floors are taken.
+   * @param floor the floor.
+   * @return the index of the nearest free home floor, -1 if all are taken.
+   */
+  private static int nearestHome(int[] homes, boolean[] claimed, int floor) {
+    int nearest = -1;
+    for (int i = 0; i < homes.length; i++) {
+      if (!claimed[i] && (nearest < 0
+              || Math.abs(homes[i] - floor) < Math.abs(homes[nearest] - floor))) {
+        nearest = i;
       }
     }
+    return nearest;
   }
 }
 
@@ -55,6 +55,13 @@ public interface BuildingInterface {
    */
   void stopElevatorSystem();
 
+  /**
+   * Returns whether the elevator system has nothing left to do.
+   *
+   * @return true if no requests are waiting and no elevator has stops left.
+   */
+  boolean isIdle();
+
   /**
    * Steps the elevator system.
    *
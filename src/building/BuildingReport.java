@@ -115,21 +115,21 @@ public class BuildingReport {
 
   @Override
   public String toString() {
-    StringBuilder elevatorReportsStr = new StringBuilder();
+    StringBuilder sb = new StringBuilder();
+    sb.append("-------BuildingReport-------").append('\n')
+        .append("numFloors = ").append(this.getNumFloors()).append('\n')
+        .append("numElevators = ").append(this.getNumElevators()).append('\n')
+        .append("elevatorCapacity = ").append(this.getElevatorCapacity()).append('\n')
+        .append("upRequests = ").append(this.getUpRequests()).append('\n')
+        .append("downRequests = ").append(this.getDownRequests()).append('\n')
+        .append("systemStatus = ").append(this.getSystemStatus()).append('\n')
+        .append("elevatorReports: ").append('\n');
     for (ElevatorReport elevatorReport : this.elevatorReports) {
-      elevatorReportsStr.append("Elevator No.").append(elevatorReport.getElevatorId()).append(": ");
-      elevatorReportsStr.append(elevatorReport);
-      elevatorReportsStr.append("\n");
+      sb.append("Elevator No.").append(elevatorReport.getElevatorId()).append(": ");
+      elevatorReport.appendTo(sb);
+      sb.append('\n');
     }
-    return "-------BuildingReport-------" + "\n"
-            + "numFloors = " + this.getNumFloors() + "\n"
-            + "numElevators = " + this.getNumElevators() + "\n"
-            + "elevatorCapacity = " + this.getElevatorCapacity() + "\n"
-            + "upRequests = " + this.getUpRequests() + "\n"
-            + "downRequests = " + this.getDownRequests() + "\n"
-            + "systemStatus = " + this.getSystemStatus() + "\n"
-            + "elevatorReports: " + "\n"
-            + elevatorReportsStr + "\n"
-            + "---------------------------";
+    sb.append('\n').append("---------------------------");
+    return sb.toString();
   }
 }
@@ -0,0 +1,151 @@
+package building;
+
+/**
+ * This class is a snapshot of how well a building has served its people.
+ * Times are in steps. The journey time of a person is their wait for an
+ * elevator plus their time in service, from being given to an elevator until
+ * delivered; the averages are exact once every person has been delivered.
+ * <p>
+ * A person who changes elevators is dispatched and waits once for every leg
+ * of their journey, but is delivered once, at its end, and their journey runs
+ * from their first arrival to then.
+ */
+public class BuildingStats {
+  /**
+   * The window of the handling capacity, five minutes when a step is a second.
+   */
+  public static final int HANDLING_CAPACITY_WINDOW = 300;
+
+  private final long ticks;
+  private final long dispatchedCount;
+  private final long deliveredCount;
+  private final long transferCount;
+  private final long waitTickSum;
+  private final long maxWaitTicks;
+  private final long serviceTickSum;
+  private final long floorsTravelled;
+
+  /**
+   * The constructor for the building stats.
+   *
+   * @param ticks the number of steps the building has run.
+   * @param dispatchedCount the number of people given to an elevator, once for every leg.
+   * @param deliveredCount the number of people delivered to the end of their journey.
+   * @param transferCount the number of times people changed elevators.
+   * @param waitTickSum the steps people waited for an elevator, added up.
+   * @param maxWaitTicks the most steps a person waited for an elevator.
+   * @param serviceTickSum the steps people spent in service, added up.
+   * @param floorsTravelled the floors moved by all elevators.
+   */
+  public BuildingStats(long ticks, long dispatchedCount, long deliveredCount, long transferCount,
+                       long waitTickSum, long maxWaitTicks, long serviceTickSum,
+                       long floorsTravelled) {
+    this.ticks = ticks;
+    this.dispatchedCount = dispatchedCount;
+    this.deliveredCount = deliveredCount;
+    this.transferCount = transferCount;
+    this.waitTickSum = waitTickSum;
+    this.maxWaitTicks = maxWaitTicks;
+    this.serviceTickSum = serviceTickSum;
+    this.floorsTravelled = floorsTravelled;
+  }
+
+  /**
+   * Returns the number of steps the building has run.
+   *
+   * @return the number of steps.
+   */
+  public long getTicks() {
+    return this.ticks;
+  }
+
+  /**
+   * Returns the number of people given to an elevator.
+   *
+   * @return the number of people dispatched.
+   */
+  public long getDispatchedCount() {
+    return this.dispatchedCount;
+  }
+
+  /**
+   * Returns the number of people delivered.
+   *
+   * @return the number of people delivered.
+   */
+  public long getDeliveredCount() {
+    return this.deliveredCount;
+  }
+
+  /**
+   * Returns the number of times people changed elevators on their way.
+   *
+   * @return the number of transfers.
+   */
+  public long getTransferCount() {
+    return this.transferCount;
+  }
+
+  /**
+   * Returns the floors moved by all elevators, a measure of the wear and
+   * energy spent.
+   *
+   * @return the floors travelled.
+   */
+  public long getFloorsTravelled() {
+    return this.floorsTravelled;
+  }
+
+  /**
+   * Returns the average steps a person waited for an elevator.
+   *
+   * @return the average wait, 0 if nobody was dispatched.
+   */
+  public double getAverageWaitTicks() {
+    return this.dispatchedCount == 0 ? 0 : (double) this.waitTickSum / this.dispatchedCount;
+  }
+
+  /**
+   * Returns the most steps a person waited for an elevator. People split off
+   * a group are counted from the first arrival in the group.
+   *
+   * @return the longest wait.
+   */
+  public long getMaxWaitTicks() {
+    return this.maxWaitTicks;
+  }
+
+  /**
+   * Returns the average steps from a person arriving until they were delivered
+   * to the end of their journey, with every leg and change on the way.
+   *
+   * @return the average journey time, 0 if nobody was dispatched.
+   */
+  public double getAverageJourneyTicks() {
+    long journeys = this.dispatchedCount - this.transferCount;
+    return journeys <= 0 ? 0 : (double) (this.waitTickSum + this.serviceTickSum) / journeys;
+  }
+
+  /**
+   * Returns the handling capacity: the people delivered per five minute window.
+   *
+   * @return the people delivered per 300 steps, 0 if the building has not run.
+   */
+  public double getHandlingCapacity() {
+    return this.ticks == 0 ? 0
+            : (double) this.deliveredCount * HANDLING_CAPACITY_WINDOW / this.ticks;
+  }
+
+  /**
+   * Returns a string representation of the stats.
+   *
+   * @return a string representation of the stats.
+   */
+  @Override
+  public String toString() {
+    return String.format("steps %d, delivered %d, wait %.1f, max wait %d, journey %.1f,"
+            + " capacity %.1f/%d, travelled %d", this.ticks, this.deliveredCount,
+            this.getAverageWaitTicks(), this.maxWaitTicks, this.getAverageJourneyTicks(),
+            this.getHandlingCapacity(), HANDLING_CAPACITY_WINDOW, this.floorsTravelled);
+  }
+}
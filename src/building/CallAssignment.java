@@ -0,0 +1,52 @@
+package building;
+
+/**
+ * This class holds a decision of a dispatcher: some people of a waiting group
+ * are given to an elevator. If not everyone in the group is given, the group
+ * is split and the rest keep waiting.
+ */
+public class CallAssignment {
+  private final int elevatorIndex;
+  private final int callIndex;
+  private final int passengerCount;
+
+  /**
+   * The constructor for the call assignment.
+   *
+   * @param elevatorIndex the index of the elevator in the list given to the dispatcher.
+   * @param callIndex the index of the group in the list given to the dispatcher.
+   * @param passengerCount the number of people of the group given to the elevator.
+   */
+  public CallAssignment(int elevatorIndex, int callIndex, int passengerCount) {
+    this.elevatorIndex = elevatorIndex;
+    this.callIndex = callIndex;
+    this.passengerCount = passengerCount;
+  }
+
+  /**
+   * Returns the index of the elevator.
+   *
+   * @return the index of the elevator.
+   */
+  public int getElevatorIndex() {
+    return this.elevatorIndex;
+  }
+
+  /**
+   * Returns the index of the group.
+   *
+   * @return the index of the group.
+   */
+  public int getCallIndex() {
+    return this.callIndex;
+  }
+
+  /**
+   * Returns the number of people given to the elevator.
+   *
+   * @return the number of people.
+   */
+  public int getPassengerCount() {
+    return this.passengerCount;
+  }
+}
@@ -0,0 +1,87 @@
+package building;
+
+import building.enums.TrafficMode;
+import elevator.DeparturePolicy;
+
+/**
+ * This class holds how a building dispatches its elevators in one kind of traffic:
+ * when they leave the lobby and the top floor, and where idle elevators park.
+ */
+public class DispatchPlan {
+  private final DeparturePolicy lobbyDeparture;
+  private final DeparturePolicy topDeparture;
+  private final ParkingPolicy parkingPolicy;
+
+  /**
+   * The constructor for the dispatch plan.
+   *
+   * @param lobbyDeparture when the elevators leave the lobby.
+   * @param topDeparture when the elevators leave the top floor.
+   * @param parkingPolicy what idle elevators do.
+   * @throws IllegalArgumentException if a policy is null.
+   */
+  public DispatchPlan(DeparturePolicy lobbyDeparture, DeparturePolicy topDeparture,
+                      ParkingPolicy parkingPolicy) {
+    if (lobbyDeparture == null || topDeparture == null || parkingPolicy == null) {
+      throw new IllegalArgumentException("The policies of a dispatch plan cannot be null.");
+    }
+    this.lobbyDeparture = lobbyDeparture;
+    this.topDeparture = topDeparture;
+    this.parkingPolicy = parkingPolicy;
+  }
+
+  /**
+   * Returns the standard plan for a kind of traffic.
+   * <ul>
+   *   <li>Up peak: fill elevators at the lobby, and park idle ones there.</li>
+   *   <li>Down peak: let elevators gather people at the top, and park idle ones
+   *       where people have been asking.</li>
+   *   <li>Two way and light: leave with the first request, and park idle ones
+   *       where people have been asking.</li>
+   * </ul>
+   *
+   * @param mode the kind of traffic.
+   * @param capacity the capacity of the elevators.
+   * @return the standard plan.
+   */
+  public static DispatchPlan standard(TrafficMode mode, int capacity) {
+    switch (mode) {
+      case upPeak:
+        return new DispatchPlan(new DeparturePolicy(capacity * 3 / 4, 15),
+                DeparturePolicy.firstRequest(), ParkingPolicy.fixed(0));
+      case downPeak:
+        return new DispatchPlan(DeparturePolicy.firstRequest(),
+                new DeparturePolicy(capacity / 2, 10), ParkingPolicy.learned(300));
+      default:
+        return new DispatchPlan(DeparturePolicy.firstRequest(), DeparturePolicy.firstRequest(),
+                ParkingPolicy.learned(300));
+    }
+  }
+
+  /**
+   * Returns when the elevators leave the lobby.
+   *
+   * @return the lobby departure policy.
+   */
+  public DeparturePolicy getLobbyDeparture() {
+    return this.lobbyDeparture;
+  }
+
+  /**
+   * Returns when the elevators leave the top floor.
+   *
+   * @return the top departure policy.
+   */
+  public DeparturePolicy getTopDeparture() {
+    return this.topDeparture;
+  }
+
+  /**
+   * Returns what idle elevators do.
+   *
+   * @return the parking policy.
+   */
+  public ParkingPolicy getParkingPolicy() {
+    return this.parkingPolicy;
+  }
+}
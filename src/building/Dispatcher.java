@@ -0,0 +1,76 @@
+package building;
+
+import elevator.Elevator;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * This interface picks which elevators take the people waiting in a zone.
+ * Every step, a building with a dispatcher gives it the elevators of each zone
+ * and the groups waiting in that zone, if any elevator can take requests.
+ * The building then hands the groups to the elevators as assigned.
+ * Only elevators that take requests and have room left can be given groups;
+ * the others are there to show where the zone's elevators are.
+ * <p>
+ * An elevator at the bottom floor can only take groups going up, and one at
+ * the top of its zone only groups going down. A parked elevator can take groups
+ * going up from its floor or above, or going down from its floor or below, but
+ * not both. The people given to an elevator must fit its free capacity, and
+ * it must serve both the start and the end floor of their group.
+ * <p>
+ * The cars of a shared shaft show the floors they can run to now with
+ * {@link Elevator#canRunTo(int)}; a car given people beyond them waits for
+ * the other car to clear the way.
+ */
+public interface Dispatcher {
+  /**
+   * Assigns waiting groups to elevators.
+   *
+   * @param elevators the elevators of the zone.
+   * @param calls the groups waiting, going up first and then going down, each in
+   *              the order they arrived.
+   * @param tick the current step of the building.
+   * @return the assignments, in the order the groups should be given to each elevator.
+   */
+  List<CallAssignment> assign(List<Elevator> elevators, List<RequestGroup> calls, long tick);
+
+  /**
+   * Tells the dispatcher a request has joined the queues of the building.
+   * This does nothing unless the dispatcher learns from the arrivals.
+   *
+   * @param request the request.
+   * @param tick the current step of the building.
+   */
+  default void arrived(Request request, long tick) {
+  }
+
+  /**
+   * Returns whether an elevator can take a group where it is.
+   * A parked elevator that has already been given a group going one way can
+   * only take more groups going that way. A double-deck car takes a group at
+   * the stop where one of its decks is at the start floor.
+   *
+   * @param elevator the elevator.
+   * @param request the group.
+   * @return true if the elevator takes requests, has room, serves both floors
+   *         of the group, and the group is on its way.
+   */
+  static boolean canTake(Elevator elevator, Request request) {
+    if (!elevator.isTakingRequests() || elevator.getFreeCapacity() <= 0
+            || !elevator.serves(request.getStartFloor())
+            || !elevator.serves(request.getEndFloor())) {
+      return false;
+    }
+    int floor = elevator.getCurrentFloor();
+    boolean up = request.getStartFloor() < request.getEndFloor();
+    if (elevator.isParked() && floor != elevator.getBottomFloor()
+            && floor != elevator.getTopFloor()) {
+      int stop = elevator.getStopFloor(request.getStartFloor());
+      return up ? stop >= floor : stop <= floor;
+    }
+    if (floor == elevator.getBottomFloor()) {
+      return up;
+    }
+    return floor == elevator.getTopFloor() && !up;
+  }
+}
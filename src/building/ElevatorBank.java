@@ -0,0 +1,104 @@
+package building;
+
+import elevator.Elevator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class is the group of elevators serving one zone of a building,
+ * with its own queues of people waiting to go up and down.
+ */
+class ElevatorBank {
+  private final Zone zone;
+  private final List<Elevator> elevators;
+  private final List<Elevator> elevatorsBySize;
+  private final List<RequestGroup> upRequests;
+  private final List<RequestGroup> downRequests;
+  private final double[] demand;
+  private final ArrayDeque<RequestGroup> agingLine;
+
+  /**
+   * The constructor for the bank.
+   *
+   * @param zone the zone the bank serves.
+   * @param elevators the elevators of the bank.
+   * @param numberOfFloors the number of floors in the building.
+   */
+  ElevatorBank(Zone zone, List<Elevator> elevators, int numberOfFloors) {
+    this.zone = zone;
+    this.elevators = elevators;
+    this.elevatorsBySize = new ArrayList<>(elevators);
+    this.sortBySize();
+    this.upRequests = new ArrayList<>();
+    this.downRequests = new ArrayList<>();
+    this.demand = new double[numberOfFloors];
+    this.agingLine = new ArrayDeque<>();
+  }
+
+  Zone getZone() {
+    return this.zone;
+  }
+
+  List<Elevator> getElevators() {
+    return this.elevators;
+  }
+
+  /**
+   * Returns the elevators of the bank, the cars that hold the most people first
+   * and otherwise in their order in the bank.
+   *
+   * @return the elevators by size.
+   */
+  List<Elevator> getElevatorsBySize() {
+    return this.elevatorsBySize;
+  }
+
+  /**
+   * Sorts the elevators by size again, after their car classes change.
+   */
+  void sortBySize() {
+    this.elevatorsBySize.sort(Comparator.comparingInt(
+        (Elevator elevator) -> elevator.getMaxOccupancy() * elevator.getDeckCount()).reversed());
+  }
+
+  List<RequestGroup> getUpRequests() {
+    return this.upRequests;
+  }
+
+  List<RequestGroup> getDownRequests() {
+    return this.downRequests;
+  }
+
+  /**
+   * Returns the recent demand for elevators at every floor, as people asking
+   * there with older people counting less.
+   *
+   * @return the demand of every floor, changed in place.
+   */
+  double[] getDemand() {
+    return this.demand;
+  }
+
+  /**
+   * Returns the groups of the bank in the order they were made, oldest first.
+   * Since every group ages at the same rate, this is also their order of priority,
+   * so the groups that become overdue are always at its head. Groups given out
+   * in full are only dropped once they reach the head.
+   *
+   * @return the groups by age, changed in place.
+   */
+  ArrayDeque<RequestGroup> getAgingLine() {
+    return this.agingLine;
+  }
+
+  /**
+   * Returns whether no one is waiting for the bank.
+   *
+   * @return true if both queues are empty.
+   */
+  boolean hasNoRequests() {
+    return this.upRequests.isEmpty() && this.downRequests.isEmpty();
+  }
+}
@@ -0,0 +1,114 @@
+package building;
+
+import building.enums.ParkingMode;
+import java.util.Arrays;
+
+/**
+ * This class holds what the elevators of a building do when they are idle.
+ * By default idle elevators keep cycling between the bottom and top floors.
+ * With parking, an idle elevator stops at a home floor and waits there: the
+ * home floors are either fixed, or learned from where people have been asking
+ * for elevators lately, so the elevators gather at the lobby when everyone is
+ * arriving and spread out when people are going between floors.
+ */
+public class ParkingPolicy {
+  private final ParkingMode mode;
+  private final int[] homeFloors;
+  private final int halfLifeTicks;
+
+  private ParkingPolicy(ParkingMode mode, int[] homeFloors, int halfLifeTicks) {
+    this.mode = mode;
+    this.homeFloors = homeFloors;
+    this.halfLifeTicks = halfLifeTicks;
+  }
+
+  /**
+   * Returns the policy where idle elevators keep cycling. This is the default.
+   *
+   * @return the policy without parking.
+   */
+  public static ParkingPolicy none() {
+    return new ParkingPolicy(ParkingMode.none, new int[0], 0);
+  }
+
+  /**
+   * Returns the policy where idle elevators park at fixed home floors.
+   * Each idle elevator takes the nearest home floor no other elevator has,
+   * and shares one once every home floor is taken.
+   *
+   * @param homeFloors the home floors.
+   * @return the policy with fixed home floors.
+   * @throws IllegalArgumentException if there is no home floor or a floor is negative.
+   */
+  public static ParkingPolicy fixed(int... homeFloors) {
+    if (homeFloors == null || homeFloors.length == 0) {
+      throw new IllegalArgumentException("There must be at least one home floor.");
+    }
+    for (int floor : homeFloors) {
+      if (floor < 0) {
+        throw new IllegalArgumentException("The home floors cannot be negative.");
+      }
+    }
+    return new ParkingPolicy(ParkingMode.fixed, homeFloors.clone(), 0);
+  }
+
+  /**
+   * Returns the policy where idle elevators park where people have been asking
+   * for elevators lately. The elevators of a zone split the recent demand into
+   * equal shares and each parks in the middle of its share.
+   *
+   * @param halfLifeTicks the steps after which old demand counts half as much.
+   * @return the policy with learned home floors.
+   * @throws IllegalArgumentException if the half life is less than 1.
+   */
+  public static ParkingPolicy learned(int halfLifeTicks) {
+    if (halfLifeTicks < 1) {
+      throw new IllegalArgumentException("The half life must be at least 1 step.");
+    }
+    return new ParkingPolicy(ParkingMode.learned, new int[0], halfLifeTicks);
+  }
+
+  /**
+   * Returns what idle elevators do.
+   *
+   * @return the parking mode.
+   */
+  public ParkingMode getMode() {
+    return this.mode;
+  }
+
+  /**
+   * Returns the fixed home floors.
+   *
+   * @return a copy of the home floors, empty unless the mode is fixed.
+   */
+  public int[] getHomeFloors() {
+    return this.homeFloors.clone();
+  }
+
+  /**
+   * Returns the steps after which old demand counts half as much.
+   *
+   * @return the half life, 0 unless the mode is learned.
+   */
+  public int getHalfLifeTicks() {
+    return this.halfLifeTicks;
+  }
+
+  /**
+   * Returns a string representation of the policy.
+   *
+   * @return a string representation of the policy.
+   */
+  @Override
+  public String toString() {
+    switch (this.mode) {
+      case fixed:
+        return "park at " + Arrays.toString(this.homeFloors);
+      case learned:
+        return "park learned, half life " + this.halfLifeTicks;
+      default:
+        return "cycle";
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package building;
+
+import scanerzus.Request;
+
+/**
+ * This class is a group of people waiting with the same start and end floor.
+ * While requests are queued, every request for the same trip is counted in one
+ * group instead of being kept as its own entry.
+ * <p>
+ * The trip of a group can be one leg of a longer journey: the people then
+ * change elevators at its end floor to go on to the end of their journey.
+ */
+public class RequestGroup extends Request {
+  private final int journeyEndFloor;
+  private int passengerCount;
+  private long arrivalTickSum;
+  private long firstArrivalTick;
+  private boolean overdue;
+
+  /**
+   * The constructor for the request group.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor the end floor.
+   * @param passengerCount the number of people in the group.
+   */
+  public RequestGroup(int startFloor, int endFloor, int passengerCount) {
+    this(startFloor, endFloor, passengerCount, 0);
+  }
+
+  /**
+   * The constructor for the request group, with the steps the people arrived at.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor the end floor.
+   * @param passengerCount the number of people in the group.
+   * @param arrivalTickSum the steps the people arrived at, added up.
+   */
+  RequestGroup(int startFloor, int endFloor, int passengerCount, long arrivalTickSum) {
+    this(startFloor, endFloor, passengerCount, arrivalTickSum, endFloor);
+  }
+
+  /**
+   * The constructor for a leg of a journey, with the steps the people arrived at.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor the end floor of the leg, where the people change elevators.
+   * @param passengerCount the number of people in the group.
+   * @param arrivalTickSum the steps the people arrived at, added up.
+   * @param journeyEndFloor the floor the people go to in the end.
+   */
+  RequestGroup(int startFloor, int endFloor, int passengerCount, long arrivalTickSum,
+               int journeyEndFloor) {
+    super(startFloor, endFloor);
+    this.journeyEndFloor = journeyEndFloor;
+    this.passengerCount = passengerCount;
+    this.arrivalTickSum = arrivalTickSum;
+    this.firstArrivalTick = passengerCount > 0 ? arrivalTickSum / passengerCount : 0;
+  }
+
+  /**
+   * Gets the number of people in the group.
+   *
+   * @return the number of people in the group.
+   */
+  @Override
+  public int getPassengerCount() {
+    return this.passengerCount;
+  }
+
+  /**
+   * Gets the floor the people in the group go to in the end.
+   *
+   * @return the end floor of the journey, the end floor unless the people change there.
+   */
+  int getJourneyEndFloor() {
+    return this.journeyEndFloor;
+  }
+
+  /**
+   * Gets the steps the people in the group arrived at, added up.
+   *
+   * @return the sum of the arrival steps.
+   */
+  long getArrivalTickSum() {
+    return this.arrivalTickSum;
+  }
+
+  /**
+   * Returns the step the first person of the group arrived at.
+   *
+   * @return the first arrival step.
+   */
+  long getFirstArrivalTick() {
+    return this.firstArrivalTick;
+  }
+
+  /**
+   * Returns whether the group has waited longer than the aging policy allows,
+   * so it goes ahead of every group that has not.
+   *
+   * @return true if the group is overdue.
+   */
+  public boolean isOverdue() {
+    return this.overdue;
+  }
+
+  /**
+   * Marks the group as overdue.
+   */
+  void markOverdue() {
+    this.overdue = true;
+  }
+
+  /**
+   * Adds people to the group.
+   *
+   * @param count the number of people to add.
+   * @param arrivalTick the step the people arrived at.
+   */
+  void add(int count, long arrivalTick) {
+    this.passengerCount += count;
+    this.arrivalTickSum += count * arrivalTick;
+  }
+
+  /**
+   * Splits people off the group into a new group.
+   * The arrival steps are shared out by the average, since single people are not tracked.
+   *
+   * @param count the number of people to split off, less than the group size.
+   * @return the new group.
+   */
+  RequestGroup split(int count) {
+    long splitTicks = this.arrivalTickSum * count / this.passengerCount;
+    this.passengerCount -= count;
+    this.arrivalTickSum -= splitTicks;
+    RequestGroup part = new RequestGroup(this.getStartFloor(), this.getEndFloor(), count,
+            splitTicks, this.journeyEndFloor);
+    part.firstArrivalTick = this.firstArrivalTick;
+    part.overdue = this.overdue;
+    return part;
+  }
+
+  /**
+   * Returns a copy of the group that does not change as the group does.
+   *
+   * @return a copy of the group.
+   */
+  RequestGroup copy() {
+    RequestGroup copy = new RequestGroup(this.getStartFloor(), this.getEndFloor(),
+            this.passengerCount, this.arrivalTickSum, this.journeyEndFloor);
+    copy.firstArrivalTick = this.firstArrivalTick;
+    copy.overdue = this.overdue;
+    return copy;
+  }
+
+  /**
+   * Returns a string representation of the group.
+   * This is "startFloor->endFloor", followed by " xN" for more than one person.
+   *
+   * @return a string representation of the group.
+   */
+  @Override
+  public String toString() {
+    if (this.passengerCount == 1) {
+      return super.toString();
+    }
+    return super.toString() + " x" + this.passengerCount;
+  }
+}
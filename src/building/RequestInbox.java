@@ -0,0 +1,112 @@
+package building;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import scanerzus.Request;
+
+/**
+ * This class is a lock-free multi-producer, single-consumer inbox for requests.
+ * Any number of threads can offer requests without locking: each offer is one
+ * atomic swap of the tail, so producers never retry against each other.
+ * A single consumer thread drains everything offered so far in one batch.
+ * Requests from the same producer are drained in the order they were offered.
+ * A batch of requests can be offered as one node, for a single atomic swap.
+ */
+public class RequestInbox {
+  private final AtomicReference<Node> tail;
+  private Node head;
+
+  /**
+   * A node in the linked list of the inbox.
+   */
+  private static final class Node {
+    private Request request;
+    private Request[] batch;
+    private int batchSize;
+    private volatile Node next;
+
+    private Node(Request request) {
+      this.request = request;
+    }
+
+    private Node(Request[] batch, int batchSize) {
+      this.batch = batch;
+      this.batchSize = batchSize;
+    }
+  }
+
+  /**
+   * The constructor for the inbox.
+   */
+  public RequestInbox() {
+    Node stub = new Node(null);
+    this.head = stub;
+    this.tail = new AtomicReference<>(stub);
+  }
+
+  /**
+   * Offers a request to the inbox. This can be called from any thread.
+   *
+   * @param request the request to offer.
+   */
+  public void offer(Request request) {
+    this.link(new Node(request));
+  }
+
+  /**
+   * Offers a batch of requests to the inbox. This can be called from any thread.
+   * The inbox takes ownership of the array.
+   *
+   * @param batch the requests to offer.
+   * @param size the number of requests at the start of the array to offer.
+   */
+  public void offerAll(Request[] batch, int size) {
+    if (size > 0) {
+      this.link(new Node(batch, size));
+    }
+  }
+
+  private void link(Node node) {
+    Node previous = this.tail.getAndSet(node);
+    previous.next = node;
+  }
+
+  /**
+   * Drains the requests offered so far. Only the consumer thread may call this.
+   * A request whose producer is still linking it in is left for the next drain.
+   *
+   * @param sink receives the requests in order.
+   * @return the number of requests drained.
+   */
+  public int drain(Consumer<Request> sink) {
+    int count = 0;
+    Node next = this.head.next;
+    while (next != null) {
+      Request request = next.request;
+      Request[] batch = next.batch;
+      next.request = null;
+      next.batch = null;
+      this.head = next;
+      if (batch != null) {
+        for (int i = 0; i < next.batchSize; i++) {
+          sink.accept(batch[i]);
+        }
+        count += next.batchSize;
+      } else {
+        sink.accept(request);
+        count++;
+      }
+      next = next.next;
+    }
+    return count;
+  }
+
+  /**
+   * Returns whether the inbox looks empty to the consumer.
+   *
+   * @return true if there is nothing to drain.
+   */
+  public boolean isEmpty() {
+    return this.head.next == null;
+  }
+}
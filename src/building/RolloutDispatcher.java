@@ -0,0 +1,376 @@
+package building;
+
+import elevator.Elevator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import scanerzus.Request;
+
+/**
+ * This class dispatches by looking ahead. Every step it takes the assignments
+ * proposed by a few candidate dispatchers, and plays the zone forward for each
+ * one on copies of the elevators: the candidate is given out, then people keep
+ * arriving as they have lately and a base dispatcher gives them out. The
+ * candidate whose run keeps people waiting and riding for the fewest steps in
+ * all is used.
+ * <p>
+ * The runs are played in parallel on an executor, within a time budget per step.
+ * A run not done in time is dropped, and the first candidate is used if no run
+ * is done. Every run of a step sees the same arrivals, drawn from the recent
+ * requests that fit under the top floor of the zone, so the candidates are
+ * compared on equal terms. Which runs finish depends on wall-clock time, so
+ * the assignment chosen, and with it a simulation, cannot be reproduced run
+ * to run under the time budget.
+ */
+public class RolloutDispatcher implements Dispatcher {
+  private static final int HISTORY = 256;
+
+  private final List<Dispatcher> candidates;
+  private final int horizon;
+  private final long budgetNanos;
+  private final Executor executor;
+  private final int[] historyStarts;
+  private final int[] historyEnds;
+  private final long[] historyTicks;
+  private int historySize;
+  private int historyNext;
+  private long rolloutCount;
+  private long lateCount;
+
+  /**
+   * The constructor for the rollout dispatcher, looking 30 steps ahead within
+   * 2 milliseconds a step on the common pool.
+   */
+  public RolloutDispatcher() {
+    this(30, 2, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The constructor for the rollout dispatcher, comparing assignment dispatchers
+   * with wait weights of 0, 0.5 and 4 on the common pool.
+   *
+   * @param horizon the number of steps to look ahead.
+   * @param budget the time the runs of a step may take.
+   * @param unit the unit of the budget.
+   */
+  public RolloutDispatcher(int horizon, long budget, TimeUnit unit) {
+    this(Arrays.asList(new AssignmentDispatcher(0), new AssignmentDispatcher(0.5),
+            new AssignmentDispatcher(4)), horizon, budget, unit, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The constructor for the rollout dispatcher.
+   *
+   * @param candidates the dispatchers that propose assignments, the first used
+   *                   if no run is done in time. They are only called from the
+   *                   stepping thread.
+   * @param horizon the number of steps to look ahead.
+   * @param budget the time the runs of a step may take.
+   * @param unit the unit of the budget.
+   * @param executor the executor the runs are played on.
+   * @throws IllegalArgumentException if there are no candidates, the horizon or
+   *                                  budget is not positive, or the executor is null.
+   */
+  public RolloutDispatcher(List<Dispatcher> candidates, int horizon, long budget,
+                           TimeUnit unit, Executor executor) {
+    if (candidates == null || candidates.isEmpty() || candidates.contains(null)) {
+      throw new IllegalArgumentException("There must be at least one candidate dispatcher.");
+    }
+    if (horizon < 1 || budget <= 0 || unit == null) {
+      throw new IllegalArgumentException("The horizon and time budget must be positive.");
+    }
+    if (executor == null) {
+      throw new IllegalArgumentException("The executor cannot be null.");
+    }
+    this.candidates = new ArrayList<>(candidates);
+    this.horizon = horizon;
+    this.budgetNanos = unit.toNanos(budget);
+    this.executor = executor;
+    this.historyStarts = new int[HISTORY];
+    this.historyEnds = new int[HISTORY];
+    this.historyTicks = new long[HISTORY];
+  }
+
+  /**
+   * Returns the number of steps looked ahead.
+   *
+   * @return the horizon.
+   */
+  public int getHorizon() {
+    return this.horizon;
+  }
+
+  /**
+   * Returns the number of runs played so far.
+   *
+   * @return the number of runs.
+   */
+  public long getRolloutCount() {
+    return this.rolloutCount;
+  }
+
+  /**
+   * Returns the number of runs dropped for going over the time budget.
+   *
+   * @return the number of late runs.
+   */
+  public long getLateCount() {
+    return this.lateCount;
+  }
+
+  @Override
+  public void arrived(Request request, long tick) {
+    this.historyStarts[this.historyNext] = request.getStartFloor();
+    this.historyEnds[this.historyNext] = request.getEndFloor();
+    this.historyTicks[this.historyNext] = tick;
+    this.historyNext = (this.historyNext + 1) % HISTORY;
+    this.historySize = Math.min(this.historySize + 1, HISTORY);
+  }
+
+  @Override
+  public List<CallAssignment> assign(List<Elevator> elevators, List<RequestGroup> calls,
+                                     long tick) {
+    // candidates proposing the same assignments are only played once
+    List<List<CallAssignment>> proposals = new ArrayList<>();
+    for (Dispatcher candidate : this.candidates) {
+      List<CallAssignment> proposal = candidate.assign(elevators, calls, tick);
+      boolean seen = false;
+      for (List<CallAssignment> other : proposals) {
+        seen |= sameAssignments(proposal, other);
+      }
+      if (!seen) {
+        proposals.add(proposal);
+      }
+    }
+    if (proposals.size() == 1) {
+      return proposals.get(0);
+    }
+
+    Arrivals arrivals = this.snapshotArrivals(elevators, tick);
+    long deadline = System.nanoTime() + this.budgetNanos;
+    List<CompletableFuture<Double>> runs = new ArrayList<>();
+    for (List<CallAssignment> proposal : proposals) {
+      // the copies are made here, as a late run may still be going once the step moves on
+      List<Elevator> cars = new ArrayList<>(elevators.size());
+      for (Elevator elevator : elevators) {
+        cars.add(new Elevator(elevator));
+      }
+      List<RequestGroup> waiting = new ArrayList<>(calls.size());
+      for (RequestGroup group : calls) {
+        waiting.add(group.copy());
+      }
+      if (runs.size() < proposals.size() - 1) {
+        runs.add(CompletableFuture.supplyAsync(
+            () -> this.play(cars, waiting, proposal, tick, arrivals, deadline), this.executor));
+      } else {
+        // the stepping thread plays the last run itself instead of sitting idle
+        runs.add(CompletableFuture.completedFuture(
+            this.play(cars, waiting, proposal, tick, arrivals, deadline)));
+      }
+    }
+    int best = 0;
+    double bestCost = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < runs.size(); i++) {
+      double cost = this.await(runs.get(i), deadline);
+      this.rolloutCount++;
+      if (Double.isNaN(cost)) {
+        this.lateCount++;
+      } else if (cost < bestCost) {
+        bestCost = cost;
+        best = i;
+      }
+    }
+    return proposals.get(best);
+  }
+
+  /**
+   * Waits for a run until the deadline.
+   *
+   * @return the cost of the run, or NaN if it is late.
+   * @throws IllegalStateException if the run failed.
+   */
+  private double await(CompletableFuture<Double> run, long deadline) {
+    try {
+      return run.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      return Double.NaN;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Double.NaN;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A look-ahead run failed.", e.getCause());
+    }
+  }
+
+  /**
+   * Plays the zone forward from a proposal on copies of the elevators and groups.
+   *
+   * @return the steps people spend waiting and riding over the horizon,
+   *         or NaN if the deadline passes first.
+   */
+  private double play(List<Elevator> cars, List<RequestGroup> waiting,
+                      List<CallAssignment> proposal, long tick, Arrivals arrivals,
+                      long deadline) {
+    long riding = 0;
+    for (Elevator car : cars) {
+      riding -= car.getServiceTickSum();
+    }
+    AssignmentDispatcher base = new AssignmentDispatcher();
+    Random random = new Random(arrivals.seed);
+    long waited = 0;
+    List<CallAssignment> assignments = proposal;
+    for (int step = 0; step < this.horizon; step++) {
+      if (step > 0) {
+        if (System.nanoTime() > deadline) {
+          return Double.NaN;
+        }
+        arrivals.add(random, waiting, tick + step);
+        assignments = waiting.isEmpty() ? Collections.emptyList()
+                : base.assign(cars, waiting, tick + step);
+      }
+      give(cars, waiting, assignments);
+      for (Elevator car : cars) {
+        car.step();
+      }
+      for (RequestGroup group : waiting) {
+        waited += group.getPassengerCount();
+      }
+    }
+    for (Elevator car : cars) {
+      riding += car.getServiceTickSum();
+    }
+    return waited + riding;
+  }
+
+  /**
+   * Gives groups to elevators as assigned, and drops the groups given out in full.
+   */
+  private static void give(List<Elevator> cars, List<RequestGroup> waiting,
+                           List<CallAssignment> assignments) {
+    if (assignments.isEmpty()) {
+      return;
+    }
+    List<List<Request>> taken = new ArrayList<>(cars.size());
+    for (int i = 0; i < cars.size(); i++) {
+      taken.add(new ArrayList<>());
+    }
+    boolean[] emptied = new boolean[waiting.size()];
+    for (CallAssignment assignment : assignments) {
+      RequestGroup group = waiting.get(assignment.getCallIndex());
+      int count = assignment.getPassengerCount();
+      if (count == group.getPassengerCount()) {
+        emptied[assignment.getCallIndex()] = true;
+        taken.get(assignment.getElevatorIndex()).add(group);
+      } else {
+        taken.get(assignment.getElevatorIndex()).add(group.split(count));
+      }
+    }
+    int kept = 0;
+    for (int i = 0; i < emptied.length; i++) {
+      if (!emptied[i]) {
+        waiting.set(kept++, waiting.get(i));
+      }
+    }
+    waiting.subList(kept, waiting.size()).clear();
+    for (int i = 0; i < cars.size(); i++) {
+      if (!taken.get(i).isEmpty()) {
+        cars.get(i).processRequests(taken.get(i));
+      }
+    }
+  }
+
+  /**
+   * Takes the recent requests that fit in the zone, to draw arrivals from.
+   */
+  private Arrivals snapshotArrivals(List<Elevator> elevators, long tick) {
+    int bottom = Integer.MAX_VALUE;
+    int top = 0;
+    for (Elevator elevator : elevators) {
+      bottom = Math.min(bottom, elevator.getBottomFloor());
+      top = Math.max(top, elevator.getTopFloor() + elevator.getDeckCount() - 1);
+    }
+    int[] starts = new int[this.historySize];
+    int[] ends = new int[this.historySize];
+    int count = 0;
+    long oldest = tick;
+    for (int i = 0; i < this.historySize; i++) {
+      int index = (this.historyNext - 1 - i + HISTORY) % HISTORY;
+      oldest = Math.min(oldest, this.historyTicks[index]);
+      if (this.historyStarts[index] >= bottom && this.historyStarts[index] <= top
+              && this.historyEnds[index] >= bottom && this.historyEnds[index] <= top) {
+        starts[count] = this.historyStarts[index];
+        ends[count] = this.historyEnds[index];
+        count++;
+      }
+    }
+    double rate = (double) count / (tick - oldest + 1);
+    return new Arrivals(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), rate, tick);
+  }
+
+  /**
+   * The arrivals expected in a zone: the trips to draw from and the people a step.
+   */
+  private static final class Arrivals {
+    private final int[] starts;
+    private final int[] ends;
+    private final double rate;
+    private final long seed;
+
+    private Arrivals(int[] starts, int[] ends, double rate, long seed) {
+      this.starts = starts;
+      this.ends = ends;
+      this.rate = rate;
+      this.seed = seed;
+    }
+
+    /**
+     * Adds the people arriving in a step, joining the waiting group for the same trip.
+     */
+    private void add(Random random, List<RequestGroup> waiting, long tick) {
+      if (this.starts.length == 0) {
+        return;
+      }
+      int whole = (int) this.rate;
+      int count = whole + (random.nextDouble() < this.rate - whole ? 1 : 0);
+      for (int i = 0; i < count; i++) {
+        int trip = random.nextInt(this.starts.length);
+        RequestGroup joined = null;
+        for (RequestGroup group : waiting) {
+          if (group.getStartFloor() == this.starts[trip]
+                  && group.getEndFloor() == this.ends[trip]) {
+            joined = group;
+            break;
+          }
+        }
+        if (joined != null) {
+          joined.add(1, tick);
+        } else {
+          waiting.add(new RequestGroup(this.starts[trip], this.ends[trip], 1, tick));
+        }
+      }
+    }
+  }
+
+  private static boolean sameAssignments(List<CallAssignment> a, List<CallAssignment> b) {
+    if (a.size() != b.size()) {
+      return false;
+    }
+    for (int i = 0; i < a.size(); i++) {
+      CallAssignment x = a.get(i);
+      CallAssignment y = b.get(i);
+      if (x.getElevatorIndex() != y.getElevatorIndex() || x.getCallIndex() != y.getCallIndex()
+              || x.getPassengerCount() != y.getPassengerCount()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,86 @@
+package building;
+
+import elevator.Elevator;
+import java.util.List;
+
+/**
+ * This class is a hoistway shared by several elevators, one above the other.
+ * Of two cars next to each other, the floors from the bottom floor of the
+ * upper car to the top floor of the lower car are the shared floors, which
+ * only one of them may take up at a time. Away from them the two cars cannot
+ * meet, so a car only ever waits at the edge of the shared floors for the
+ * other car to leave them.
+ * <p>
+ * A car that runs into the shared floors leaves them again once it turns
+ * around at the end of its run. A car parked in them is sent out of the way
+ * when the other car is waiting for them. Outside them, a car lets the other
+ * car in first if it has waited longer, or as long and is the lower car, so
+ * the two cannot keep taking the shared floors from each other.
+ */
+class Shaft {
+  private final List<Elevator> cars;
+
+  /**
+   * The constructor for the shaft.
+   *
+   * @param cars the cars in the shaft, lowest first.
+   */
+  Shaft(List<Elevator> cars) {
+    this.cars = cars;
+  }
+
+  List<Elevator> getCars() {
+    return this.cars;
+  }
+
+  /**
+   * Sets the travel limits of a car, keeping it out of the shared floors
+   * the cars next to it take up.
+   *
+   * @param car a car in the shaft.
+   */
+  void limit(Elevator car) {
+    int index = this.cars.indexOf(car);
+    int low = 0;
+    int high = car.getMaxFloor() - 1;
+    if (index > 0) {
+      Elevator below = this.cars.get(index - 1);
+      boolean outside = car.getRunLowFloor() > below.getTopFloor();
+      if (below.getRunHighFloor() >= car.getBottomFloor()
+              || outside && below.getHeldSteps() >= Math.max(1, car.getHeldSteps())) {
+        low = below.getTopFloor() + 1;
+      }
+    }
+    if (index < this.cars.size() - 1) {
+      Elevator above = this.cars.get(index + 1);
+      boolean outside = car.getRunHighFloor() < above.getBottomFloor();
+      if (above.getRunLowFloor() <= car.getTopFloor()
+              || outside && above.getHeldSteps() > Math.max(0, car.getHeldSteps())) {
+        high = above.getBottomFloor() - 1;
+      }
+    }
+    car.setTravelLimits(low, high);
+  }
+
+  /**
+   * Sends a car parked in shared floors out of them if the car on the other
+   * side waited for them on its last step.
+   */
+  void moveParkedCars() {
+    for (int i = 1; i < this.cars.size(); i++) {
+      Elevator below = this.cars.get(i - 1);
+      Elevator above = this.cars.get(i);
+      if (below.isHeld() && isIdleParked(above)
+              && above.getRunLowFloor() <= below.getTopFloor()) {
+        above.park(below.getTopFloor() + 1);
+      } else if (above.isHeld() && isIdleParked(below)
+              && below.getRunHighFloor() >= above.getBottomFloor()) {
+        below.park(above.getBottomFloor() - 1);
+      }
+    }
+  }
+
+  private static boolean isIdleParked(Elevator car) {
+    return car.isParked() && car.isDoorClosed() && car.getTripLoad() == 0;
+  }
+}
@@ -0,0 +1,190 @@
+package building;
+
+import building.enums.TrafficMode;
+import scanerzus.Request;
+
+/**
+ * This class works out the kind of traffic in a building from its recent arrivals.
+ * It keeps a sliding window of the last steps, counting the people arriving at
+ * the lobby to go up, the people going down to the lobby, and everyone else.
+ * <ul>
+ *   <li>Light: fewer people per step than the light rate.</li>
+ *   <li>Up peak: most people are going up from the lobby.</li>
+ *   <li>Down peak: most people are going down to the lobby.</li>
+ *   <li>Two way: a mix of the above, or people going between floors.</li>
+ * </ul>
+ * To keep the mode from flapping, a mode is left at looser limits than it is
+ * entered at, and a new mode is only taken once it held for the confirm steps.
+ * A peak is still left once its flow falls under half, so it never holds
+ * while most people go the other way.
+ * The classifier is used from the thread that steps the building.
+ */
+public class TrafficClassifier {
+  /**
+   * How much looser the limits for leaving a mode are than for entering it.
+   */
+  private static final double HYSTERESIS = 0.8;
+
+  private final int windowTicks;
+  private final double lightRate;
+  private final double peakShare;
+  private final int confirmTicks;
+  private final int[] incoming;
+  private final int[] outgoing;
+  private final int[] interfloor;
+  private int bucket;
+  private int incomingSum;
+  private int outgoingSum;
+  private int interfloorSum;
+  private TrafficMode mode;
+  private TrafficMode candidate;
+  private int candidateTicks;
+  private int modeChanges;
+
+  /**
+   * The constructor for the traffic classifier.
+   *
+   * @param windowTicks the number of recent steps looked at.
+   * @param lightRate the people per step below which traffic is light.
+   * @param peakShare the share of people going up from, or down to, the lobby,
+   *                  from which traffic is a peak. Must be more than half.
+   * @param confirmTicks the steps a new mode must hold before it is taken.
+   * @throws IllegalArgumentException if a value is out of range.
+   */
+  public TrafficClassifier(int windowTicks, double lightRate, double peakShare,
+                           int confirmTicks) {
+    if (windowTicks < 1 || confirmTicks < 1) {
+      throw new IllegalArgumentException("The window and confirm steps must be at least 1.");
+    }
+    if (!(lightRate >= 0)) {
+      throw new IllegalArgumentException("The light rate cannot be negative.");
+    }
+    if (!(peakShare > 0.5 && peakShare <= 1)) {
+      throw new IllegalArgumentException("The peak share must be more than half and at most 1.");
+    }
+    this.windowTicks = windowTicks;
+    this.lightRate = lightRate;
+    this.peakShare = peakShare;
+    this.confirmTicks = confirmTicks;
+    this.incoming = new int[windowTicks];
+    this.outgoing = new int[windowTicks];
+    this.interfloor = new int[windowTicks];
+    this.mode = TrafficMode.light;
+    this.candidate = TrafficMode.light;
+  }
+
+  /**
+   * Returns a classifier over the last 300 steps, with traffic light under
+   * 0.05 people per step, a peak from 60% of people, and 60 steps to confirm.
+   *
+   * @return the standard classifier.
+   */
+  public static TrafficClassifier standard() {
+    return new TrafficClassifier(300, 0.05, 0.6, 60);
+  }
+
+  /**
+   * Counts an arrival in the current step.
+   *
+   * @param request the request that arrived.
+   */
+  public void record(Request request) {
+    int people = request.getPassengerCount();
+    if (request.getStartFloor() == 0) {
+      this.incoming[this.bucket] += people;
+      this.incomingSum += people;
+    } else if (request.getEndFloor() == 0) {
+      this.outgoing[this.bucket] += people;
+      this.outgoingSum += people;
+    } else {
+      this.interfloor[this.bucket] += people;
+      this.interfloorSum += people;
+    }
+  }
+
+  /**
+   * Ends the current step: works out the traffic over the window, then slides
+   * the window on by one step.
+   *
+   * @return true if the mode changed.
+   */
+  public boolean advance() {
+    TrafficMode next = this.classify();
+    this.bucket = (this.bucket + 1) % this.windowTicks;
+    this.incomingSum -= this.incoming[this.bucket];
+    this.outgoingSum -= this.outgoing[this.bucket];
+    this.interfloorSum -= this.interfloor[this.bucket];
+    this.incoming[this.bucket] = 0;
+    this.outgoing[this.bucket] = 0;
+    this.interfloor[this.bucket] = 0;
+
+    if (next == this.mode) {
+      this.candidate = next;
+      this.candidateTicks = 0;
+      return false;
+    }
+    if (next != this.candidate) {
+      this.candidate = next;
+      this.candidateTicks = 0;
+    }
+    this.candidateTicks++;
+    if (this.candidateTicks < this.confirmTicks) {
+      return false;
+    }
+    this.mode = next;
+    this.candidateTicks = 0;
+    this.modeChanges++;
+    return true;
+  }
+
+  /**
+   * Works out the traffic over the window, with looser limits for the current mode.
+   *
+   * @return the mode the window looks like.
+   */
+  private TrafficMode classify() {
+    int total = this.incomingSum + this.outgoingSum + this.interfloorSum;
+    double light = this.mode == TrafficMode.light ? this.lightRate / HYSTERESIS : this.lightRate;
+    if (total < light * this.windowTicks || total == 0) {
+      return TrafficMode.light;
+    }
+    // a peak is held down to half the people, not below, so it cannot hide the other peak
+    double holdShare = Math.max(0.5, this.peakShare * HYSTERESIS);
+    double upShare = this.mode == TrafficMode.upPeak ? holdShare : this.peakShare;
+    if (this.incomingSum >= upShare * total) {
+      return TrafficMode.upPeak;
+    }
+    double downShare = this.mode == TrafficMode.downPeak ? holdShare : this.peakShare;
+    if (this.outgoingSum >= downShare * total) {
+      return TrafficMode.downPeak;
+    }
+    return TrafficMode.twoWay;
+  }
+
+  /**
+   * Returns the kind of traffic.
+   *
+   * @return the current traffic mode.
+   */
+  public TrafficMode getMode() {
+    return this.mode;
+  }
+
+  /**
+   * Returns how many times the mode has changed.
+   *
+   * @return the number of mode changes.
+   */
+  public int getModeChanges() {
+    return this.modeChanges;
+  }
+
+  /**
+   * Returns the number of people that arrived in the window.
+   *
+   * @return the arrivals in the window.
+   */
+  public int getWindowArrivals() {
+    return this.incomingSum + this.outgoingSum + this.interfloorSum;
+  }
+}
@@ -0,0 +1,49 @@
+package building;
+
+import elevator.Elevator;
+
+/**
+ * This class is a group of people riding one leg of a longer journey.
+ * The people change elevators at the end of the leg: once the elevator has
+ * let people out there, the next leg of their journey is queued.
+ */
+class Transfer {
+  private final Elevator elevator;
+  private final RequestGroup leg;
+  private final long deliveredBefore;
+  private final long givenTick;
+
+  /**
+   * The constructor for the transfer.
+   * The elevator cannot have let these people out yet.
+   *
+   * @param elevator the elevator the people were given to.
+   * @param leg the group riding the leg.
+   * @param givenTick the step the people were given to the elevator.
+   */
+  Transfer(Elevator elevator, RequestGroup leg, long givenTick) {
+    this.elevator = elevator;
+    this.leg = leg;
+    this.deliveredBefore = elevator.getDeliveredCount(leg.getEndFloor());
+    this.givenTick = givenTick;
+  }
+
+  RequestGroup getLeg() {
+    return this.leg;
+  }
+
+  long getGivenTick() {
+    return this.givenTick;
+  }
+
+  /**
+   * Returns whether the people have got out at the end of the leg.
+   * An elevator lets everyone out at a floor at once, so the first people it
+   * lets out there after taking the group include the group.
+   *
+   * @return true if the leg is over.
+   */
+  boolean isOver() {
+    return this.elevator.getDeliveredCount(this.leg.getEndFloor()) > this.deliveredBefore;
+  }
+}
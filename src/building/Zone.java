@@ -0,0 +1,175 @@
+package building;
+
+/**
+ * This class holds a zone of a building: a band of floors served by its own
+ * group of elevators. The elevators of a zone serve the lobby plus their band,
+ * run straight from the lobby to the bottom of the band, and turn around at
+ * the top of the band.
+ * <p>
+ * An express zone is for long runs: its elevators carry people between the
+ * lobby and its band non-stop, while trips within the band are left to a
+ * local zone that also serves it, if there is one.
+ * <p>
+ * A sky lobby zone runs from a sky lobby instead of the ground lobby: its
+ * elevators serve the sky lobby and the band above it, and people coming from
+ * the ground change there from the elevators of a zone that serves the sky lobby.
+ */
+public class Zone {
+  private final String name;
+  private final int lobbyFloor;
+  private final int lowFloor;
+  private final int highFloor;
+  private final int elevatorCount;
+  private final boolean express;
+
+  /**
+   * The constructor for the zone.
+   *
+   * @param name the name of the zone, for example "low-rise".
+   * @param lowFloor the lowest floor of the band, above the lobby.
+   * @param highFloor the highest floor of the band.
+   * @param elevatorCount the number of elevators in the zone.
+   * @throws IllegalArgumentException if the band is empty or starts at the lobby,
+   *                                  or the zone has no elevators.
+   */
+  public Zone(String name, int lowFloor, int highFloor, int elevatorCount) {
+    this(name, 0, lowFloor, highFloor, elevatorCount, false);
+  }
+
+  /**
+   * The constructor for a local, express or sky lobby zone.
+   *
+   * @param name the name of the zone.
+   * @param lobbyFloor the floor the elevators run from, 0 for the ground lobby.
+   * @param lowFloor the lowest floor of the band, above the lobby.
+   * @param highFloor the highest floor of the band.
+   * @param elevatorCount the number of elevators in the zone.
+   * @param express true for an express zone.
+   * @throws IllegalArgumentException if the band is empty or starts at the lobby,
+   *                                  or the zone has no elevators.
+   */
+  private Zone(String name, int lobbyFloor, int lowFloor, int highFloor, int elevatorCount,
+               boolean express) {
+    if (lobbyFloor < 0 || lowFloor <= lobbyFloor || highFloor < lowFloor) {
+      throw new IllegalArgumentException("The floors of a zone must be a band above the lobby.");
+    }
+    if (elevatorCount < 1) {
+      throw new IllegalArgumentException("A zone must have at least one elevator.");
+    }
+    this.name = name;
+    this.lobbyFloor = lobbyFloor;
+    this.lowFloor = lowFloor;
+    this.highFloor = highFloor;
+    this.elevatorCount = elevatorCount;
+    this.express = express;
+  }
+
+  /**
+   * Returns an express zone, whose elevators run non-stop between the lobby
+   * and its band.
+   *
+   * @param name the name of the zone, for example "express".
+   * @param lowFloor the lowest floor of the band, above the lobby.
+   * @param highFloor the highest floor of the band.
+   * @param elevatorCount the number of elevators in the zone.
+   * @return the express zone.
+   * @throws IllegalArgumentException if the band is empty or starts at the lobby,
+   *                                  or the zone has no elevators.
+   */
+  public static Zone express(String name, int lowFloor, int highFloor, int elevatorCount) {
+    return new Zone(name, 0, lowFloor, highFloor, elevatorCount, true);
+  }
+
+  /**
+   * Returns a sky lobby zone, whose elevators run from a sky lobby and serve
+   * the floors from there up to its top.
+   *
+   * @param name the name of the zone, for example "upper".
+   * @param skyLobby the floor the elevators run from.
+   * @param highFloor the highest floor of the band.
+   * @param elevatorCount the number of elevators in the zone.
+   * @return the sky lobby zone.
+   * @throws IllegalArgumentException if the sky lobby is not a floor under the top
+   *                                  of the band, or the zone has no elevators.
+   */
+  public static Zone skyLobby(String name, int skyLobby, int highFloor, int elevatorCount) {
+    return new Zone(name, skyLobby, skyLobby + 1, highFloor, elevatorCount, false);
+  }
+
+  /**
+   * Returns the name of the zone.
+   *
+   * @return the name of the zone.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the floor the elevators of the zone run from.
+   *
+   * @return the lobby of the zone, 0 unless it is a sky lobby zone.
+   */
+  public int getLobbyFloor() {
+    return this.lobbyFloor;
+  }
+
+  /**
+   * Returns the lowest floor of the band.
+   *
+   * @return the lowest floor of the band.
+   */
+  public int getLowFloor() {
+    return this.lowFloor;
+  }
+
+  /**
+   * Returns the highest floor of the band.
+   *
+   * @return the highest floor of the band.
+   */
+  public int getHighFloor() {
+    return this.highFloor;
+  }
+
+  /**
+   * Returns the number of elevators in the zone.
+   *
+   * @return the number of elevators in the zone.
+   */
+  public int getElevatorCount() {
+    return this.elevatorCount;
+  }
+
+  /**
+   * Returns whether the zone is an express zone.
+   *
+   * @return true if the elevators of the zone run non-stop from the lobby.
+   */
+  public boolean isExpress() {
+    return this.express;
+  }
+
+  /**
+   * Returns whether the zone serves a floor: its lobby or a floor of its band.
+   *
+   * @param floor the floor.
+   * @return true if the zone serves the floor.
+   */
+  public boolean serves(int floor) {
+    return floor == this.lobbyFloor || (floor >= this.lowFloor && floor <= this.highFloor);
+  }
+
+  /**
+   * Returns a string representation of the zone.
+   *
+   * @return "name lowFloor-highFloor xN", followed by " express" for an express zone
+   *         or " from F" for a sky lobby zone running from floor F.
+   */
+  @Override
+  public String toString() {
+    return this.name + " " + this.lowFloor + "-" + this.highFloor + " x" + this.elevatorCount
+            + (this.express ? " express" : "")
+            + (this.lobbyFloor > 0 ? " from " + this.lobbyFloor : "");
+  }
+}
@@ -0,0 +1,20 @@
+package building.enums;
+
+/**
+ * This enum is used to represent what happened to an offered request.
+ */
+public enum AdmissionStatus {
+  accepted("Accepted"),
+  deferred("Deferred"),
+  rejected("Rejected");
+  final String display;
+
+  AdmissionStatus(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
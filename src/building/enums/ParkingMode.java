@@ -0,0 +1,20 @@
+package building.enums;
+
+/**
+ * This enum is used to represent what idle elevators do.
+ */
+public enum ParkingMode {
+  none("Keep Cycling"),
+  fixed("Fixed Home Floors"),
+  learned("Learned Home Floors");
+  final String display;
+
+  ParkingMode(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,21 @@
+package building.enums;
+
+/**
+ * This enum is used to represent the kind of traffic in a building.
+ */
+public enum TrafficMode {
+  upPeak("Up Peak"),
+  downPeak("Down Peak"),
+  twoWay("Two Way"),
+  light("Light");
+  final String display;
+
+  TrafficMode(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -1,10 +1,12 @@
 package controller;
 
 import building.Building;
+import building.BuildingReport;
 import elevator.ElevatorReport;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import javax.swing.Timer;
 import scanerzus.Request;
 import view.BuildingView;
 import view.BuildingViewImpl;
@@ -18,9 +20,20 @@ public class BuildingControllerImpl implements ActionListener, BuildingControlle
   private BuildingView view;
   private Building model;
   private BuildingControllerImpl controller;
+  private SimulationEngine engine;
+  private final Timer frameTimer;
+  private long renderedVersion;
+  private boolean renderedAutoRunning;
+
+  /**
+   * The delay between two frames of the view in milliseconds.
+   */
+  private static final int FRAME_DELAY = 16;
 
   /**
    * Constructor for the building controller.
+   * The model is handed to a simulation engine and the view is repainted
+   * at most once per frame from the latest published snapshot.
    *
    * @param view the building view
    * @param building the building model
@@ -29,7 +42,11 @@ public class BuildingControllerImpl implements ActionListener, BuildingControlle
     this.view = view;
     this.model = building;
     controller = this;
+    this.engine = new SimulationEngine(building);
+    this.renderedVersion = -1;
     this.view.setListeners(this);
+    this.frameTimer = new Timer(FRAME_DELAY, e -> this.updateView());
+    this.frameTimer.start();
   }
 
   /**
@@ -49,58 +66,84 @@ public class BuildingControllerImpl implements ActionListener, BuildingControlle
     return sb.toString();
   }
 
+  /**
+   * Counts the people waiting on every floor.
+   *
+   * @param requests the list of requests
+   * @param numFloors the number of floors in the building
+   * @return the number of people starting on every floor
+   */
+  private int[] queueDepths(List<Request> requests, int numFloors) {
+    int[] depths = new int[numFloors];
+    for (Request request : requests) {
+      depths[request.getStartFloor()] += request.getPassengerCount();
+    }
+    return depths;
+  }
+
   @Override
   public void updateView() {
+    SimulationSnapshot snapshot = this.engine.getLatest();
+    // intermediate snapshots published since the last frame are skipped
+    if (snapshot.getVersion() == this.renderedVersion) {
+      return;
+    }
+    this.renderedVersion = snapshot.getVersion();
+    BuildingReport report = snapshot.getReport();
+
     // update building status label
-    this.view.updateBuildingStatus(
-            this.model.getElevatorSystemStatus().getSystemStatus().toString());
+    this.view.updateBuildingStatus(report.getSystemStatus().toString());
 
     // update requests lists
-    List<Request> upRequests = this.model.getElevatorSystemStatus().getUpRequests();
-    List<Request> downRequests = this.model.getElevatorSystemStatus().getDownRequests();
+    List<Request> upRequests = report.getUpRequests();
+    List<Request> downRequests = report.getDownRequests();
     this.view.updateRequestsLists(requestsToString(upRequests), requestsToString(downRequests));
+    this.view.updateQueueDepths(queueDepths(upRequests, report.getNumFloors()),
+            queueDepths(downRequests, report.getNumFloors()));
 
-    // update elevator table
-    ElevatorReport[] elevatorReports = this.model.getElevatorSystemStatus().getElevatorReports();
+    // update elevator table and canvas
+    ElevatorReport[] elevatorReports = report.getElevatorReports();
     for (int i = 0; i < elevatorReports.length; i++) {
       this.view.updateElevator(elevatorReports[i], i);
     }
 
     // update error message, if no error, set to default
-    this.view.displayErrorMessage("");
+    this.view.displayErrorMessage(snapshot.getErrorMessage());
+
+    // follow the engine when it starts or stops running on its own, as after a failed step
+    if (snapshot.isAutoRunning() != this.renderedAutoRunning) {
+      this.renderedAutoRunning = snapshot.isAutoRunning();
+      this.view.setAutoRunning(this.renderedAutoRunning);
+    }
   }
 
   @Override
   public void actionPerformed(ActionEvent e) {
+    // the model is only stepped on the simulation thread
+    Building building = this.model;
     if (e.getActionCommand().equals("Start Building")) {
-      try {
-        this.model.startElevatorSystem();
-        controller.updateView();
-      } catch (IllegalStateException ex) {
-        this.view.displayErrorMessage(ex.getMessage());
-      }
+      this.engine.submit(building::startElevatorSystem);
     } else if (e.getActionCommand().equals("Stop Building")) {
-      try {
-        this.model.stopElevatorSystem();
-        controller.updateView();
-      } catch (IllegalStateException ex) {
-        this.view.displayErrorMessage(ex.getMessage());
-      }
+      this.engine.submit(building::stopElevatorSystem);
     } else if (e.getActionCommand().equals("Step Building")) {
-      try {
-        this.model.step();
-        controller.updateView();
-      } catch (IllegalStateException ex) {
-        this.view.displayErrorMessage(ex.getMessage());
-      }
+      this.engine.submit(building::step);
+    } else if (e.getActionCommand().equals("Run Building")) {
+      this.engine.run(TimeWarp.fromDisplay(this.view.getTimeWarp()));
+      this.view.setAutoRunning(true);
+    } else if (e.getActionCommand().equals("Pause Building")) {
+      this.engine.pause();
+      this.view.setAutoRunning(false);
+    } else if (e.getActionCommand().equals("Change Time Warp")) {
+      this.engine.changeTimeWarp(TimeWarp.fromDisplay(this.view.getTimeWarp()));
     } else if (e.getActionCommand().equals("Submit Request")) {
       try {
         int fromFloor = Integer.parseInt(this.view.getFromFloor());
         int toFloor = Integer.parseInt(this.view.getToFloor());
         this.view.setTextFieldDefault();
         Request request = new Request(fromFloor, toFloor);
-        this.model.addRequest(request);
-        controller.updateView();
+        // requests are safe to add from any thread and are checked right away
+        building.addRequest(request);
+        this.engine.refresh();
       } catch (NumberFormatException ex) {
         this.view.displayErrorMessage("Invalid input. Please enter a number.");
       } catch (IllegalArgumentException | IllegalStateException ex) {
@@ -111,9 +154,13 @@ public class BuildingControllerImpl implements ActionListener, BuildingControlle
         int floorNumber = Integer.parseInt(this.view.getBuildingFloorNumber());
         int elevatorNumber = Integer.parseInt(this.view.getBuildingElevatorNumber());
         int elevatorCapacity = Integer.parseInt(this.view.getBuildingElevatorCapacity());
-        this.model = new Building(floorNumber, elevatorNumber, elevatorCapacity);
+        Building newModel = new Building(floorNumber, elevatorNumber, elevatorCapacity);
+        this.engine.shutdown();
+        this.frameTimer.stop();
+        this.model = newModel;
         this.view = new BuildingViewImpl("Elevator Simulation", floorNumber, elevatorNumber);
         controller = new BuildingControllerImpl(this.view, this.model);
+        this.engine = controller.engine;
       } catch (NumberFormatException ex) {
         this.view.displayErrorMessage("Invalid input. Please enter a number.");
       } catch (IllegalArgumentException | IllegalStateException ex) {
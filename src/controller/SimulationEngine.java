@@ -0,0 +1,245 @@
+package controller;
+
+import building.Building;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class runs the building model on its own simulation thread.
+ * Commands are queued to the simulation thread and run in order.
+ * After every batch of commands a snapshot of the building is published,
+ * replacing any snapshot the view has not picked up yet.
+ * <p>
+ * The engine can also step the building on its own at a time warp factor.
+ * At high warp many steps are run between two snapshots and only the
+ * latest state is published. If a step fails, the engine stops running on
+ * its own and publishes the message of the failure.
+ */
+public class SimulationEngine {
+  /**
+   * The time between two published snapshots while running, in milliseconds.
+   */
+  private static final long FRAME_MILLIS = 16;
+
+  /**
+   * The most steps that are caught up at once if the model falls behind.
+   */
+  private static final long MAX_CATCH_UP_TICKS = 10_000;
+
+  private final Building model;
+  private final BlockingQueue<Runnable> commands;
+  private final AtomicReference<SimulationSnapshot> latest;
+  private final Thread thread;
+  private volatile boolean running;
+  private long version;
+  private boolean autoRun;
+  private TimeWarp timeWarp;
+  private long runStartNanos;
+  private long ticksSinceRunStart;
+
+  /**
+   * The constructor for the simulation engine.
+   * The simulation thread is started right away.
+   *
+   * @param model the building model, only touched by the simulation thread from now on.
+   */
+  public SimulationEngine(Building model) {
+    this.model = model;
+    this.commands = new LinkedBlockingQueue<>();
+    this.latest = new AtomicReference<>(
+            new SimulationSnapshot(0, model.getElevatorSystemStatus(), "", false));
+    this.running = true;
+    this.autoRun = false;
+    this.timeWarp = TimeWarp.realTime;
+    this.thread = new Thread(this::run, "building-simulation");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queues a command to run on the simulation thread.
+   * This never blocks the caller.
+   *
+   * @param command the command to run against the model.
+   */
+  public void submit(Runnable command) {
+    this.commands.add(command);
+  }
+
+  /**
+   * Publishes a new snapshot, for example after a request was added
+   * to the model from another thread.
+   */
+  public void refresh() {
+    this.submit(() -> { });
+  }
+
+  /**
+   * Starts stepping the building on its own at the given time warp.
+   *
+   * @param warp the time warp to run at.
+   */
+  public void run(TimeWarp warp) {
+    this.submit(() -> {
+      this.autoRun = true;
+      this.setWarp(warp);
+    });
+  }
+
+  /**
+   * Stops stepping the building on its own.
+   */
+  public void pause() {
+    this.submit(() -> this.autoRun = false);
+  }
+
+  /**
+   * Changes the time warp, whether running or not.
+   *
+   * @param warp the new time warp.
+   */
+  public void changeTimeWarp(TimeWarp warp) {
+    this.submit(() -> this.setWarp(warp));
+  }
+
+  /**
+   * Returns the latest published snapshot.
+   *
+   * @return the latest snapshot.
+   */
+  public SimulationSnapshot getLatest() {
+    return this.latest.get();
+  }
+
+  /**
+   * Stops the simulation thread. Queued commands are dropped.
+   */
+  public void shutdown() {
+    this.running = false;
+    this.thread.interrupt();
+  }
+
+  /**
+   * The loop of the simulation thread.
+   */
+  private void run() {
+    while (this.running) {
+      Runnable command;
+      try {
+        command = this.autoRun
+                ? this.commands.poll(this.waitMillis(), TimeUnit.MILLISECONDS)
+                : this.commands.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      // run everything that is queued as one batch and publish once
+      String errorMessage = "";
+      boolean changed = command != null;
+      while (command != null) {
+        String result = this.runCommand(command);
+        if (!result.isEmpty()) {
+          errorMessage = result;
+        }
+        command = this.commands.poll();
+      }
+      if (this.autoRun) {
+        try {
+          changed |= this.stepDueTicks() > 0;
+        } catch (RuntimeException ex) {
+          // a failing step stops the run instead of the simulation thread
+          this.autoRun = false;
+          errorMessage = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+          changed = true;
+        }
+      }
+      if (changed) {
+        this.publish(errorMessage);
+      }
+    }
+  }
+
+  /**
+   * Sets the time warp and restarts the tick clock.
+   *
+   * @param warp the new time warp.
+   */
+  private void setWarp(TimeWarp warp) {
+    this.timeWarp = warp;
+    this.runStartNanos = System.nanoTime();
+    this.ticksSinceRunStart = 0;
+  }
+
+  /**
+   * Returns how long to wait for commands before stepping again.
+   * This is one frame, or one step if steps are slower than frames.
+   *
+   * @return the time to wait in milliseconds.
+   */
+  private long waitMillis() {
+    int ticksPerSecond = this.timeWarp.getTicksPerSecond();
+    if (ticksPerSecond == 0) {
+      return 0;
+    }
+    return Math.max(FRAME_MILLIS, 1000 / ticksPerSecond);
+  }
+
+  /**
+   * Steps the building as many times as are due at the current time warp.
+   * Unthrottled, the building is stepped for one frame worth of time.
+   *
+   * @return the number of steps taken.
+   */
+  private long stepDueTicks() {
+    long now = System.nanoTime();
+    int ticksPerSecond = this.timeWarp.getTicksPerSecond();
+    if (ticksPerSecond == 0) {
+      long deadline = now + TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
+      long ticks = 0;
+      do {
+        this.model.step();
+        ticks++;
+      } while (System.nanoTime() < deadline);
+      return ticks;
+    }
+    long due = (now - this.runStartNanos) * ticksPerSecond / TimeUnit.SECONDS.toNanos(1)
+            - this.ticksSinceRunStart;
+    if (due > MAX_CATCH_UP_TICKS) {
+      // the model cannot keep up, drop the backlog instead of spiralling
+      this.setWarp(this.timeWarp);
+      due = 1;
+    }
+    for (long i = 0; i < due; i++) {
+      this.model.step();
+    }
+    this.ticksSinceRunStart += Math.max(due, 0);
+    return due;
+  }
+
+  /**
+   * Runs a single command.
+   *
+   * @param command the command to run.
+   * @return the error message of the command, empty if there is no error.
+   */
+  private String runCommand(Runnable command) {
+    try {
+      command.run();
+      return "";
+    } catch (IllegalArgumentException | IllegalStateException ex) {
+      return ex.getMessage();
+    }
+  }
+
+  /**
+   * Publishes a snapshot of the model.
+   *
+   * @param errorMessage the error message of the last commands.
+   */
+  private void publish(String errorMessage) {
+    this.version++;
+    this.latest.set(new SimulationSnapshot(this.version,
+            this.model.getElevatorSystemStatus(), errorMessage, this.autoRun));
+  }
+}
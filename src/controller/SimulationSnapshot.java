@@ -0,0 +1,66 @@
+package controller;
+
+import building.BuildingReport;
+
+/**
+ * This class is a snapshot of the building published by the simulation thread.
+ * Snapshots are immutable, so the view can read them on any thread.
+ */
+public class SimulationSnapshot {
+  private final long version;
+  private final BuildingReport report;
+  private final String errorMessage;
+  private final boolean autoRunning;
+
+  /**
+   * The constructor for the snapshot.
+   *
+   * @param version the version of the snapshot, increasing with every publish.
+   * @param report the report of the building.
+   * @param errorMessage the error message of the last commands, empty if none.
+   * @param autoRunning whether the engine is stepping the building on its own.
+   */
+  public SimulationSnapshot(long version, BuildingReport report, String errorMessage,
+                            boolean autoRunning) {
+    this.version = version;
+    this.report = report;
+    this.errorMessage = errorMessage;
+    this.autoRunning = autoRunning;
+  }
+
+  /**
+   * Returns the version of the snapshot.
+   *
+   * @return the version of the snapshot.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Returns the report of the building.
+   *
+   * @return the report of the building.
+   */
+  public BuildingReport getReport() {
+    return this.report;
+  }
+
+  /**
+   * Returns the error message of the last commands.
+   *
+   * @return the error message, empty if there is no error.
+   */
+  public String getErrorMessage() {
+    return this.errorMessage;
+  }
+
+  /**
+   * Returns whether the engine is stepping the building on its own.
+   *
+   * @return true if the engine is running the building.
+   */
+  public boolean isAutoRunning() {
+    return this.autoRunning;
+  }
+}
@@ -0,0 +1,49 @@
+package controller;
+
+/**
+ * This enum is used to represent how fast the simulation runs on its own.
+ * At 1x the building steps once per second.
+ */
+public enum TimeWarp {
+  realTime("1x", 1),
+  tenTimes("10x", 10),
+  hundredTimes("100x", 100),
+  unthrottled("Unthrottled", 0);
+  final String display;
+  final int ticksPerSecond;
+
+  TimeWarp(String display, int ticksPerSecond) {
+    this.display = display;
+    this.ticksPerSecond = ticksPerSecond;
+  }
+
+  /**
+   * Returns the number of steps per second, 0 if unthrottled.
+   *
+   * @return the number of steps per second.
+   */
+  public int getTicksPerSecond() {
+    return this.ticksPerSecond;
+  }
+
+  /**
+   * Returns the time warp with the given display text.
+   *
+   * @param display the display text, for example "10x".
+   * @return the time warp with the display text.
+   * @throws IllegalArgumentException if no time warp has the display text.
+   */
+  public static TimeWarp fromDisplay(String display) {
+    for (TimeWarp warp : TimeWarp.values()) {
+      if (warp.display.equals(display)) {
+        return warp;
+      }
+    }
+    throw new IllegalArgumentException("Unknown time warp: " + display);
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,115 @@
+package elevator;
+
+/**
+ * This class holds the specification of a kind of elevator car, such as a
+ * passenger car or a freight car: how many people it holds, how fast it
+ * moves, and how long its door stays open at a stop.
+ * Moving one floor per step, a car passes up to its floors per step in a
+ * step, but always stops at the floors it has to stop at. In kinematic mode
+ * a car with a motion profile runs by it instead of the profile of the
+ * kinematics it is given.
+ */
+public class CarClass {
+  private final String name;
+  private final int capacity;
+  private final int floorsPerStep;
+  private final DoorTiming doorTiming;
+  private final MotionProfile motionProfile;
+
+  /**
+   * The constructor for the car class.
+   *
+   * @param name the name of the class.
+   * @param capacity the most people a car of the class holds, from 3 to 20.
+   * @param floorsPerStep the most floors a car passes in a step, moving one floor per step.
+   * @param doorTiming how long the door of a car stays open at a stop.
+   * @param motionProfile how a car moves in kinematic mode, null to move by the
+   *                      kinematics it is given.
+   * @throws IllegalArgumentException if the name or door timing is null, the capacity
+   *                                  is out of range, or the floors per step is less than 1.
+   */
+  public CarClass(String name, int capacity, int floorsPerStep, DoorTiming doorTiming,
+                  MotionProfile motionProfile) {
+    if (name == null || doorTiming == null) {
+      throw new IllegalArgumentException("The name and door timing cannot be null.");
+    }
+    if (capacity < 3 || capacity > 20) {
+      throw new IllegalArgumentException("The capacity must be between 3 and 20.");
+    }
+    if (floorsPerStep < 1) {
+      throw new IllegalArgumentException("The floors per step must be at least 1.");
+    }
+    this.name = name;
+    this.capacity = capacity;
+    this.floorsPerStep = floorsPerStep;
+    this.doorTiming = doorTiming;
+    this.motionProfile = motionProfile;
+  }
+
+  /**
+   * Returns the class of a standard car: one floor per step, with the door
+   * open for 3 steps at every stop. Every elevator starts in this class.
+   *
+   * @param capacity the most people the car holds.
+   * @return the standard car class.
+   */
+  public static CarClass standard(int capacity) {
+    return new CarClass("standard", capacity, 1, DoorTiming.fixed(3), null);
+  }
+
+  /**
+   * Returns the name of the class.
+   *
+   * @return the name.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the most people a car of the class holds.
+   *
+   * @return the capacity.
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns the most floors a car passes in a step, moving one floor per step.
+   *
+   * @return the floors per step.
+   */
+  public int getFloorsPerStep() {
+    return this.floorsPerStep;
+  }
+
+  /**
+   * Returns how long the door of a car stays open at a stop.
+   *
+   * @return the door timing.
+   */
+  public DoorTiming getDoorTiming() {
+    return this.doorTiming;
+  }
+
+  /**
+   * Returns how a car moves in kinematic mode.
+   *
+   * @return the motion profile, null to move by the kinematics the car is given.
+   */
+  public MotionProfile getMotionProfile() {
+    return this.motionProfile;
+  }
+
+  /**
+   * Returns a string representation of the class.
+   *
+   * @return "name (capacity N, M floors per step)".
+   */
+  @Override
+  public String toString() {
+    return this.name + " (capacity " + this.capacity + ", " + this.floorsPerStep
+            + " floors per step)";
+  }
+}
@@ -0,0 +1,80 @@
+package elevator;
+
+/**
+ * This class holds when an elevator leaves the bottom or top floor.
+ * The elevator keeps taking requests until it has enough people for the trip
+ * or it has waited for the longest hold time, whichever comes first.
+ * An elevator with nobody to carry sweeps the building once the hold time is over.
+ */
+public class DeparturePolicy {
+  private final int loadThreshold;
+  private final int maxHoldTicks;
+
+  /**
+   * The constructor for the departure policy.
+   *
+   * @param loadThreshold the number of people that makes the elevator leave right away.
+   *                      An elevator that is full always leaves.
+   * @param maxHoldTicks the longest number of steps the elevator waits.
+   * @throws IllegalArgumentException if the threshold or hold time is less than 1.
+   */
+  public DeparturePolicy(int loadThreshold, int maxHoldTicks) {
+    if (loadThreshold < 1) {
+      throw new IllegalArgumentException("The load threshold must be at least 1.");
+    }
+    if (maxHoldTicks < 1) {
+      throw new IllegalArgumentException("The hold time must be at least 1.");
+    }
+    this.loadThreshold = loadThreshold;
+    this.maxHoldTicks = maxHoldTicks;
+  }
+
+  /**
+   * Returns the policy that leaves with the first request, or after 5 steps
+   * with nobody. This is the default for every elevator.
+   *
+   * @return the default departure policy.
+   */
+  public static DeparturePolicy firstRequest() {
+    return new DeparturePolicy(1, 5);
+  }
+
+  /**
+   * Returns whether an elevator with a load should leave right away.
+   *
+   * @param load the number of people the elevator has for the trip.
+   * @param capacity the most people the elevator can carry.
+   * @return true if the elevator should leave.
+   */
+  public boolean shouldDepart(int load, int capacity) {
+    return load >= Math.min(this.loadThreshold, capacity);
+  }
+
+  /**
+   * Returns the number of people that makes the elevator leave right away.
+   *
+   * @return the load threshold.
+   */
+  public int getLoadThreshold() {
+    return this.loadThreshold;
+  }
+
+  /**
+   * Returns the longest number of steps the elevator waits.
+   *
+   * @return the hold time in steps.
+   */
+  public int getMaxHoldTicks() {
+    return this.maxHoldTicks;
+  }
+
+  /**
+   * Returns a string representation of the policy.
+   *
+   * @return "load N or M steps".
+   */
+  @Override
+  public String toString() {
+    return "load " + this.loadThreshold + " or " + this.maxHoldTicks + " steps";
+  }
+}
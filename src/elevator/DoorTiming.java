@@ -0,0 +1,109 @@
+package elevator;
+
+/**
+ * This class holds how long an elevator keeps its door open at a stop.
+ * The dwell time is the time to open and close the door, plus the time for
+ * the people boarding and leaving at the stop to get through the door.
+ * Unless the door closes early, it also stays open for at least the hold time.
+ */
+public class DoorTiming {
+  private final int openTicks;
+  private final int closeTicks;
+  private final double ticksPerPassenger;
+  private final int holdTicks;
+  private final boolean earlyClose;
+
+  /**
+   * The constructor for the door timing.
+   *
+   * @param openTicks the steps it takes the door to open.
+   * @param closeTicks the steps it takes the door to close.
+   * @param ticksPerPassenger the steps it takes one person to board or leave.
+   * @param holdTicks the least number of steps the door stays open.
+   * @param earlyClose true if the door closes as soon as everyone is through,
+   *                   even before the hold time is over.
+   * @throws IllegalArgumentException if a time is negative.
+   */
+  public DoorTiming(int openTicks, int closeTicks, double ticksPerPassenger, int holdTicks,
+                    boolean earlyClose) {
+    if (openTicks < 0 || closeTicks < 0 || ticksPerPassenger < 0 || holdTicks < 0) {
+      throw new IllegalArgumentException("The door times cannot be negative.");
+    }
+    this.openTicks = openTicks;
+    this.closeTicks = closeTicks;
+    this.ticksPerPassenger = ticksPerPassenger;
+    this.holdTicks = holdTicks;
+    this.earlyClose = earlyClose;
+  }
+
+  /**
+   * Returns a door timing that keeps the door open for the same time at every stop.
+   *
+   * @param dwellTicks the steps the door stays open.
+   * @return the fixed door timing.
+   */
+  public static DoorTiming fixed(int dwellTicks) {
+    return new DoorTiming(0, 0, 0, dwellTicks, false);
+  }
+
+  /**
+   * Returns how long the door stays open at a stop.
+   * The door is always open for at least one step.
+   *
+   * @param transfers the number of people boarding and leaving at the stop.
+   * @return the dwell time in steps.
+   */
+  public int dwellTicks(int transfers) {
+    int dwell = this.openTicks + this.closeTicks
+            + (int) Math.ceil(transfers * this.ticksPerPassenger);
+    if (!this.earlyClose) {
+      dwell = Math.max(dwell, this.holdTicks);
+    }
+    return Math.max(1, dwell);
+  }
+
+  /**
+   * Returns the steps it takes the door to open.
+   *
+   * @return the steps it takes the door to open.
+   */
+  public int getOpenTicks() {
+    return this.openTicks;
+  }
+
+  /**
+   * Returns the steps it takes the door to close.
+   *
+   * @return the steps it takes the door to close.
+   */
+  public int getCloseTicks() {
+    return this.closeTicks;
+  }
+
+  /**
+   * Returns the steps it takes one person to board or leave.
+   *
+   * @return the steps per person.
+   */
+  public double getTicksPerPassenger() {
+    return this.ticksPerPassenger;
+  }
+
+  /**
+   * Returns the least number of steps the door stays open.
+   *
+   * @return the hold time in steps.
+   */
+  public int getHoldTicks() {
+    return this.holdTicks;
+  }
+
+  /**
+   * Returns whether the door closes as soon as everyone is through.
+   *
+   * @return true if the door closes early.
+   */
+  public boolean isEarlyClose() {
+    return this.earlyClose;
+  }
+}
@@ -2,6 +2,8 @@ package elevator;
 
 
 import building.enums.Direction;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import scanerzus.Request;
 
@@ -16,9 +18,10 @@ public class Elevator implements ElevatorInterface {
   private static int newElevatorId = 0;
 
   /************************************************************************
-   * The id of the elevator.This is read only.
+   * The id of the elevator.This is read only. A copy keeps the id of
+   * the elevator it was made from.
    ************************************************************************/
-  private final int id = newElevatorId++;
+  private final int id;
 
   /************************************************************************
    * The total number of floors in the building.
@@ -26,20 +29,47 @@ public class Elevator implements ElevatorInterface {
   private final int maxFloor;
 
   /************************************************************************
-   * The maximum number of people that can fit in the elevator.
+   * The maximum number of people that can fit in the elevator, in each
+   * deck of a double-deck car, and the class of car it is.
    ************************************************************************/
-  private final int maxOccupancy;
+  private int maxOccupancy;
+  private CarClass carClass;
 
   /************************************************************************
-   * The number of steps that the door is open for.
+   * The lowest floor the elevator goes to, its lobby, 0 unless it runs
+   * from a sky lobby.
    ************************************************************************/
-  @SuppressWarnings("FieldCanBeLocal")
-  private final int doorOpenTimeTotal = 3;
+  private int bottomFloor;
 
   /************************************************************************
-   * The number of steps that the elevator will wait at the top or bottom.
+   * The highest floor the elevator goes to, where it turns around, and
+   * the highest floor it serves. They differ for a double-deck car whose
+   * upper deck serves the top floor.
    ************************************************************************/
-  private final int stopWaitTimeTotal = 5;
+  private int topFloor;
+  private int topServedFloor;
+
+  /************************************************************************
+   * The number of decks, 1 or 2. The lower deck of a double-deck car
+   * is at its current floor and the upper deck at the floor above, and
+   * it only stops with its lower deck on every other floor from its bottom.
+   ************************************************************************/
+  private int deckCount = 1;
+
+  /************************************************************************
+   * How long the door is open for at a stop, 3 steps by default.
+   ************************************************************************/
+  private DoorTiming doorTiming = DoorTiming.fixed(3);
+
+  /************************************************************************
+   * When the elevator leaves the bottom floor.
+   ************************************************************************/
+  private DeparturePolicy lobbyDeparture = DeparturePolicy.firstRequest();
+
+  /************************************************************************
+   * When the elevator leaves the top floor.
+   ************************************************************************/
+  private DeparturePolicy topDeparture = DeparturePolicy.firstRequest();
 
   /************************************************************************
    * The class variables that change as the elevator runs.
@@ -80,6 +110,91 @@ public class Elevator implements ElevatorInterface {
    ************************************************************************/
   private final boolean[] floorRequests; // true if there is a request for the floor.
 
+  /************************************************************************
+   * The number of people boarding or leaving at each floor.
+   ************************************************************************/
+  private final int[] floorTransfers;
+
+  /************************************************************************
+   * The number of people leaving at each floor.
+   ************************************************************************/
+  private final int[] floorAlighting;
+
+  /************************************************************************
+   * The number of people given to the elevator and not yet delivered.
+   ************************************************************************/
+  private int tripLoad;
+
+  /************************************************************************
+   * The number of people delivered since the elevator was built.
+   ************************************************************************/
+  private long deliveredCount;
+
+  /************************************************************************
+   * The steps spent by people from being given to the elevator until delivered.
+   ************************************************************************/
+  private long serviceTickSum;
+
+  /************************************************************************
+   * The steps run, the arrival steps of the people on board by the floor
+   * they go to, added up, and the people delivered to every floor and the
+   * steps they spent in service, for stats by destination.
+   ************************************************************************/
+  private long stepCount;
+  private final long[] boardingStepSum;
+  private final long[] deliveredTo;
+  private final long[] serviceTicksTo;
+
+  /************************************************************************
+   * The floors moved since the elevator was built.
+   ************************************************************************/
+  private long floorsTravelled;
+
+  /************************************************************************
+   * True if the elevator parks instead of cycling when it has nothing to do.
+   ************************************************************************/
+  private boolean parkWhenIdle;
+
+  /************************************************************************
+   * The floor the elevator is parking at, -1 if it is not parking,
+   * and whether it has got there.
+   ************************************************************************/
+  private int parkFloor = -1;
+  private boolean parked;
+
+  /************************************************************************
+   * How the elevator moves in kinematic mode, null to move one floor per step,
+   * and the kinematics it was given, before the motion profile of its car class.
+   ************************************************************************/
+  private Kinematics kinematics;
+  private Kinematics givenKinematics;
+
+  /************************************************************************
+   * The run in progress in kinematic mode: the floors it goes between,
+   * the steps it takes and the steps gone. The target is -1 with no run.
+   ************************************************************************/
+  private int moveFrom;
+  private int moveTarget = -1;
+  private int moveTicksTotal;
+  private int moveTicksDone;
+
+  /************************************************************************
+   * The floors the car may move between, which keep it clear of the other
+   * cars in its shaft, whether they stopped it on its last step, and for
+   * how many steps in a row before that.
+   ************************************************************************/
+  private int lowLimit;
+  private int highLimit;
+  private boolean held;
+  private int heldSteps;
+
+  /************************************************************************
+   * The floors the car opens its door at, for every floor of the building.
+   * A car passes the floors it does not serve, and may turn around or park
+   * at them with its door closed.
+   ************************************************************************/
+  private boolean[] servedFloors;
+
 
   private boolean outOfService;  // start must be issued on the elevator to start it.
 
@@ -104,14 +219,80 @@ public class Elevator implements ElevatorInterface {
       throw new IllegalArgumentException("maxOccupancy must be between 3 and 20");
     }
 
+    this.id = newElevatorId++;
     this.maxFloor = maxFloor;
     this.maxOccupancy = maxOccupancy;
+    this.carClass = CarClass.standard(maxOccupancy);
+    this.topFloor = maxFloor - 1;
+    this.topServedFloor = maxFloor - 1;
     this.currentFloor = 0;
     this.direction = Direction.STOPPED;
     this.outOfService = true;
     this.floorRequests = new boolean[maxFloor];
+    this.floorTransfers = new int[maxFloor];
+    this.floorAlighting = new int[maxFloor];
+    this.boardingStepSum = new long[maxFloor];
+    this.deliveredTo = new long[maxFloor];
+    this.serviceTicksTo = new long[maxFloor];
     this.takingRequests = false;
+    this.lowLimit = 0;
+    this.highLimit = maxFloor - 1;
+    this.servedFloors = new boolean[maxFloor];
+    Arrays.fill(this.servedFloors, true);
+  }
 
+  /**
+   * The copy constructor for this elevator.
+   * The copy has the same id and state as the elevator, and runs on its own
+   * from then on, so it can be stepped ahead without touching the original.
+   * Copying takes no new id, so copies can be made from any thread.
+   *
+   * @param other the elevator to copy.
+   */
+  public Elevator(Elevator other) {
+    this.id = other.id;
+    this.maxFloor = other.maxFloor;
+    this.maxOccupancy = other.maxOccupancy;
+    this.carClass = other.carClass;
+    this.bottomFloor = other.bottomFloor;
+    this.topFloor = other.topFloor;
+    this.topServedFloor = other.topServedFloor;
+    this.deckCount = other.deckCount;
+    this.doorTiming = other.doorTiming;
+    this.lobbyDeparture = other.lobbyDeparture;
+    this.topDeparture = other.topDeparture;
+    this.takingRequests = other.takingRequests;
+    this.currentFloor = other.currentFloor;
+    this.direction = other.direction;
+    this.doorOpenTimeLeft = other.doorOpenTimeLeft;
+    this.doorClosed = other.doorClosed;
+    this.stopWaitTimeLeft = other.stopWaitTimeLeft;
+    this.floorRequests = other.floorRequests.clone();
+    this.floorTransfers = other.floorTransfers.clone();
+    this.floorAlighting = other.floorAlighting.clone();
+    this.stepCount = other.stepCount;
+    this.boardingStepSum = other.boardingStepSum.clone();
+    this.deliveredTo = other.deliveredTo.clone();
+    this.serviceTicksTo = other.serviceTicksTo.clone();
+    this.tripLoad = other.tripLoad;
+    this.deliveredCount = other.deliveredCount;
+    this.serviceTickSum = other.serviceTickSum;
+    this.floorsTravelled = other.floorsTravelled;
+    this.parkWhenIdle = other.parkWhenIdle;
+    this.parkFloor = other.parkFloor;
+    this.parked = other.parked;
+    this.kinematics = other.kinematics;
+    this.givenKinematics = other.givenKinematics;
+    this.moveFrom = other.moveFrom;
+    this.moveTarget = other.moveTarget;
+    this.moveTicksTotal = other.moveTicksTotal;
+    this.moveTicksDone = other.moveTicksDone;
+    this.lowLimit = other.lowLimit;
+    this.highLimit = other.highLimit;
+    this.held = other.held;
+    this.heldSteps = other.heldSteps;
+    this.servedFloors = other.servedFloors;
+    this.outOfService = other.outOfService;
   }
 
   /* ***********************************************************************
@@ -186,6 +367,514 @@ public class Elevator implements ElevatorInterface {
     return this.floorRequests;
   }
 
+  /**
+   * Top floor getter.
+   *
+   * @return the highest floor the elevator goes to, where it turns around.
+   *         For a double-deck car this is the floor of its lower deck.
+   */
+  public int getTopFloor() {
+    return this.topFloor;
+  }
+
+  /**
+   * Deck count getter.
+   *
+   * @return 1 for a single-deck car, 2 for a double-deck car.
+   */
+  public int getDeckCount() {
+    return this.deckCount;
+  }
+
+  /**
+   * Deck count setter. A double-deck car serves two floors at every stop:
+   * its lower deck the floors an even number of floors above its bottom floor,
+   * and its upper deck the floors in between. People whose start and end
+   * floors are not on the same deck walk one floor, as at a two-level lobby.
+   * Each deck holds the maximum occupancy, and the room of both decks is shared.
+   *
+   * @param deckCount 1 for a single-deck car, 2 for a double-deck car.
+   * @throws IllegalArgumentException if the deck count is not 1 or 2, or a
+   *                                  double-deck car would not move.
+   * @throws IllegalStateException if the elevator is not out of service at the bottom floor.
+   */
+  public void setDeckCount(int deckCount) {
+    if (deckCount != 1 && deckCount != 2) {
+      throw new IllegalArgumentException("An elevator has 1 or 2 decks.");
+    }
+    this.checkOutOfServiceAtBottom();
+    this.setStops(deckCount, this.bottomFloor, this.topServedFloor);
+  }
+
+  /**
+   * Car class getter.
+   *
+   * @return the class of car the elevator is.
+   */
+  public CarClass getCarClass() {
+    return this.carClass;
+  }
+
+  /**
+   * Car class setter. The elevator takes the capacity, speed and door timing
+   * of the class, and in kinematic mode runs by its motion profile if it has one.
+   *
+   * @param carClass the class of car the elevator is.
+   * @throws IllegalArgumentException if the class is null.
+   * @throws IllegalStateException if the elevator is not out of service at the bottom floor.
+   */
+  public void setCarClass(CarClass carClass) {
+    if (carClass == null) {
+      throw new IllegalArgumentException("The car class cannot be null.");
+    }
+    this.checkOutOfServiceAtBottom();
+    this.carClass = carClass;
+    this.maxOccupancy = carClass.getCapacity();
+    this.doorTiming = carClass.getDoorTiming();
+    this.setKinematics(this.givenKinematics);
+  }
+
+  /**
+   * Returns whether the car opens its door at a floor. The building only gives
+   * a car people whose start and end floors it serves.
+   *
+   * @param floor a floor of the building.
+   * @return true if the car serves the floor.
+   */
+  public boolean serves(int floor) {
+    return this.servedFloors[floor];
+  }
+
+  /**
+   * Served floors getter.
+   *
+   * @return the floors the car serves, a copy.
+   */
+  public BitSet getServedFloors() {
+    BitSet floors = new BitSet(this.maxFloor);
+    for (int floor = 0; floor < this.maxFloor; floor++) {
+      floors.set(floor, this.servedFloors[floor]);
+    }
+    return floors;
+  }
+
+  /**
+   * Served floors setter, for a car with restricted access such as one that
+   * skips the garage levels or a secured floor. The car still runs between
+   * its bottom and top floors.
+   *
+   * @param floors the floors the car serves, null for every floor.
+   * @throws IllegalArgumentException if a floor is not in the building.
+   * @throws IllegalStateException if the elevator is not out of service at the bottom floor.
+   */
+  public void setServedFloors(BitSet floors) {
+    if (floors != null && floors.length() > this.maxFloor) {
+      throw new IllegalArgumentException("The served floors must be in the building.");
+    }
+    this.checkOutOfServiceAtBottom();
+    boolean[] served = new boolean[this.maxFloor];
+    for (int floor = 0; floor < this.maxFloor; floor++) {
+      served[floor] = floors == null || floors.get(floor);
+    }
+    this.servedFloors = served;
+  }
+
+  /**
+   * Returns the floor the elevator stops at to serve a floor: the floor
+   * itself, or for a double-deck car the floor of its lower deck when one
+   * of its decks is at the floor.
+   *
+   * @param floor a floor the elevator serves.
+   * @return the floor the elevator stops at.
+   */
+  public int getStopFloor(int floor) {
+    return this.bottomFloor + (floor - this.bottomFloor) / this.deckCount * this.deckCount;
+  }
+
+  /**
+   * Sets the decks and the floors served, working out the top stop.
+   *
+   * @throws IllegalArgumentException if the elevator would not move.
+   */
+  private void setStops(int deckCount, int bottomFloor, int topServedFloor) {
+    int top = bottomFloor + (topServedFloor - bottomFloor) / deckCount * deckCount;
+    if (top <= bottomFloor) {
+      throw new IllegalArgumentException("The elevator must serve more floors than it has decks.");
+    }
+    this.deckCount = deckCount;
+    this.bottomFloor = bottomFloor;
+    this.topServedFloor = topServedFloor;
+    this.topFloor = top;
+  }
+
+  /**
+   * Top floor setter. An elevator serving only the lower part of the building
+   * turns around at its top floor, and takes its down requests there.
+   *
+   * @param topFloor the highest floor the elevator goes to.
+   * @throws IllegalArgumentException if the floor is not above the bottom floor
+   *                                  and in the building.
+   * @throws IllegalStateException if the elevator is not out of service at the bottom floor.
+   */
+  public void setTopFloor(int topFloor) {
+    if (topFloor <= this.bottomFloor || topFloor > this.maxFloor - 1) {
+      throw new IllegalArgumentException("The top floor must be in the building.");
+    }
+    this.checkOutOfServiceAtBottom();
+    this.setStops(this.deckCount, this.bottomFloor, topFloor);
+  }
+
+  /**
+   * Bottom floor getter.
+   *
+   * @return the lowest floor the elevator goes to, where it takes its up requests.
+   */
+  public int getBottomFloor() {
+    return this.bottomFloor;
+  }
+
+  /**
+   * Bottom floor setter. An elevator running from a sky lobby turns around there,
+   * takes its up requests there, and goes there when taken out of service.
+   * The elevator stands at its new bottom floor from then on.
+   *
+   * @param bottomFloor the lowest floor the elevator goes to.
+   * @throws IllegalArgumentException if the floor is not below the top floor
+   *                                  and in the building.
+   * @throws IllegalStateException if the elevator is not out of service at the bottom floor.
+   */
+  public void setBottomFloor(int bottomFloor) {
+    if (bottomFloor < 0 || bottomFloor >= this.topServedFloor) {
+      throw new IllegalArgumentException("The bottom floor must be below the top floor.");
+    }
+    this.checkOutOfServiceAtBottom();
+    this.setStops(this.deckCount, bottomFloor, this.topServedFloor);
+    this.currentFloor = bottomFloor;
+  }
+
+  private void checkOutOfServiceAtBottom() {
+    if (!this.outOfService || this.currentFloor != this.bottomFloor || this.isMoving()) {
+      throw new IllegalStateException(
+              "The floors served can only change when out of service at the bottom floor.");
+    }
+  }
+
+  /**
+   * Door timing getter.
+   *
+   * @return how long the door is open for at a stop.
+   */
+  public DoorTiming getDoorTiming() {
+    return this.doorTiming;
+  }
+
+  /**
+   * Door timing setter. The new timing is used from the next stop on.
+   *
+   * @param doorTiming how long the door is open for at a stop.
+   * @throws IllegalArgumentException if the door timing is null.
+   */
+  public void setDoorTiming(DoorTiming doorTiming) {
+    if (doorTiming == null) {
+      throw new IllegalArgumentException("The door timing cannot be null.");
+    }
+    this.doorTiming = doorTiming;
+  }
+
+  /**
+   * Departure policy getter for the bottom floor.
+   *
+   * @return when the elevator leaves the bottom floor.
+   */
+  public DeparturePolicy getLobbyDeparture() {
+    return this.lobbyDeparture;
+  }
+
+  /**
+   * Departure policy getter for the top floor.
+   *
+   * @return when the elevator leaves the top floor.
+   */
+  public DeparturePolicy getTopDeparture() {
+    return this.topDeparture;
+  }
+
+  /**
+   * Departure policy setter. The new policies are used from the next wait on.
+   *
+   * @param lobbyDeparture when the elevator leaves the bottom floor.
+   * @param topDeparture when the elevator leaves the top floor.
+   * @throws IllegalArgumentException if a policy is null.
+   */
+  public void setDeparturePolicy(DeparturePolicy lobbyDeparture, DeparturePolicy topDeparture) {
+    if (lobbyDeparture == null || topDeparture == null) {
+      throw new IllegalArgumentException("The departure policy cannot be null.");
+    }
+    this.lobbyDeparture = lobbyDeparture;
+    this.topDeparture = topDeparture;
+  }
+
+  /**
+   * Returns the number of people given to the elevator and not yet delivered.
+   *
+   * @return the load of the current trip.
+   */
+  public int getTripLoad() {
+    return this.tripLoad;
+  }
+
+  /**
+   * Returns how many more people the elevator can take for this trip.
+   *
+   * @return the room left in the elevator, in both decks of a double-deck car.
+   */
+  public int getFreeCapacity() {
+    return Math.max(0, this.maxOccupancy * this.deckCount - this.tripLoad);
+  }
+
+  /**
+   * Returns the number of people delivered since the elevator was built.
+   *
+   * @return the number of people delivered.
+   */
+  public long getDeliveredCount() {
+    return this.deliveredCount;
+  }
+
+  /**
+   * Returns the steps spent by people from being given to the elevator
+   * until they were delivered, added up over all people.
+   *
+   * @return the total service time in steps.
+   */
+  public long getServiceTickSum() {
+    return this.serviceTickSum;
+  }
+
+  /**
+   * Returns the number of people delivered to a floor since the elevator was built.
+   *
+   * @param floor the floor the people went to.
+   * @return the number of people delivered there.
+   */
+  public long getDeliveredCount(int floor) {
+    return this.deliveredTo[floor];
+  }
+
+  /**
+   * Returns the steps spent in service by the people delivered to a floor,
+   * added up over those people.
+   *
+   * @param floor the floor the people went to.
+   * @return the total service time in steps.
+   */
+  public long getServiceTickSum(int floor) {
+    return this.serviceTicksTo[floor];
+  }
+
+  /**
+   * Returns the number of floors moved since the elevator was built.
+   *
+   * @return the floors travelled.
+   */
+  public long getFloorsTravelled() {
+    return this.floorsTravelled;
+  }
+
+  /**
+   * Sets whether the elevator parks where it is, instead of cycling, once it
+   * waited at the bottom or top floor with nobody to carry.
+   *
+   * @param parkWhenIdle true to park when idle.
+   */
+  public void setParkWhenIdle(boolean parkWhenIdle) {
+    this.parkWhenIdle = parkWhenIdle;
+  }
+
+  /**
+   * Returns whether the elevator parks when idle.
+   *
+   * @return true if the elevator parks when idle.
+   */
+  public boolean isParkWhenIdle() {
+    return this.parkWhenIdle;
+  }
+
+  /**
+   * Returns whether the elevator is parked. A parked elevator stands with its
+   * door closed and takes requests on its way up or down from its floor.
+   *
+   * @return true if the elevator is parked.
+   */
+  public boolean isParked() {
+    return this.parked;
+  }
+
+  /**
+   * Returns the floor the elevator is parking or parked at.
+   *
+   * @return the park floor, -1 if the elevator is not parking.
+   */
+  public int getParkFloor() {
+    return this.parkFloor;
+  }
+
+  /**
+   * Sends an idle elevator to park at a floor. It does not take requests
+   * until it gets there. Sending it to the bottom floor recalls it to the lobby.
+   * A double-deck car parks at its stop for the floor.
+   *
+   * @param floor the floor to park at.
+   * @throws IllegalArgumentException if the floor is not one the elevator goes to.
+   * @throws IllegalStateException if the elevator is out of service, between floors,
+   *                               or has people to carry.
+   */
+  public void park(int floor) {
+    if (floor < this.bottomFloor || floor > this.topServedFloor) {
+      throw new IllegalArgumentException("The park floor must be one the elevator goes to.");
+    }
+    if (this.outOfService || this.isMoving() || this.tripLoad > 0 || !this.doorClosed) {
+      throw new IllegalStateException("Only an idle elevator can park.");
+    }
+    floor = this.getStopFloor(floor);
+    this.parkFloor = floor;
+    this.parked = false;
+    this.takingRequests = false;
+    this.stopWaitTimeLeft = 0;
+    if (floor == this.currentFloor) {
+      this.arrivePark();
+    } else {
+      this.direction = floor > this.currentFloor ? Direction.UP : Direction.DOWN;
+    }
+  }
+
+  /**
+   * Stops the elevator at its park floor.
+   */
+  private void arrivePark() {
+    this.parked = true;
+    this.takingRequests = true;
+    this.direction = Direction.STOPPED;
+  }
+
+  /**
+   * Stops parking, when the elevator gets requests or goes out of service.
+   */
+  private void leavePark() {
+    this.parkFloor = -1;
+    this.parked = false;
+  }
+
+  /**
+   * Kinematics getter.
+   *
+   * @return how the elevator moves in kinematic mode, null if it moves one floor per step.
+   */
+  public Kinematics getKinematics() {
+    return this.kinematics;
+  }
+
+  /**
+   * Kinematics setter. With kinematics the elevator runs between its stops by
+   * its motion profile, and every step is a fixed slice of time. A car whose
+   * class has a motion profile runs by that profile instead.
+   *
+   * @param kinematics how the elevator moves, null to move one floor per step.
+   * @throws IllegalArgumentException if the kinematics are for a different number of floors.
+   * @throws IllegalStateException if the elevator is between floors.
+   */
+  public void setKinematics(Kinematics kinematics) {
+    if (kinematics != null && kinematics.getNumberOfFloors() != this.maxFloor) {
+      throw new IllegalArgumentException("The kinematics must have a level for every floor.");
+    }
+    if (this.isMoving()) {
+      throw new IllegalStateException("The kinematics cannot change between floors.");
+    }
+    MotionProfile profile = this.carClass.getMotionProfile();
+    this.givenKinematics = kinematics;
+    this.kinematics = kinematics == null || profile == null ? kinematics
+            : kinematics.withMotionProfile(profile);
+  }
+
+  /**
+   * Sets the floors the car may move between, so it keeps clear of the other
+   * cars in its shaft. A car that would go past them waits where it is, or in
+   * kinematic mode runs only as far as they let it.
+   *
+   * @param lowLimit the lowest floor the car may move to.
+   * @param highLimit the highest floor the car may move to.
+   * @throws IllegalArgumentException if the floors are not in the building, or
+   *                                  the low floor is above the high floor.
+   */
+  public void setTravelLimits(int lowLimit, int highLimit) {
+    if (lowLimit < 0 || highLimit > this.maxFloor - 1 || lowLimit > highLimit) {
+      throw new IllegalArgumentException("The travel limits must be floors in the building.");
+    }
+    this.lowLimit = lowLimit;
+    this.highLimit = highLimit;
+  }
+
+  /**
+   * Returns whether the travel limits let the car run to a floor now.
+   *
+   * @param floor the floor.
+   * @return true if the floor is between the travel limits.
+   */
+  public boolean canRunTo(int floor) {
+    return floor >= this.lowLimit && floor <= this.highLimit;
+  }
+
+  /**
+   * Returns whether the travel limits stopped the car on its last step.
+   *
+   * @return true if the car waited for another car in its shaft.
+   */
+  public boolean isHeld() {
+    return this.held;
+  }
+
+  /**
+   * Returns for how many steps in a row the travel limits have stopped the car.
+   *
+   * @return the steps the car has waited for another car in its shaft, 0 if
+   *         it was not stopped on its last step.
+   */
+  public int getHeldSteps() {
+    return this.held ? this.heldSteps + 1 : 0;
+  }
+
+  /**
+   * Returns the lowest floor the car takes up: the floor it is at, or the
+   * floor it is running down to in kinematic mode.
+   *
+   * @return the lowest floor of the car and its run.
+   */
+  public int getRunLowFloor() {
+    return this.isMoving() ? Math.min(this.currentFloor, this.moveTarget) : this.currentFloor;
+  }
+
+  /**
+   * Returns the highest floor the car takes up: the floor of its upper deck,
+   * or the floor it is running up to in kinematic mode.
+   *
+   * @return the highest floor of the car and its run.
+   */
+  public int getRunHighFloor() {
+    int floor = this.isMoving() ? Math.max(this.currentFloor, this.moveTarget)
+            : this.currentFloor;
+    return Math.min(floor + this.deckCount - 1, this.maxFloor - 1);
+  }
+
+  /**
+   * Returns whether the elevator is on a run between floors in kinematic mode.
+   * The current floor is then the last floor it passed.
+   *
+   * @return true if the elevator is between floors.
+   */
+  public boolean isMoving() {
+    return this.moveTarget >= 0;
+  }
+
   /* ***********************************************************************
    * The following methods are the methods for the ElevatorStatus interface.
    *
@@ -205,12 +894,13 @@ public class Elevator implements ElevatorInterface {
    */
   @Override
   public void start() {
+    this.leavePark();
     this.outOfService = false;
     this.takingRequests = true;
     clearStopRequests();
     this.doorClosed = true;
     this.doorOpenTimeLeft = 0;
-    this.stopWaitTimeLeft = this.stopWaitTimeTotal;
+    this.stopWaitTimeLeft = this.lobbyDeparture.getMaxHoldTicks();
     this.direction = Direction.UP;
   }
 
@@ -223,6 +913,18 @@ public class Elevator implements ElevatorInterface {
    * Fourth check to see if there is a request at this floor.
    */
   public void step() {
+    // everyone given to the elevator is in service until delivered
+    this.serviceTickSum += this.tripLoad;
+    this.stepCount++;
+    this.heldSteps = this.held ? this.heldSteps + 1 : 0;
+    this.held = false;
+
+    // A car between floors finishes its run before anything else.
+    if (this.isMoving()) {
+      this.stepMove();
+      return;
+    }
+
     // If the elevator is out of service then we need to deal with that.
     if (this.outOfService) {
       this.stepOutOfService();
@@ -245,27 +947,43 @@ public class Elevator implements ElevatorInterface {
     // We are not out of service,
     // the door is closed and we are not waiting at the top or bottom.
     // now we check to see if there is a request at this floor
-    // We open the door and set the timer for 3 steps.
-    if (this.floorRequests[this.currentFloor]) {
+    // We open the door and set the timer for the dwell time of this stop,
+    // which depends on how many people board and leave here.
+    // Both decks of a double-deck car load at once, so the busier deck sets the time.
+    if (this.hasStopAt(this.currentFloor)) {
+      int transfers = 0;
+      for (int floor = this.currentFloor; floor <= this.upperDeckFloor(); floor++) {
+        transfers = Math.max(transfers, this.floorTransfers[floor]);
+        this.floorRequests[floor] = false;
+        this.floorTransfers[floor] = 0;
+        this.deliver(floor);
+      }
       this.doorClosed = false;
-      this.doorOpenTimeLeft = this.doorOpenTimeTotal;
-      this.floorRequests[this.currentFloor] = false;
+      this.doorOpenTimeLeft = this.doorTiming.dwellTicks(transfers);
       return;
     }
 
     // We are not out of service
     // the door is closed
     // and there is no request at this floor.
+    // If we are parking here, we stop and wait.
+    if (this.parkFloor == this.currentFloor) {
+      if (!this.parked) {
+        this.arrivePark();
+      }
+      return;
+    }
+
     // We may be at the top or the bottom
 
 
     // If we are at the bottom
     // and the direction is down
     // we need to set the direction to up
-    // we set the timer to this.stopWaitTimeTotal
-    if (this.currentFloor == 0 && this.direction == Direction.DOWN) {
+    // we set the timer to the hold time of the lobby departure policy
+    if (this.currentFloor == this.bottomFloor && this.direction == Direction.DOWN) {
       this.direction = Direction.STOPPED;
-      this.stopWaitTimeLeft = this.stopWaitTimeTotal;
+      this.stopWaitTimeLeft = this.lobbyDeparture.getMaxHoldTicks();
       this.takingRequests = true;
       return;
     }
@@ -273,10 +991,10 @@ public class Elevator implements ElevatorInterface {
     // If we are at the top
     // and the direction is up
     // we need to set the direction to down
-    // we set the timer to this.stopWaitTimeTotal
-    if (this.currentFloor == this.maxFloor - 1 && this.direction == Direction.UP) {
+    // we set the timer to the hold time of the top departure policy
+    if (this.currentFloor == this.topFloor && this.direction == Direction.UP) {
       this.direction = Direction.STOPPED;
-      this.stopWaitTimeLeft = this.stopWaitTimeTotal;
+      this.stopWaitTimeLeft = this.topDeparture.getMaxHoldTicks();
       this.takingRequests = true;
       return;
     }
@@ -287,12 +1005,30 @@ public class Elevator implements ElevatorInterface {
     // there is no request at this floor
     // we are not at the top or the bottom
     // we need to move the elevator in the direction it is currently moving.
+    // In kinematic mode the elevator runs to its next stop instead.
+    // A car kept clear of another car in its shaft waits, or runs as far as it may.
+    if (this.kinematics != null) {
+      this.startMove(this.nextStop());
+      return;
+    }
 
-    int floorIncrement = 1;
-    if (this.direction == Direction.UP) {
+    // A faster car passes up to its floors per step, but stops at the first
+    // floor it has something to do at.
+    if (this.direction == Direction.STOPPED) {
+      return;
+    }
+    int floorIncrement = this.direction == Direction.UP ? 1 : -1;
+    for (int moved = 0; moved < this.carClass.getFloorsPerStep(); moved++) {
+      if (moved > 0 && (this.hasStopAt(this.currentFloor) || this.currentFloor == this.parkFloor
+              || this.currentFloor == this.bottomFloor || this.currentFloor == this.topFloor)) {
+        return;
+      }
+      if (!this.canRunTo(this.currentFloor + floorIncrement)) {
+        this.held = moved == 0;
+        return;
+      }
       this.currentFloor += floorIncrement;
-    } else if (this.direction == Direction.DOWN) {
-      this.currentFloor -= floorIncrement;
+      this.floorsTravelled++;
     }
   }
 
@@ -306,12 +1042,12 @@ public class Elevator implements ElevatorInterface {
    * then execute stepDoorOpen
    */
   private void stepOutOfService() {
-    if (this.currentFloor == 0 && !this.doorClosed) {
+    if (this.currentFloor == this.bottomFloor && !this.doorClosed) {
       return;
     }
 
     //
-    if (this.currentFloor == 0) {
+    if (this.currentFloor == this.bottomFloor) {
       this.doorClosed = false;
       // we can clear the floor requests now
       this.floorRequests[this.currentFloor] = false;
@@ -331,7 +1067,141 @@ public class Elevator implements ElevatorInterface {
 
     // set the direction of the elevator to down.
     this.direction = Direction.DOWN;
+    if (this.kinematics != null) {
+      this.startMove(this.bottomFloor);
+      return;
+    }
+    if (!this.canRunTo(this.currentFloor - 1)) {
+      this.held = true;
+      return;
+    }
     this.currentFloor--;
+    this.floorsTravelled++;
+  }
+
+  /**
+   * Returns the floor the elevator runs to next: the first stop in its
+   * direction, or the top or bottom floor if there is none.
+   *
+   * @return the next floor to stop at.
+   */
+  private int nextStop() {
+    if (this.parkFloor >= 0) {
+      return this.parkFloor;
+    }
+    if (this.direction == Direction.UP) {
+      for (int floor = this.currentFloor + 1; floor < this.topFloor; floor++) {
+        if (this.hasStopAt(floor)) {
+          return floor;
+        }
+      }
+      return this.topFloor;
+    }
+    if (this.direction == Direction.DOWN) {
+      for (int floor = this.currentFloor - 1; floor > this.bottomFloor; floor--) {
+        if (this.hasStopAt(floor)) {
+          return floor;
+        }
+      }
+      return this.bottomFloor;
+    }
+    return this.currentFloor;
+  }
+
+  /**
+   * Returns whether the elevator stops at a floor: a deck has a request there,
+   * and for a double-deck car the floor is one of its stops.
+   *
+   * @param floor the floor of the car, or of its lower deck.
+   * @return true if the elevator stops there.
+   */
+  private boolean hasStopAt(int floor) {
+    if (this.deckCount == 1) {
+      return this.floorRequests[floor];
+    }
+    if ((floor - this.bottomFloor) % this.deckCount != 0) {
+      return false;
+    }
+    for (int deck = floor; deck < floor + this.deckCount && deck < this.maxFloor; deck++) {
+      if (this.floorRequests[deck]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the floor of the top deck, which is in the building.
+   *
+   * @return the highest floor a deck of the car is at.
+   */
+  private int upperDeckFloor() {
+    return Math.min(this.currentFloor + this.deckCount - 1, this.maxFloor - 1);
+  }
+
+  /**
+   * Starts a run to a floor in kinematic mode and takes its first step.
+   * The run ends early at the travel limits.
+   *
+   * @param target the floor to run to.
+   */
+  private void startMove(int target) {
+    int limited = Math.max(this.lowLimit, Math.min(this.highLimit, target));
+    this.held = limited != target;
+    target = limited;
+    if (target == this.currentFloor) {
+      return;
+    }
+    this.moveFrom = this.currentFloor;
+    this.moveTarget = target;
+    this.moveTicksTotal = this.kinematics.travelTicks(this.moveFrom, target);
+    this.moveTicksDone = 0;
+    this.stepMove();
+  }
+
+  /**
+   * Takes one step of the run in progress.
+   * The current floor becomes the last floor the car passed, and the target
+   * once the run is over.
+   */
+  private void stepMove() {
+    this.moveTicksDone++;
+    int floorBefore = this.currentFloor;
+    if (this.moveTicksDone >= this.moveTicksTotal) {
+      this.currentFloor = this.moveTarget;
+      this.moveTarget = -1;
+      this.floorsTravelled += Math.abs(this.currentFloor - floorBefore);
+      return;
+    }
+    double start = this.kinematics.getFloorLevel(this.moveFrom);
+    double distance = Math.abs(this.kinematics.getFloorLevel(this.moveTarget) - start);
+    double gone = this.kinematics.getMotionProfile().position(distance,
+            this.moveTicksDone * this.kinematics.getTickSeconds());
+    if (this.moveTarget > this.moveFrom) {
+      while (this.kinematics.getFloorLevel(this.currentFloor + 1) <= start + gone) {
+        this.currentFloor++;
+      }
+    } else {
+      while (this.kinematics.getFloorLevel(this.currentFloor - 1) >= start - gone) {
+        this.currentFloor--;
+      }
+    }
+    this.floorsTravelled += Math.abs(this.currentFloor - floorBefore);
+  }
+
+  /**
+   * Counts the people leaving at a floor as delivered.
+   *
+   * @param floor the floor the door opened at.
+   */
+  private void deliver(int floor) {
+    this.deliveredTo[floor] += this.floorAlighting[floor];
+    this.serviceTicksTo[floor] += this.floorAlighting[floor] * this.stepCount
+            - this.boardingStepSum[floor];
+    this.boardingStepSum[floor] = 0;
+    this.deliveredCount += this.floorAlighting[floor];
+    this.tripLoad -= this.floorAlighting[floor];
+    this.floorAlighting[floor] = 0;
   }
 
   /**
@@ -350,10 +1220,16 @@ public class Elevator implements ElevatorInterface {
   private void stepTopOrBottom() {
     this.stopWaitTimeLeft--;
     if (this.stopWaitTimeLeft == 0) {
+      // with nobody to carry, a parking elevator stays where it is
+      if (this.parkWhenIdle && this.tripLoad == 0) {
+        this.parkFloor = this.currentFloor;
+        this.arrivePark();
+        return;
+      }
       this.takingRequests = false;
-      if (this.currentFloor == 0) {
+      if (this.currentFloor == this.bottomFloor) {
         this.direction = Direction.UP;
-      } else if (this.currentFloor == this.maxFloor - 1) {
+      } else if (this.currentFloor == this.topFloor) {
         this.direction = Direction.DOWN;
       }
     }
@@ -367,10 +1243,17 @@ public class Elevator implements ElevatorInterface {
    * If a request is received to processRequests and the elevator
    * is not on the first floor or the top floor then and exception
    * will be thrown.
+   * <p>
+   * While the elevator is waiting, it keeps taking requests until its
+   * departure policy says the load is enough, then it leaves.
+   * <p>
+   * A parked elevator can also take requests at any floor, all going the
+   * same way from its floor, and leaves with them right away.
    */
   @Override
   public void processRequests(List<Request> requests) throws IllegalStateException {
-    if (this.currentFloor != 0 && this.currentFloor != this.maxFloor - 1) {
+    if (!this.parked && this.currentFloor != this.bottomFloor
+            && this.currentFloor != this.topFloor) {
       throw new IllegalStateException("Elevator cannot process requests "
           + "unless it is at the bottom or top floor.");
     }
@@ -379,10 +1262,28 @@ public class Elevator implements ElevatorInterface {
       return;
     }
 
+    boolean wasParked = this.parked;
+    this.leavePark();
     this.processStopRequests(requests);
-    if (this.currentFloor == 0) {
+    if (wasParked && this.currentFloor != this.bottomFloor
+            && this.currentFloor != this.topFloor) {
+      Request first = requests.get(0);
+      this.direction = first.getStartFloor() < first.getEndFloor() ? Direction.UP : Direction.DOWN;
+      this.takingRequests = false;
+      return;
+    }
+    DeparturePolicy departure = this.currentFloor == this.bottomFloor
+            ? this.lobbyDeparture : this.topDeparture;
+    if (this.stopWaitTimeLeft > 0
+            && !departure.shouldDepart(this.tripLoad, this.maxOccupancy * this.deckCount)) {
+      return;
+    }
+    // if the elevator was waiting at the top or bottom
+    // set the timer to 0 and we are off to the races.
+    this.stopWaitTimeLeft = 0;
+    if (this.currentFloor == this.bottomFloor) {
       this.direction = Direction.UP;
-    } else if (this.currentFloor == this.maxFloor - 1) {
+    } else if (this.currentFloor == this.topFloor) {
       this.direction = Direction.DOWN;
     }
     this.takingRequests = false;
@@ -394,6 +1295,7 @@ public class Elevator implements ElevatorInterface {
    */
   @Override
   public void takeOutOfService() {
+    this.leavePark();
     this.clearStopRequests();
     this.takingRequests = false;
     this.direction = Direction.DOWN;
@@ -415,15 +1317,20 @@ public class Elevator implements ElevatorInterface {
 
 
   private void processStopRequests(List<Request> requests) {
-    clearStopRequests();
+    // a held elevator adds to the stops it already has for this trip
+    if (this.tripLoad == 0) {
+      clearStopRequests();
+    }
 
     for (Request request : requests) {
       this.floorRequests[request.getStartFloor()] = true;
       this.floorRequests[request.getEndFloor()] = true;
+      this.floorTransfers[request.getStartFloor()] += request.getPassengerCount();
+      this.floorTransfers[request.getEndFloor()] += request.getPassengerCount();
+      this.floorAlighting[request.getEndFloor()] += request.getPassengerCount();
+      this.boardingStepSum[request.getEndFloor()] += request.getPassengerCount() * this.stepCount;
+      this.tripLoad += request.getPassengerCount();
     }
-    // if the elevator was waiting at the top or bottom
-    // set the timer to 0 and we are off to the races.
-    this.stopWaitTimeLeft = 0;
   }
 
   /**
@@ -432,7 +1339,11 @@ public class Elevator implements ElevatorInterface {
   private void clearStopRequests() {
     for (int i = 0; i < this.maxFloor; i++) {
       this.floorRequests[i] = false;
+      this.floorTransfers[i] = 0;
+      this.floorAlighting[i] = 0;
+      this.boardingStepSum[i] = 0;
     }
+    this.tripLoad = 0;
   }
 
   /**
@@ -451,7 +1362,8 @@ public class Elevator implements ElevatorInterface {
         this.doorOpenTimeLeft,
         this.stopWaitTimeLeft,
         this.outOfService,
-        this.takingRequests);
+        this.takingRequests,
+        this.deckCount);
 
     return report.toString();
   }
@@ -459,6 +1371,7 @@ public class Elevator implements ElevatorInterface {
 
   /**
    * Generate a report for the elevator in ElevatorReport format.
+   * The floor requests are copied so the report does not change as the elevator runs.
    *
    * @return an ElevatorReport object.
    */
@@ -469,11 +1382,12 @@ public class Elevator implements ElevatorInterface {
         this.currentFloor,
         this.direction,
         this.doorClosed,
-        this.floorRequests,
+        this.floorRequests.clone(),
         this.doorOpenTimeLeft,
         this.stopWaitTimeLeft,
         this.outOfService,
-        this.takingRequests);
+        this.takingRequests,
+        this.deckCount);
   }
 
 }
@@ -83,9 +83,11 @@ public interface ElevatorInterface {
    * If the elevator is stopped, it will not move.
    * If the elevator arrives at a floor where it is supposed to stop then it will open
    * its doors and let people out.
-   * The elevator will stop for 3 steps then it will close its doors and move on.
-   * If the elevator arrives at the top floor, it will wait for 5 steps then go down.
-   * If the elevator arrives at the bottom floor, it will wait for 5 steps then go up.
+   * The elevator will stop for its dwell time (3 steps by default, or longer with
+   * more people boarding and leaving) then it will close its doors and move on.
+   * If the elevator arrives at its top floor, it will wait until its departure policy
+   * lets it go (5 steps by default) then go down.
+   * If the elevator arrives at the bottom floor, it will wait the same way then go up.
    */
   void step();
 
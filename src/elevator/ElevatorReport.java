@@ -4,6 +4,8 @@ import building.enums.Direction;
 
 /**
  * This class is used to represent the status of the elevators.
+ * A double-deck car is reported at the floor of its lower deck, with its
+ * upper deck on the floor above.
  */
 public class ElevatorReport {
   private final int elevatorId;
@@ -19,6 +21,7 @@ public class ElevatorReport {
 
   private final boolean isTakingRequests;
 
+  private final int deckCount;
 
   /**
    * This constructor is used to create a new ElevatorReport object.
@@ -43,6 +46,35 @@ public class ElevatorReport {
                         int endWaitTimer,
                         boolean outOfService,
                         boolean isTakingRequests) {
+    this(elevatorId, currentFloor, direction, doorClosed, floorRequests, doorOpenTimer,
+        endWaitTimer, outOfService, isTakingRequests, 1);
+  }
+
+  /**
+   * This constructor is used to create a new ElevatorReport object for a car
+   * with one or two decks.
+   *
+   * @param elevatorId       The id of the elevator.
+   * @param currentFloor     The current floor of the elevator, of its lower deck.
+   * @param direction        The direction of the elevator.
+   * @param doorClosed       The status of the door.
+   * @param floorRequests    The requests for the floors, of both decks.
+   * @param doorOpenTimer    The timer for the door.
+   * @param endWaitTimer     The timer for the end of the run.
+   * @param outOfService     The status of the elevator.
+   * @param isTakingRequests Is the elevator taking requests.
+   * @param deckCount        The number of decks of the elevator.
+   */
+  public ElevatorReport(int elevatorId,
+                        int currentFloor,
+                        Direction direction,
+                        boolean doorClosed,
+                        boolean[] floorRequests,
+                        int doorOpenTimer,
+                        int endWaitTimer,
+                        boolean outOfService,
+                        boolean isTakingRequests,
+                        int deckCount) {
     this.elevatorId = elevatorId;
     this.currentFloor = currentFloor;
     this.doorClosed = doorClosed;
@@ -52,6 +84,7 @@ public class ElevatorReport {
     this.endWaitTimer = endWaitTimer;
     this.outOfService = outOfService;
     this.isTakingRequests = isTakingRequests;
+    this.deckCount = deckCount;
   }
 
 
@@ -139,6 +172,25 @@ public class ElevatorReport {
     return isTakingRequests;
   }
 
+  /**
+   * This method is used to get the number of decks of the elevator.
+   *
+   * @return 1 for a single-deck car, 2 for a double-deck car.
+   */
+  public int getDeckCount() {
+    return deckCount;
+  }
+
+  /**
+   * Returns whether a deck of the elevator is at a floor.
+   *
+   * @param floor the floor.
+   * @return true if the lower deck, or the upper deck of a double-deck car, is there.
+   */
+  public boolean isAtFloor(int floor) {
+    return floor >= currentFloor && floor < currentFloor + deckCount;
+  }
+
   /**
    * toString method for the ElevatorReport.
    *
@@ -147,39 +199,61 @@ public class ElevatorReport {
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
+    this.appendTo(sb);
+    return sb.toString();
+  }
 
+  /**
+   * Appends the string representation of the ElevatorReport to a builder.
+   * This lets callers reuse one builder instead of formatting a new string.
+   *
+   * @param sb the builder to append to.
+   * @return the builder.
+   */
+  public StringBuilder appendTo(StringBuilder sb) {
     // if the elevator is out of service and on the ground floor
     if (this.outOfService && this.currentFloor == 0) {
-      sb.append(String.format("Out of Service[Floor %d]", this.currentFloor));
-      return sb.toString();
+      sb.append("Out of Service[Floor ");
+      this.appendFloor(sb).append(']');
+      return sb;
     }
 
     if (this.endWaitTimer > 0) {
-      sb.append(String.format("Waiting[Floor %d, Time %d]", this.currentFloor, this.endWaitTimer));
-      return sb.toString();
+      sb.append("Waiting[Floor ");
+      this.appendFloor(sb).append(", Time ").append(this.endWaitTimer).append(']');
+      return sb;
     }
 
-    sb.append(String.format("[%d|%s|",
-        this.currentFloor,
-        this.direction));
+    sb.append('[');
+    this.appendFloor(sb).append('|').append(this.direction).append('|');
 
     if (this.doorClosed) {
       sb.append("C  ]<");
     } else {
-      sb.append(String.format("O %d]<", this.doorOpenTimer));
+      sb.append("O ").append(this.doorOpenTimer).append("]<");
     }
 
     for (int i = 0; i < this.floorRequests.length; i++) {
       if (this.floorRequests[i]) {
-        sb.append(String.format(" %2d", i));
+        sb.append(i < 10 ? "  " : " ").append(i);
       } else {
         sb.append(" --");
       }
     }
-    sb.append(">");
+    sb.append('>');
 
-    return sb.toString();
+    return sb;
+  }
 
+  /**
+   * Appends the floor of the elevator, "lower/upper" for a double-deck car.
+   */
+  private StringBuilder appendFloor(StringBuilder sb) {
+    sb.append(this.currentFloor);
+    if (this.deckCount > 1) {
+      sb.append('/').append(this.currentFloor + 1);
+    }
+    return sb;
   }
 
   /**
@@ -220,6 +294,9 @@ public class ElevatorReport {
     if (this.isTakingRequests != that.isTakingRequests) {
       return false;
     }
+    if (this.deckCount != that.deckCount) {
+      return false;
+    }
     for (int i = 0; i < this.floorRequests.length; i++) {
       if (this.floorRequests[i] != that.floorRequests[i]) {
         return false;
@@ -241,6 +318,7 @@ public class ElevatorReport {
     result = 31 * result + this.endWaitTimer;
     result = 31 * result + (this.outOfService ? 1 : 0);
     result = 31 * result + (this.isTakingRequests ? 1 : 0);
+    result = 31 * result + this.deckCount;
     result = 31 * result + this.direction.hashCode();
     for (boolean floorRequest : this.floorRequests) {
       result = 31 * result + (floorRequest ? 1 : 0);
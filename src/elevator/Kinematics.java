@@ -0,0 +1,126 @@
+package elevator;
+
+/**
+ * This class holds the kinematic mode of an elevator car.
+ * In this mode every step is a fixed slice of time, and the car moves between
+ * floors by its motion profile instead of one floor per step.
+ * The floors of a car can be at any height, so different cars, for example in
+ * different parts of the building, can have their own floor heights.
+ * Time only moves in whole steps, so a run always takes the same number of steps.
+ */
+public class Kinematics {
+  private final MotionProfile motionProfile;
+  private final double[] floorLevels;
+  private final double tickSeconds;
+
+  /**
+   * The constructor for the kinematics.
+   *
+   * @param motionProfile how the car moves.
+   * @param floorLevels the height of every floor above the bottom floor, in meters,
+   *                    starting at 0 and going up.
+   * @param tickSeconds the seconds in one step.
+   * @throws IllegalArgumentException if the profile is null, the floor levels do not
+   *                                  go up from 0, or the step is not greater than 0.
+   */
+  public Kinematics(MotionProfile motionProfile, double[] floorLevels, double tickSeconds) {
+    if (motionProfile == null) {
+      throw new IllegalArgumentException("The motion profile cannot be null.");
+    }
+    if (floorLevels == null || floorLevels.length < 2 || floorLevels[0] != 0) {
+      throw new IllegalArgumentException("The floor levels must start at 0.");
+    }
+    for (int i = 1; i < floorLevels.length; i++) {
+      if (!(floorLevels[i] > floorLevels[i - 1])) {
+        throw new IllegalArgumentException("The floor levels must go up.");
+      }
+    }
+    if (!(tickSeconds > 0)) {
+      throw new IllegalArgumentException("The seconds in a step must be greater than 0.");
+    }
+    this.motionProfile = motionProfile;
+    this.floorLevels = floorLevels.clone();
+    this.tickSeconds = tickSeconds;
+  }
+
+  /**
+   * Returns kinematics with every floor the same height.
+   *
+   * @param motionProfile how the car moves.
+   * @param floors the number of floors.
+   * @param floorHeight the height of one floor in meters.
+   * @param tickSeconds the seconds in one step.
+   * @return the kinematics.
+   */
+  public static Kinematics uniform(MotionProfile motionProfile, int floors, double floorHeight,
+                                   double tickSeconds) {
+    if (floors < 2) {
+      throw new IllegalArgumentException("There must be at least 2 floors.");
+    }
+    double[] levels = new double[floors];
+    for (int i = 0; i < floors; i++) {
+      levels[i] = i * floorHeight;
+    }
+    return new Kinematics(motionProfile, levels, tickSeconds);
+  }
+
+  /**
+   * Returns how the car moves.
+   *
+   * @return the motion profile.
+   */
+  public MotionProfile getMotionProfile() {
+    return this.motionProfile;
+  }
+
+  /**
+   * Returns the same kinematics for a car that moves by another profile.
+   *
+   * @param motionProfile how the car moves.
+   * @return the kinematics with the floor levels and step of these.
+   * @throws IllegalArgumentException if the profile is null.
+   */
+  public Kinematics withMotionProfile(MotionProfile motionProfile) {
+    return new Kinematics(motionProfile, this.floorLevels, this.tickSeconds);
+  }
+
+  /**
+   * Returns the number of floors the kinematics has levels for.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return this.floorLevels.length;
+  }
+
+  /**
+   * Returns the height of a floor above the bottom floor.
+   *
+   * @param floor the floor.
+   * @return the height in meters.
+   */
+  public double getFloorLevel(int floor) {
+    return this.floorLevels[floor];
+  }
+
+  /**
+   * Returns the seconds in one step.
+   *
+   * @return the seconds in one step.
+   */
+  public double getTickSeconds() {
+    return this.tickSeconds;
+  }
+
+  /**
+   * Returns the number of steps a run between two floors takes.
+   *
+   * @param from the floor the run starts at.
+   * @param to the floor the run ends at.
+   * @return the number of whole steps, at least 1 for different floors.
+   */
+  public int travelTicks(int from, int to) {
+    double distance = Math.abs(this.floorLevels[to] - this.floorLevels[from]);
+    return (int) Math.ceil(this.motionProfile.travelTime(distance) / this.tickSeconds - 1e-9);
+  }
+}
@@ -0,0 +1,164 @@
+package elevator;
+
+/**
+ * This class describes how an elevator car moves between two floors.
+ * A run starts and ends at rest. The car speeds up with limited jerk and
+ * acceleration, cruises at its rated speed, and slows down the same way,
+ * so the speed follows an S-curve. Short runs never reach the rated speed,
+ * or even the full acceleration, so they take longer per meter than long runs.
+ * <p>
+ * All times are in seconds and all distances in meters.
+ */
+public class MotionProfile {
+  private final double ratedSpeed;
+  private final double acceleration;
+  private final double jerk;
+
+  /**
+   * The constructor for the motion profile.
+   *
+   * @param ratedSpeed the top speed of the car in m/s.
+   * @param acceleration the largest acceleration of the car in m/s^2.
+   * @param jerk the largest rate of change of the acceleration in m/s^3.
+   * @throws IllegalArgumentException if a value is not greater than 0.
+   */
+  public MotionProfile(double ratedSpeed, double acceleration, double jerk) {
+    if (!(ratedSpeed > 0) || !(acceleration > 0) || !(jerk > 0)) {
+      throw new IllegalArgumentException(
+              "The speed, acceleration and jerk must be greater than 0.");
+    }
+    this.ratedSpeed = ratedSpeed;
+    this.acceleration = acceleration;
+    this.jerk = jerk;
+  }
+
+  /**
+   * Returns the top speed of the car.
+   *
+   * @return the rated speed in m/s.
+   */
+  public double getRatedSpeed() {
+    return this.ratedSpeed;
+  }
+
+  /**
+   * Returns the largest acceleration of the car.
+   *
+   * @return the acceleration in m/s^2.
+   */
+  public double getAcceleration() {
+    return this.acceleration;
+  }
+
+  /**
+   * Returns the largest rate of change of the acceleration.
+   *
+   * @return the jerk in m/s^3.
+   */
+  public double getJerk() {
+    return this.jerk;
+  }
+
+  /**
+   * Returns the time a run over a distance takes, from rest to rest.
+   *
+   * @param distance the length of the run.
+   * @return the travel time in seconds.
+   */
+  public double travelTime(double distance) {
+    if (distance <= 0) {
+      return 0;
+    }
+    double peak = this.peakSpeed(distance);
+    return 2 * this.rampTime(peak) + (distance - peak * this.rampTime(peak)) / peak;
+  }
+
+  /**
+   * Returns how far the car has gone some time into a run.
+   *
+   * @param distance the length of the run.
+   * @param time the time since the run started.
+   * @return the distance gone, from 0 at the start to the length at the end.
+   */
+  public double position(double distance, double time) {
+    if (distance <= 0 || time <= 0) {
+      return 0;
+    }
+    double peak = this.peakSpeed(distance);
+    double ramp = this.rampTime(peak);
+    double total = 2 * ramp + (distance - peak * ramp) / peak;
+    if (time >= total) {
+      return distance;
+    }
+    if (time <= total - ramp) {
+      return this.rampDistance(peak, time);
+    }
+    // slowing down is speeding up played backwards
+    return distance - this.rampDistance(peak, total - time);
+  }
+
+  /**
+   * Returns the highest speed reached on a run, which is the rated speed
+   * unless the run is too short to reach it.
+   */
+  private double peakSpeed(double distance) {
+    if (this.ratedSpeed * this.rampTime(this.ratedSpeed) <= distance) {
+      return this.ratedSpeed;
+    }
+    double fullAcceleration = this.acceleration * this.acceleration / this.jerk;
+    // with full acceleration reached, distance = v^2 / a + v * a / j
+    double jerkTime = this.acceleration / this.jerk;
+    double speed = this.acceleration / 2
+            * (Math.sqrt(jerkTime * jerkTime + 4 * distance / this.acceleration) - jerkTime);
+    if (speed >= fullAcceleration) {
+      return speed;
+    }
+    // otherwise distance = 2 * v * sqrt(v / j)
+    return Math.cbrt(distance * distance * this.jerk / 4);
+  }
+
+  /**
+   * Returns the time to speed up from rest to a speed.
+   */
+  private double rampTime(double speed) {
+    if (speed * this.jerk >= this.acceleration * this.acceleration) {
+      return speed / this.acceleration + this.acceleration / this.jerk;
+    }
+    return 2 * Math.sqrt(speed / this.jerk);
+  }
+
+  /**
+   * Returns the distance gone some time after starting from rest towards
+   * a peak speed, cruising once the peak is reached.
+   */
+  private double rampDistance(double peak, double time) {
+    double jerkTime;
+    double accelerationTime;
+    if (peak * this.jerk >= this.acceleration * this.acceleration) {
+      jerkTime = this.acceleration / this.jerk;
+      accelerationTime = peak / this.acceleration - jerkTime;
+    } else {
+      jerkTime = Math.sqrt(peak / this.jerk);
+      accelerationTime = 0;
+    }
+    if (time <= jerkTime) {
+      return this.jerk * time * time * time / 6;
+    }
+    double topAcceleration = this.jerk * jerkTime;
+    double speed1 = topAcceleration * jerkTime / 2;
+    double distance1 = topAcceleration * jerkTime * jerkTime / 6;
+    if (time <= jerkTime + accelerationTime) {
+      double t = time - jerkTime;
+      return distance1 + speed1 * t + topAcceleration * t * t / 2;
+    }
+    double speed2 = speed1 + topAcceleration * accelerationTime;
+    double distance2 = distance1 + speed1 * accelerationTime
+            + topAcceleration * accelerationTime * accelerationTime / 2;
+    double rampEnd = 2 * jerkTime + accelerationTime;
+    if (time <= rampEnd) {
+      double t = time - jerkTime - accelerationTime;
+      return distance2 + speed2 * t + topAcceleration * t * t / 2 - this.jerk * t * t * t / 6;
+    }
+    return peak * rampEnd / 2 + peak * (time - rampEnd);
+  }
+}
@@ -0,0 +1,649 @@
+package main;
+
+import building.AgingPolicy;
+import building.AssignmentDispatcher;
+import building.Building;
+import building.BuildingStats;
+import building.Dispatcher;
+import building.ParkingPolicy;
+import building.TrafficClassifier;
+import building.Zone;
+import building.RequestGroup;
+import building.RolloutDispatcher;
+import elevator.CarClass;
+import elevator.DeparturePolicy;
+import elevator.DoorTiming;
+import elevator.Elevator;
+import elevator.Kinematics;
+import elevator.MotionProfile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Measures the handling capacity of buildings.
+ * In up-peak traffic people arrive at the lobby at a steady rate, bound for
+ * random floors above; in interfloor traffic they go between random floors.
+ * The same arrivals are replayed for every setup of a scenario, and the people
+ * delivered per five minute window, the average wait and journey, and the
+ * floors travelled by the elevators are printed for each.
+ * <p>
+ * Usage: CapacityBenchmark
+ * [departure|zoning|parking|traffic|dispatch|aging|express|skylobby|doubledeck|shafts|fleet
+ * |access]
+ * [arrivals per 100 steps] [steps]
+ * <ul>
+ *   <li>departure: compares lobby departure policies.</li>
+ *   <li>zoning: compares one bank serving every floor with low, mid and high-rise zones.</li>
+ *   <li>parking: compares cycling idle elevators with parking them, in both traffic kinds.</li>
+ *   <li>traffic: compares fixed policies with plans switched by the detected traffic,
+ *       over a day of morning, lunch, evening and night traffic.</li>
+ *   <li>dispatch: compares the built-in dispatcher with the assignment and look-ahead
+ *       dispatchers, and times the assignment of 200 groups to 40 elevators.</li>
+ *   <li>aging: compares the longest waits with and without a limit on waiting,
+ *       under a dispatcher that picks the nearest groups.</li>
+ *   <li>express: compares local elevators serving every floor with local and express
+ *       elevators, for everyone and for the people going to the top floors.</li>
+ *   <li>skylobby: compares two zones running from the lobby with shuttles to a sky
+ *       lobby and a zone running from there, where people change elevators,
+ *       in the same number of shafts and in more.</li>
+ *   <li>doubledeck: compares single-deck with double-deck elevators in the same shafts.</li>
+ *   <li>shafts: compares the people carried per shaft with one car in every shaft and
+ *       with two cars sharing shafts, a shuttle below a sky lobby zone.</li>
+ *   <li>fleet: compares a fleet of standard cars with fleets mixing passenger and
+ *       freight cars, with people arriving alone and in large groups, by car class.</li>
+ *   <li>access: compares cars serving every floor with cars serving only some floors,
+ *       stopping at every other floor or keeping the top floors to a few cars.</li>
+ * </ul>
+ */
+public class CapacityBenchmark {
+  private static final long SEED = 42;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the scenario, the arrival rate per 100 steps and the number of steps,
+   *             all optional. Without a scenario every scenario is run.
+   */
+  public static void main(String[] args) {
+    String scenario = args.length > 0 ? args[0] : "all";
+    int rate = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+    int steps = args.length > 2 ? Integer.parseInt(args[2]) : 3600;
+    if (scenario.equals("departure") || scenario.equals("all")) {
+      departure(rate > 0 ? rate : 60, steps);
+    }
+    if (scenario.equals("zoning") || scenario.equals("all")) {
+      zoning(rate > 0 ? rate : 150, steps);
+    }
+    if (scenario.equals("parking") || scenario.equals("all")) {
+      parking(rate > 0 ? rate : 8, steps);
+    }
+    if (scenario.equals("traffic") || scenario.equals("all")) {
+      traffic(rate > 0 ? rate : 40, args.length > 2 ? steps : 14400);
+    }
+    if (scenario.equals("dispatch") || scenario.equals("all")) {
+      dispatch(rate > 0 ? rate : 20, steps);
+    }
+    if (scenario.equals("aging") || scenario.equals("all")) {
+      aging(rate > 0 ? rate : 70, steps);
+    }
+    if (scenario.equals("express") || scenario.equals("all")) {
+      express(rate > 0 ? rate : 100, steps);
+    }
+    if (scenario.equals("skylobby") || scenario.equals("all")) {
+      skyLobby(rate > 0 ? rate : 100, steps);
+    }
+    if (scenario.equals("doubledeck") || scenario.equals("all")) {
+      doubleDeck(rate > 0 ? rate : 200, steps);
+    }
+    if (scenario.equals("shafts") || scenario.equals("all")) {
+      shafts(rate > 0 ? rate : 100, steps);
+    }
+    if (scenario.equals("fleet") || scenario.equals("all")) {
+      fleet(rate > 0 ? rate : 60, steps);
+    }
+    if (scenario.equals("access") || scenario.equals("all")) {
+      access(rate > 0 ? rate : 40, steps);
+    }
+  }
+
+  /**
+   * Compares lobby departure policies in a 16 floor building with 4 elevators of 12.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void departure(int rate, int steps) {
+    final int floors = 16;
+    final int elevators = 4;
+    final int capacity = 12;
+    printHeader("Departure policies, up-peak", floors, elevators, capacity, rate, steps,
+            "lobby departure");
+    DeparturePolicy top = DeparturePolicy.firstRequest();
+    DeparturePolicy[] lobbyPolicies = {
+        DeparturePolicy.firstRequest(),
+        new DeparturePolicy(capacity / 2, 10),
+        new DeparturePolicy(capacity * 3 / 4, 20),
+        new DeparturePolicy(capacity, 40)
+    };
+    for (DeparturePolicy lobby : lobbyPolicies) {
+      Building building = new Building(floors, elevators, capacity);
+      building.setDeparturePolicy(lobby, top);
+      printRow(lobby.toString(), run(building, rate, steps, Traffic.upPeak));
+    }
+  }
+
+  /**
+   * Compares one bank serving every floor with three zones in a 30 floor building
+   * with 6 elevators of 12, moving one floor per step and by kinematics.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void zoning(int rate, int steps) {
+    final int floors = 30;
+    final int elevators = 6;
+    final int capacity = 12;
+    printHeader("Zoning, up-peak", floors, elevators, capacity, rate, steps, "setup");
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), floors, 3.5,
+            1.0);
+    for (boolean kinematic : new boolean[] {false, true}) {
+      String mode = kinematic ? ", kinematic" : ", floor per step";
+      for (boolean zoned : new boolean[] {false, true}) {
+        Building building = new Building(floors, elevators, capacity);
+        if (zoned) {
+          building.setZones(Arrays.asList(
+              new Zone("low-rise", 1, 10, 2),
+              new Zone("mid-rise", 11, 20, 2),
+              new Zone("high-rise", 21, 29, 2)));
+        }
+        if (kinematic) {
+          building.setKinematics(kinematics);
+        }
+        printRow((zoned ? "3 zones" : "1 bank") + mode, run(building, rate, steps, Traffic.upPeak));
+      }
+    }
+  }
+
+  /**
+   * Compares idle elevators cycling with parking them, in a 16 floor building
+   * with 4 elevators of 12, under light up-peak and interfloor traffic.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void parking(int rate, int steps) {
+    final int floors = 16;
+    final int elevators = 4;
+    final int capacity = 12;
+    ParkingPolicy[] policies = {
+        ParkingPolicy.none(),
+        ParkingPolicy.fixed(0),
+        ParkingPolicy.fixed(0, 5, 10, 15),
+        ParkingPolicy.learned(300)
+    };
+    for (boolean interfloor : new boolean[] {false, true}) {
+      printHeader("Parking, " + (interfloor ? "interfloor" : "up-peak"), floors, elevators,
+              capacity, rate, steps, "idle policy");
+      for (ParkingPolicy policy : policies) {
+        Building building = new Building(floors, elevators, capacity);
+        building.setParkingPolicy(policy);
+        printRow(policy.toString(), run(building, rate, steps,
+            interfloor ? Traffic.interfloor : Traffic.upPeak));
+      }
+    }
+  }
+
+  /**
+   * Compares fixed policies with plans switched by the detected traffic, in a
+   * 16 floor building with 4 elevators of 12, over a day of traffic.
+   *
+   * @param rate the arrivals per 100 steps, a twentieth of it at night.
+   * @param steps the number of steps to run.
+   */
+  private static void traffic(int rate, int steps) {
+    final int floors = 16;
+    final int elevators = 4;
+    final int capacity = 12;
+    printHeader("Traffic modes, day", floors, elevators, capacity, rate, steps, "dispatch");
+    Building fixed = new Building(floors, elevators, capacity);
+    printRow("fixed, cycling", run(fixed, rate, steps, Traffic.day));
+    Building parked = new Building(floors, elevators, capacity);
+    parked.setParkingPolicy(ParkingPolicy.learned(300));
+    printRow("fixed, learned parking", run(parked, rate, steps, Traffic.day));
+    Building adaptive = new Building(floors, elevators, capacity);
+    TrafficClassifier classifier = TrafficClassifier.standard();
+    adaptive.setTrafficClassifier(classifier);
+    printRow("switched by traffic mode", run(adaptive, rate, steps, Traffic.day));
+    System.out.printf("The traffic mode changed %d times, ending as %s.%n",
+            classifier.getModeChanges(), classifier.getMode());
+  }
+
+  /**
+   * Compares the built-in, assignment and look-ahead dispatchers in a 16 floor
+   * building with 4 elevators of 12 parked by demand, then times the assignment.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void dispatch(int rate, int steps) {
+    final int floors = 16;
+    final int elevators = 4;
+    final int capacity = 12;
+    for (Traffic traffic : new Traffic[] {Traffic.interfloor, Traffic.lunch}) {
+      printHeader("Dispatchers, " + traffic, floors, elevators, capacity, rate, steps,
+              "dispatcher");
+      for (String name : new String[] {"built-in", "assignment", "rollout"}) {
+        Building building = new Building(floors, elevators, capacity);
+        building.setParkingPolicy(ParkingPolicy.learned(300));
+        RolloutDispatcher rollout = new RolloutDispatcher();
+        if (name.equals("assignment")) {
+          building.setDispatcher(new AssignmentDispatcher());
+        } else if (name.equals("rollout")) {
+          building.setDispatcher(rollout);
+        }
+        long begin = System.nanoTime();
+        printRow(name, run(building, rate, steps, traffic));
+        if (name.equals("rollout")) {
+          System.out.printf("%d look-ahead runs of %d steps, %d late, %.3f ms a step.%n",
+                  rollout.getRolloutCount(), rollout.getHorizon(), rollout.getLateCount(),
+                  (System.nanoTime() - begin) / 1e6 / steps);
+        }
+      }
+    }
+    timeAssignment(40, 200);
+  }
+
+  /**
+   * Compares the longest waits in a 16 floor building with 4 elevators of 12
+   * parked by demand under heavy interfloor traffic, with an assignment dispatcher
+   * that only looks at distance, with and without limits on waiting.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void aging(int rate, int steps) {
+    final int floors = 16;
+    final int elevators = 4;
+    final int capacity = 12;
+    printHeader("Aging, interfloor", floors, elevators, capacity, rate, steps, "aging policy");
+    AgingPolicy[] policies = {
+        AgingPolicy.unlimited(), new AgingPolicy(120), new AgingPolicy(60)
+    };
+    for (AgingPolicy policy : policies) {
+      Building building = new Building(floors, elevators, capacity);
+      building.setParkingPolicy(ParkingPolicy.learned(300));
+      building.setDispatcher(new AssignmentDispatcher(0));
+      building.setAgingPolicy(policy);
+      printRow(policy.isLimited() ? "overdue after " + policy.getMaxWaitTicks() : "unlimited",
+              run(building, rate, steps, Traffic.interfloor));
+    }
+  }
+
+  /**
+   * Compares 8 local elevators of 12 serving every floor of a 30 floor building
+   * with 5 local elevators and 3 express elevators serving the lobby and floors
+   * 20 to 29 non-stop, moving one floor per step and by kinematics.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void express(int rate, int steps) {
+    final int floors = 30;
+    final int elevators = 8;
+    final int capacity = 12;
+    printHeader("Express elevators, up-peak", floors, elevators, capacity, rate, steps,
+            "setup");
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), floors, 3.5,
+            1.0);
+    for (boolean kinematic : new boolean[] {false, true}) {
+      String mode = kinematic ? ", kinematic" : ", floor per step";
+      for (boolean express : new boolean[] {false, true}) {
+        Building building = new Building(floors, elevators, capacity);
+        if (express) {
+          building.setZones(Arrays.asList(
+              new Zone("local", 1, 29, 5),
+              Zone.express("express", 20, 29, 3)));
+        }
+        if (kinematic) {
+          building.setKinematics(kinematics);
+        }
+        String setup = (express ? "5+3 express" : "8 local") + mode;
+        printRow(setup, run(building, rate, steps, Traffic.upPeak));
+        printRow("  to floors 20-29", building.getStats(20, 29));
+      }
+    }
+  }
+
+  /**
+   * Compares zones running from the lobby with a sky lobby in a 30 floor building
+   * with elevators of 12, moving one floor per step and by kinematics.
+   * The elevators running from the sky lobby at floor 15 stand in the shafts of
+   * the low zone, so a sky lobby building of 9 elevators needs 6 shafts: it is
+   * run against two zones with 9 shafts and with 6.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void skyLobby(int rate, int steps) {
+    final int floors = 30;
+    final int capacity = 12;
+    printHeader("Sky lobby, up-peak", floors, 9, capacity, rate, steps, "setup");
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), floors, 3.5,
+            1.0);
+    List<List<Zone>> setups = Arrays.asList(
+        Arrays.asList(new Zone("low", 1, 14, 4), new Zone("high", 15, 29, 5)),
+        Arrays.asList(new Zone("low", 1, 14, 3), new Zone("high", 15, 29, 3)),
+        Arrays.asList(new Zone("low", 1, 14, 4), Zone.express("shuttle", 15, 15, 2),
+            Zone.skyLobby("upper", 15, 29, 3)));
+    String[] names = {"4+5 in 9 shafts", "3+3 in 6 shafts", "4+2+3 sky in 6"};
+    for (boolean kinematic : new boolean[] {false, true}) {
+      String mode = kinematic ? ", kinematic" : "";
+      for (int i = 0; i < setups.size(); i++) {
+        int elevators = 0;
+        for (Zone zone : setups.get(i)) {
+          elevators += zone.getElevatorCount();
+        }
+        Building building = new Building(floors, elevators, capacity);
+        building.setZones(setups.get(i));
+        if (kinematic) {
+          building.setKinematics(kinematics);
+        }
+        printRow(names[i] + mode, run(building, rate, steps, Traffic.upPeak));
+        printRow("  to floors 16-29", building.getStats(16, 29));
+      }
+    }
+  }
+
+  /**
+   * Compares 6 single-deck elevators of 12 in a 30 floor building with 6
+   * double-deck elevators of 12 a deck in the same shafts, moving one floor
+   * per step and by kinematics.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void doubleDeck(int rate, int steps) {
+    final int floors = 30;
+    final int elevators = 6;
+    final int capacity = 12;
+    printHeader("Double-deck elevators, up-peak", floors, elevators, capacity, rate, steps,
+            "setup");
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), floors, 3.5,
+            1.0);
+    for (boolean kinematic : new boolean[] {false, true}) {
+      String mode = kinematic ? ", kinematic" : ", floor per step";
+      for (int decks = 1; decks <= 2; decks++) {
+        Building building = new Building(floors, elevators, capacity);
+        building.setDeckCount(decks);
+        if (kinematic) {
+          building.setKinematics(kinematics);
+        }
+        printRow((decks == 1 ? "single-deck" : "double-deck") + mode,
+                run(building, rate, steps, Traffic.upPeak));
+      }
+    }
+  }
+
+  /**
+   * Compares a 30 floor building with a low zone and a high zone, each in
+   * shafts of its own, with a low zone and shuttles to a sky lobby at floor 15
+   * under the zone running from there, in shafts of their own and with each
+   * shuttle sharing its shaft with a car of the upper zone. The people carried
+   * per shaft are printed under each setup.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void shafts(int rate, int steps) {
+    final int floors = 30;
+    final int capacity = 12;
+    printHeader("Shared shafts, up-peak", floors, 6, capacity, rate, steps, "setup");
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), floors, 3.5,
+            1.0);
+    List<Zone> zoned = Arrays.asList(new Zone("low", 1, 14, 3), new Zone("high", 15, 29, 3));
+    List<Zone> sky = Arrays.asList(new Zone("low", 1, 14, 2),
+        Zone.express("shuttle", 15, 15, 2), Zone.skyLobby("upper", 15, 29, 2));
+    for (boolean kinematic : new boolean[] {false, true}) {
+      String mode = kinematic ? ", kinematic" : "";
+      for (int setup = 0; setup < 3; setup++) {
+        Building building = new Building(floors, 6, capacity);
+        building.setZones(setup == 0 ? zoned : sky);
+        int shafts = 6;
+        if (setup == 2) {
+          // each shuttle runs below a car of the upper zone
+          building.shareShaft(2, 4);
+          building.shareShaft(3, 5);
+          shafts = 4;
+        }
+        if (kinematic) {
+          building.setKinematics(kinematics);
+        }
+        String name = setup == 0 ? "zoned" : "sky";
+        BuildingStats stats = run(building, rate, steps, Traffic.upPeak);
+        printRow(name + ", " + shafts + " shafts" + mode, stats);
+        System.out.printf("%-28s %10d %10.1f%n", "  per shaft",
+                stats.getDeliveredCount() / shafts, stats.getHandlingCapacity() / shafts);
+      }
+    }
+  }
+
+  /**
+   * Compares 6 standard elevators of 12 in a 20 floor building with 4 of them
+   * and 2 freight cars of 20 with slow doors, and with fast passenger cars that
+   * pass 2 floors a step, under the built-in and the assignment dispatchers.
+   * One arrival in ten is a group of 10 people, such as a delivery.
+   * The stats of each car class are printed under each setup.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void fleet(int rate, int steps) {
+    final int floors = 20;
+    final int elevators = 6;
+    final int capacity = 12;
+    printHeader("Mixed fleets, up-peak with groups", floors, elevators, capacity, rate, steps,
+            "setup");
+    CarClass freight = new CarClass("freight", 20, 1, new DoorTiming(2, 2, 0.5, 4, false), null);
+    CarClass fast = new CarClass("fast", capacity, 2, DoorTiming.fixed(3), null);
+    String[] names = {"6 standard", "4 std + 2 freight", "4 fast + 2 freight"};
+    for (boolean assignment : new boolean[] {false, true}) {
+      for (int setup = 0; setup < names.length; setup++) {
+        Building building = new Building(floors, elevators, capacity);
+        for (int i = 0; i < elevators; i++) {
+          if (setup > 0 && i >= 4) {
+            building.setCarClass(i, freight);
+          } else if (setup == 2) {
+            building.setCarClass(i, fast);
+          }
+        }
+        if (assignment) {
+          building.setDispatcher(new AssignmentDispatcher());
+        }
+        Random random = new Random(SEED);
+        building.startElevatorSystem();
+        for (int step = 0; step < steps; step++) {
+          int arrivals = rate / 100 + (random.nextInt(100) < rate % 100 ? 1 : 0);
+          for (int i = 0; i < arrivals; i++) {
+            Request request = nextRequest(random, floors, Traffic.upPeak);
+            building.addRequest(random.nextInt(10) > 0 ? request
+                    : new RequestGroup(request.getStartFloor(), request.getEndFloor(), 10));
+          }
+          building.step();
+        }
+        printRow(names[setup] + (assignment ? ", assigned" : ""), building.getStats());
+        for (Map.Entry<String, BuildingStats> entry
+                : building.getStatsByCarClass().entrySet()) {
+          printRow("  " + entry.getKey() + " cars", entry.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Compares 6 elevators of 12 in a 20 floor building serving every floor with
+   * cars serving the lobby and every other floor, half the odd floors and half
+   * the even ones, and with the top 5 floors secured, served by 2 cars that
+   * serve no floor below them but the lobby, in interfloor traffic.
+   *
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   */
+  private static void access(int rate, int steps) {
+    final int floors = 20;
+    final int elevators = 6;
+    final int capacity = 12;
+    printHeader("Served floors, interfloor", floors, elevators, capacity, rate, steps,
+            "served floors");
+    BitSet odd = new BitSet();
+    BitSet even = new BitSet();
+    for (int floor = 0; floor < floors; floor++) {
+      (floor % 2 == 0 ? even : odd).set(floor);
+    }
+    odd.set(0);
+    BitSet lower = new BitSet();
+    lower.set(0, 15);
+    BitSet secured = new BitSet();
+    secured.set(0);
+    secured.set(15, floors);
+    String[] names = {"every floor", "every other floor", "secured top floors"};
+    for (int setup = 0; setup < names.length; setup++) {
+      Building building = new Building(floors, elevators, capacity);
+      for (int i = 0; i < elevators; i++) {
+        if (setup == 1) {
+          building.setServedFloors(i, i < elevators / 2 ? odd : even);
+        } else if (setup == 2) {
+          building.setServedFloors(i, i < elevators - 2 ? lower : secured);
+        }
+      }
+      printRow(names[setup], run(building, rate, steps, Traffic.interfloor));
+    }
+  }
+
+  /**
+   * Times the assignment dispatcher on elevators that all take requests, half at
+   * the lobby and half parked on the floors above, and groups between random floors.
+   *
+   * @param elevatorCount the number of elevators.
+   * @param callCount the number of groups.
+   */
+  private static void timeAssignment(int elevatorCount, int callCount) {
+    final int floors = 30;
+    Random random = new Random(SEED);
+    List<Elevator> elevators = new ArrayList<>();
+    for (int i = 0; i < elevatorCount; i++) {
+      Elevator elevator = new Elevator(floors, 20);
+      elevator.start();
+      if (i % 2 == 1) {
+        elevator.setParkWhenIdle(true);
+        elevator.park(1 + random.nextInt(floors - 1));
+        while (!elevator.isParked()) {
+          elevator.step();
+        }
+      }
+      elevators.add(elevator);
+    }
+    List<RequestGroup> calls = new ArrayList<>();
+    for (int i = 0; i < callCount; i++) {
+      Request request = nextRequest(random, floors, Traffic.interfloor);
+      calls.add(new RequestGroup(request.getStartFloor(), request.getEndFloor(),
+              1 + random.nextInt(3)));
+    }
+    Dispatcher dispatcher = new AssignmentDispatcher();
+    final int rounds = 2000;
+    int assigned = 0;
+    for (int i = 0; i < rounds; i++) {
+      assigned += dispatcher.assign(elevators, calls, 100).size();
+    }
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      assigned += dispatcher.assign(elevators, calls, 100).size();
+    }
+    long nanos = System.nanoTime() - begin;
+    System.out.printf("Assigning %d groups to %d elevators: %.3f ms a step,"
+            + " %d assignments a step.%n", callCount, elevatorCount, nanos / 1e6 / rounds,
+            assigned / (2 * rounds));
+  }
+
+  private static void printHeader(String title, int floors, int elevators, int capacity,
+                                  int rate, int steps, String setup) {
+    System.out.printf("%s: %d floors, %d elevators of %d, %d arrivals per 100 steps,"
+            + " %d steps%n", title, floors, elevators, capacity, rate, steps);
+    System.out.printf("%-28s %10s %10s %10s %10s %10s %10s %10s%n", setup, "delivered",
+            "capacity", "wait", "max wait", "journey", "travelled", "transfers");
+  }
+
+  private static void printRow(String setup, BuildingStats stats) {
+    System.out.printf("%-28s %10d %10.1f %10.1f %10d %10.1f %10d %10d%n", setup,
+            stats.getDeliveredCount(), stats.getHandlingCapacity(), stats.getAverageWaitTicks(),
+            stats.getMaxWaitTicks(), stats.getAverageJourneyTicks(), stats.getFloorsTravelled(),
+            stats.getTransferCount());
+  }
+
+  /**
+   * Runs a building under a kind of traffic.
+   *
+   * @param building the building to run.
+   * @param rate the arrivals per 100 steps.
+   * @param steps the number of steps to run.
+   * @param traffic the kind of traffic.
+   * @return the stats of the building at the end of the run.
+   */
+  static BuildingStats run(Building building, int rate, int steps, Traffic traffic) {
+    Random random = new Random(SEED);
+    int floors = building.getNumberOfFloors();
+    building.startElevatorSystem();
+    for (int step = 0; step < steps; step++) {
+      Traffic now = traffic;
+      int stepRate = rate;
+      if (traffic == Traffic.day) {
+        // a day in four parts: morning, lunch, evening, and a quiet night
+        int part = step * 4 / steps;
+        now = part == 0 ? Traffic.upPeak : part == 1 ? Traffic.lunch
+                : part == 2 ? Traffic.downPeak : Traffic.interfloor;
+        stepRate = part == 3 ? Math.max(1, rate / 20) : rate;
+      }
+      int arrivals = stepRate / 100 + (random.nextInt(100) < stepRate % 100 ? 1 : 0);
+      for (int i = 0; i < arrivals; i++) {
+        building.addRequest(nextRequest(random, floors, now));
+      }
+      building.step();
+    }
+    return building.getStats();
+  }
+
+  /**
+   * Returns the next person to arrive in a kind of traffic.
+   * Peaks have one person in ten going between floors.
+   */
+  private static Request nextRequest(Random random, int floors, Traffic traffic) {
+    int kind = random.nextInt(10);
+    boolean lobbyUp = traffic == Traffic.upPeak ? kind < 9 : traffic == Traffic.lunch && kind < 4;
+    boolean lobbyDown = traffic == Traffic.downPeak ? kind < 9
+            : traffic == Traffic.lunch && kind >= 4 && kind < 8;
+    int upper = 1 + random.nextInt(floors - 1);
+    if (lobbyUp) {
+      return new Request(0, upper);
+    }
+    if (lobbyDown) {
+      return new Request(upper, 0);
+    }
+    int start = random.nextInt(floors);
+    int end = start;
+    while (end == start) {
+      end = random.nextInt(floors);
+    }
+    return new Request(start, end);
+  }
+
+  /**
+   * The kinds of traffic the benchmark makes.
+   */
+  enum Traffic {
+    upPeak, downPeak, lunch, interfloor, day
+  }
+}
@@ -2,8 +2,13 @@ package main;
 
 import building.Building;
 import building.BuildingInterface;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Scanner;
 import scanerzus.Request;
+import view.ConsoleDashboard;
 
 /**
  * The driver for the elevator system.
@@ -11,9 +16,283 @@ import scanerzus.Request;
  * this is for testing the elevator system.
  * <p>
  * It provides a user interface to the elevator system.
+ * Run with --dashboard to draw the building in place in an ANSI terminal.
+ * Commands can also be read from script files with the load command.
  */
 public class MainConsole {
 
+  /**
+   * The most steps run-until-idle takes if no limit is given.
+   */
+  private static final int DEFAULT_IDLE_LIMIT = 100_000;
+
+  /**
+   * How deeply script files may load other script files.
+   */
+  private static final int MAX_LOAD_DEPTH = 8;
+
+  /**
+   * The dashboard, null if the status is printed in full.
+   */
+  private static ConsoleDashboard dashboard;
+
+  /**
+   * True if the status is not shown after commands, until the next print.
+   */
+  private static boolean quiet;
+
+  /**
+   * Shows the status of the elevator system.
+   *
+   * @param building the building to show.
+   */
+  private static void showStatus(BuildingInterface building) {
+    if (quiet) {
+      return;
+    }
+    printStatus(building);
+  }
+
+  /**
+   * Shows the status of the elevator system, even when quiet.
+   *
+   * @param building the building to show.
+   */
+  private static void printStatus(BuildingInterface building) {
+    if (dashboard != null) {
+      dashboard.render(building.getElevatorSystemStatus());
+    } else {
+      System.out.println(building.getElevatorSystemStatus());
+    }
+  }
+
+  /**
+   * Shows a message to the user.
+   *
+   * @param message the message to show.
+   */
+  private static void showMessage(String message) {
+    if (dashboard != null) {
+      dashboard.setMessage(message);
+    } else if (!message.isEmpty()) {
+      System.out.println(message);
+    }
+  }
+
+  /**
+   * Shows an error to the user.
+   * The dashboard is redrawn with the error, the plain console only prints it.
+   *
+   * @param building the building to show.
+   * @param message the error message.
+   */
+  private static void showError(BuildingInterface building, String message) {
+    showMessage(message);
+    if (dashboard != null) {
+      printStatus(building);
+    }
+  }
+
+  /**
+   * Runs one command line.
+   *
+   * @param building the building to run the command on.
+   * @param input the command line.
+   * @param scanner the scanner reading the user input.
+   * @param depth how many script files deep the command is.
+   * @return false if the command asks to quit, true otherwise.
+   */
+  private static boolean execute(BuildingInterface building, String input, Scanner scanner,
+                                 int depth) {
+    String trimmed = input.trim();
+    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+      return true;
+    }
+    String[] command = trimmed.split("\\s+");
+    try {
+      switch (command[0]) {
+        case "step":
+          int steps = command.length > 1 ? parseCount(command[1]) : 1;
+          for (int i = 0; i < steps; i++) {
+            building.step();
+          }
+          showStatus(building);
+          break;
+        case "run":
+          building.startElevatorSystem();
+          showStatus(building);
+          break;
+        case "stop":
+          building.stopElevatorSystem();
+          showStatus(building);
+          break;
+        case "run-until-idle":
+          int limit = command.length > 1 ? parseCount(command[1]) : DEFAULT_IDLE_LIMIT;
+          int taken = 0;
+          while (!building.isIdle() && taken < limit) {
+            building.step();
+            taken++;
+          }
+          showMessage(building.isIdle() ? "Idle after " + taken + " steps."
+                  : "Not idle after " + taken + " steps.");
+          showStatus(building);
+          break;
+        case "request":
+          expectArguments(command, 2);
+          building.addRequest(new Request(Integer.parseInt(command[1]),
+                  Integer.parseInt(command[2])));
+          showMessage("");
+          showStatus(building);
+          break;
+        case "burst":
+          expectArguments(command, 3);
+          int count = parseCount(command[1]);
+          int from = Integer.parseInt(command[2]);
+          int to = Integer.parseInt(command[3]);
+          for (int i = 0; i < count; i++) {
+            building.addRequest(new Request(from, to));
+          }
+          showMessage("");
+          showStatus(building);
+          break;
+        case "watch":
+          int stepsPerSecond = command.length > 1 ? parseCount(command[1]) : 5;
+          int watchSteps = command.length > 2 ? parseCount(command[2]) : 0;
+          String next = watch(building, Math.max(1, stepsPerSecond), watchSteps, scanner);
+          if (next != null) {
+            return execute(building, next, scanner, depth);
+          }
+          break;
+        case "load":
+          expectArguments(command, 1);
+          return load(building, command[1], scanner, depth);
+        case "quiet":
+          quiet = true;
+          break;
+        case "verbose":
+          quiet = false;
+          showStatus(building);
+          break;
+        case "print":
+          printStatus(building);
+          break;
+        case "q":
+          return false;
+        default:
+          showError(building, "Invalid input. Please try again.");
+          break;
+      }
+    } catch (NumberFormatException e) {
+      showError(building, "Invalid input. Please enter a number.");
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      showError(building, e.getMessage());
+    }
+    return true;
+  }
+
+  /**
+   * Runs the commands of a script file, one command per line.
+   * Blank lines and lines starting with # are skipped.
+   *
+   * @param building the building to run the commands on.
+   * @param fileName the name of the script file.
+   * @param scanner the scanner reading the user input.
+   * @param depth how many script files deep the load command is.
+   * @return false if the script asks to quit, true otherwise.
+   */
+  private static boolean load(BuildingInterface building, String fileName, Scanner scanner,
+                              int depth) {
+    if (depth >= MAX_LOAD_DEPTH) {
+      showError(building, "Scripts are loaded too deeply: " + fileName);
+      return true;
+    }
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(fileName));
+    } catch (IOException e) {
+      showError(building, "Cannot read script: " + fileName);
+      return true;
+    }
+    for (String line : lines) {
+      if (!execute(building, line, scanner, depth + 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a count that must not be negative.
+   *
+   * @param text the text of the count.
+   * @return the count.
+   * @throws NumberFormatException if the text is not a number.
+   * @throws IllegalArgumentException if the count is negative.
+   */
+  private static int parseCount(String text) {
+    int count = Integer.parseInt(text);
+    if (count < 0) {
+      throw new IllegalArgumentException("The count must not be negative.");
+    }
+    return count;
+  }
+
+  /**
+   * Checks that a command has the expected number of arguments.
+   *
+   * @param command the command and its arguments.
+   * @param arguments the expected number of arguments.
+   * @throws IllegalArgumentException if the number of arguments is different.
+   */
+  private static void expectArguments(String[] command, int arguments) {
+    if (command.length != arguments + 1) {
+      throw new IllegalArgumentException("Invalid input. Please try again.");
+    }
+  }
+
+  /**
+   * Steps the building continuously for a number of steps, or until the user
+   * enters a line. The line is read through the scanner of the commands on a
+   * thread of its own, so input typed ahead or piped in is not lost: a line
+   * that is not blank stops the watch and is run as the next command.
+   *
+   * @param building the building to run.
+   * @param stepsPerSecond the number of steps per second.
+   * @param steps the number of steps to watch, 0 to watch until a line is entered.
+   * @param scanner the scanner reading the user input.
+   * @return the line that stopped the watch, null if there is none.
+   */
+  private static String watch(BuildingInterface building, int stepsPerSecond, int steps,
+                              Scanner scanner) {
+    long delay = 1000L / stepsPerSecond;
+    String[] line = new String[1];
+    Thread reader = null;
+    if (steps > 0) {
+      showMessage("Watching " + steps + " steps at " + stepsPerSecond + " steps per second.");
+    } else {
+      showMessage("Watching at " + stepsPerSecond + " steps per second, press enter to stop.");
+      reader = new Thread(() -> line[0] = scanner.hasNextLine() ? scanner.nextLine() : null);
+      reader.setDaemon(true);
+      reader.start();
+    }
+    try {
+      for (int taken = 0; reader != null ? reader.isAlive() : taken < steps; taken++) {
+        building.step();
+        showStatus(building);
+        Thread.sleep(delay);
+      }
+      if (reader != null) {
+        // the line is only read once the reader is done with the scanner
+        reader.join();
+      }
+    } catch (InterruptedException e) {
+      showMessage(e.getMessage());
+      return null;
+    }
+    showMessage("");
+    return line[0] == null || line[0].trim().isEmpty() ? null : line[0];
+  }
+
   /**
    * The main method for the elevator system.
    * This method creates the elevator system and runs it.
@@ -21,6 +300,11 @@ public class MainConsole {
    * @param args the command line arguments
    */
   public static void main(String[] args) {
+    for (String arg : args) {
+      if (arg.equals("--dashboard")) {
+        dashboard = new ConsoleDashboard(System.out);
+      }
+    }
 
     // the number of floors, the number of elevators, and the number of people.
 
@@ -50,63 +334,30 @@ public class MainConsole {
     // set up the building
     BuildingInterface building = new Building(numFloors, numElevators, numPeople);
 
-    // print the status of the elevator system
-    System.out.println(building.getElevatorSystemStatus());
-
     // print input guide
     String inputGuide = "Enter a command to interact with the elevator system.\n"
-            + "step: step\n"
+            + "step [n]: step once, or n times\n"
             + "request start end: request from start floor to end floor\n"
+            + "burst n start end: make n requests from start floor to end floor\n"
             + "run: run the elevator system\n"
             + "stop: stop the elevator system\n"
+            + "run-until-idle [max steps]: step until nothing is left to do\n"
+            + "watch [steps per second] [steps]: step continuously until enter is pressed,"
+            + " or for a number of steps\n"
+            + "load file: run the commands in a script file\n"
+            + "quiet / verbose: hide or show the status after commands\n"
+            + "print: show the status, even when quiet\n"
             + "q: quit\n";
     System.out.println(inputGuide);
 
+    // print the status of the elevator system
+    showStatus(building);
+
     // get user input
     while (scanner.hasNext()) {
-      String input = scanner.nextLine();
-      switch (input) {
-        case "step":
-          building.step();
-          System.out.println(building.getElevatorSystemStatus());
-          break;
-        case "run":
-          building.startElevatorSystem();
-          System.out.println(building.getElevatorSystemStatus());
-          break;
-        case "stop":
-          building.stopElevatorSystem();
-          System.out.println(building.getElevatorSystemStatus());
-          break;
-        case "q":
-          System.exit(0);
-          break;
-        default:
-          String[] request = input.split(" ");
-          if (request.length == 3 && request[0].equals("request")) {
-            try {
-              int start = Integer.parseInt(request[1]);
-              int end = Integer.parseInt(request[2]);
-              building.addRequest(new Request(start, end));
-              System.out.println(building.getElevatorSystemStatus());
-            } catch (NumberFormatException e) {
-              System.out.println("Invalid input. Please enter a number.");
-            } catch (IllegalArgumentException e) {
-              System.out.println(e.getMessage());
-            }
-          } else {
-            System.out.println("Invalid input. Please try again.");
-          }
-          break;
+      if (!execute(building, scanner.nextLine(), scanner, 0)) {
+        System.exit(0);
       }
-
     }
-
-
-
-
-
   }
-
-
-}
\ No newline at end of file
+}
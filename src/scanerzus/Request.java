@@ -45,6 +45,16 @@ public class Request implements RequestInterface {
     return endFloor;
   }
 
+  /**
+   * Gets the number of people travelling on the request.
+   * A ticket from a scanner is always for one person.
+   *
+   * @return the number of people travelling on the request.
+   */
+  public int getPassengerCount() {
+    return 1;
+  }
+
   /**
    * Returns a string representation of the request.
    * This is a string of the form:
@@ -19,4 +19,11 @@ public interface RequestInterface {
    */
   int getEndFloor();
 
+  /**
+   * This is the number of people travelling on the request.
+   *
+   * @return the number of people, 1 for a single ticket.
+   */
+  int getPassengerCount();
+
 }
@@ -0,0 +1,250 @@
+package view;
+
+import building.enums.Direction;
+import elevator.ElevatorReport;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+
+/**
+ * This class is a custom painted view of the building.
+ * Every elevator is drawn as a car in its own shaft, with its stop markers,
+ * over two floors for a double-deck car,
+ * and every floor shows bars for the depth of its up and down queues.
+ * Updates only repaint the regions that changed and painting is clipped
+ * to the visible part of the canvas.
+ */
+public class BuildingCanvas extends JComponent implements Scrollable {
+  private static final long serialVersionUID = 1L;
+  private static final int FLOOR_HEIGHT = 20;
+  private static final int SHAFT_WIDTH = 22;
+  private static final int LABEL_WIDTH = 40;
+  private static final int BAR_WIDTH = 60;
+  private static final int GUTTER_WIDTH = LABEL_WIDTH + BAR_WIDTH;
+  private static final int BAR_UNIT = 3;
+  private static final Color FLOOR_LINE_COLOR = new Color(225, 225, 225);
+  private static final Color SHAFT_COLOR = new Color(240, 240, 240);
+  private static final Color CAR_COLOR = new Color(70, 90, 120);
+  private static final Color OUT_OF_SERVICE_COLOR = new Color(170, 60, 60);
+  private static final Color DOOR_COLOR = new Color(250, 230, 150);
+  private static final Color STOP_COLOR = new Color(230, 140, 30);
+  private static final Color UP_QUEUE_COLOR = new Color(60, 160, 80);
+  private static final Color DOWN_QUEUE_COLOR = new Color(60, 110, 200);
+  private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 11);
+
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final String[] floorLabels;
+  private final int[] carFloors;
+  private final int[] carDecks;
+  private final Direction[] carDirections;
+  private final boolean[] carDoorsClosed;
+  private final boolean[] carsOutOfService;
+  private final boolean[][] carStops;
+  private final int[] upQueueDepths;
+  private final int[] downQueueDepths;
+
+  /**
+   * The constructor for the building canvas.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   */
+  public BuildingCanvas(int numberOfFloors, int numberOfElevators) {
+    this.numberOfFloors = numberOfFloors;
+    this.numberOfElevators = numberOfElevators;
+    this.floorLabels = new String[numberOfFloors];
+    for (int i = 0; i < numberOfFloors; i++) {
+      this.floorLabels[i] = "F " + i;
+    }
+    // -1 means the car has not been reported yet
+    this.carFloors = new int[numberOfElevators];
+    this.carDecks = new int[numberOfElevators];
+    this.carDirections = new Direction[numberOfElevators];
+    this.carDoorsClosed = new boolean[numberOfElevators];
+    this.carsOutOfService = new boolean[numberOfElevators];
+    this.carStops = new boolean[numberOfElevators][numberOfFloors];
+    for (int i = 0; i < numberOfElevators; i++) {
+      this.carFloors[i] = -1;
+      this.carDecks[i] = 1;
+      this.carDirections[i] = Direction.STOPPED;
+      this.carDoorsClosed[i] = true;
+    }
+    this.upQueueDepths = new int[numberOfFloors];
+    this.downQueueDepths = new int[numberOfFloors];
+    this.setOpaque(true);
+    this.setBackground(Color.WHITE);
+    this.setPreferredSize(new Dimension(GUTTER_WIDTH + numberOfElevators * SHAFT_WIDTH,
+            numberOfFloors * FLOOR_HEIGHT));
+  }
+
+  /**
+   * Updates a car from its report and repaints the cells that changed.
+   *
+   * @param report the report of the elevator.
+   * @param elevatorId the id number of the elevator.
+   */
+  public void updateElevator(ElevatorReport report, int elevatorId) {
+    int oldFloor = this.carFloors[elevatorId];
+    int newFloor = report.getCurrentFloor();
+    int oldDecks = this.carDecks[elevatorId];
+    if (oldFloor != newFloor
+            || oldDecks != report.getDeckCount()
+            || this.carDirections[elevatorId] != report.getDirection()
+            || this.carDoorsClosed[elevatorId] != report.isDoorClosed()
+            || this.carsOutOfService[elevatorId] != report.isOutOfService()) {
+      this.carFloors[elevatorId] = newFloor;
+      this.carDecks[elevatorId] = report.getDeckCount();
+      this.carDirections[elevatorId] = report.getDirection();
+      this.carDoorsClosed[elevatorId] = report.isDoorClosed();
+      this.carsOutOfService[elevatorId] = report.isOutOfService();
+      if (oldFloor >= 0) {
+        this.repaintCar(oldFloor, oldDecks, elevatorId);
+      }
+      this.repaintCar(newFloor, report.getDeckCount(), elevatorId);
+    }
+    boolean[] stops = this.carStops[elevatorId];
+    boolean[] newStops = report.getFloorRequests();
+    for (int floor = 0; floor < this.numberOfFloors && floor < newStops.length; floor++) {
+      if (stops[floor] != newStops[floor]) {
+        stops[floor] = newStops[floor];
+        this.repaint(this.cellBounds(floor, elevatorId));
+      }
+    }
+  }
+
+  /**
+   * Updates the queue depth bars and repaints the floors that changed.
+   *
+   * @param upDepths the number of people waiting to go up on every floor.
+   * @param downDepths the number of people waiting to go down on every floor.
+   */
+  public void updateQueueDepths(int[] upDepths, int[] downDepths) {
+    for (int floor = 0; floor < this.numberOfFloors; floor++) {
+      if (this.upQueueDepths[floor] != upDepths[floor]
+              || this.downQueueDepths[floor] != downDepths[floor]) {
+        this.upQueueDepths[floor] = upDepths[floor];
+        this.downQueueDepths[floor] = downDepths[floor];
+        this.repaint(LABEL_WIDTH, this.floorTop(floor), BAR_WIDTH, FLOOR_HEIGHT);
+      }
+    }
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+    }
+    g.setColor(this.getBackground());
+    g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+    // only the floors and shafts inside the clip are painted
+    int topRow = Math.max(0, clip.y / FLOOR_HEIGHT);
+    int bottomRow = Math.min(this.numberOfFloors - 1, (clip.y + clip.height) / FLOOR_HEIGHT);
+    int firstShaft = Math.max(0, (clip.x - GUTTER_WIDTH) / SHAFT_WIDTH);
+    int lastShaft = Math.min(this.numberOfElevators - 1,
+            (clip.x + clip.width - GUTTER_WIDTH) / SHAFT_WIDTH);
+
+    g.setFont(LABEL_FONT);
+    for (int row = topRow; row <= bottomRow; row++) {
+      int floor = this.numberOfFloors - 1 - row;
+      int top = row * FLOOR_HEIGHT;
+      if (clip.x < GUTTER_WIDTH) {
+        this.paintFloorGutter(g, floor, top);
+      }
+      for (int shaft = firstShaft; shaft <= lastShaft; shaft++) {
+        this.paintShaftCell(g, floor, shaft, top);
+      }
+      g.setColor(FLOOR_LINE_COLOR);
+      g.drawLine(clip.x, top + FLOOR_HEIGHT - 1, clip.x + clip.width, top + FLOOR_HEIGHT - 1);
+    }
+  }
+
+  /**
+   * Paints the label and the queue depth bars of a floor.
+   */
+  private void paintFloorGutter(Graphics g, int floor, int top) {
+    g.setColor(Color.DARK_GRAY);
+    g.drawString(this.floorLabels[floor], 4, top + FLOOR_HEIGHT - 6);
+    int halfHeight = (FLOOR_HEIGHT - 4) / 2;
+    int upWidth = Math.min(BAR_WIDTH - 4, this.upQueueDepths[floor] * BAR_UNIT);
+    int downWidth = Math.min(BAR_WIDTH - 4, this.downQueueDepths[floor] * BAR_UNIT);
+    g.setColor(UP_QUEUE_COLOR);
+    g.fillRect(LABEL_WIDTH, top + 2, upWidth, halfHeight);
+    g.setColor(DOWN_QUEUE_COLOR);
+    g.fillRect(LABEL_WIDTH, top + 2 + halfHeight, downWidth, halfHeight);
+  }
+
+  /**
+   * Paints one floor of one shaft, with the car if it is there.
+   */
+  private void paintShaftCell(Graphics g, int floor, int shaft, int top) {
+    int left = GUTTER_WIDTH + shaft * SHAFT_WIDTH;
+    g.setColor(SHAFT_COLOR);
+    g.fillRect(left + 1, top, SHAFT_WIDTH - 2, FLOOR_HEIGHT);
+    int deck = floor - this.carFloors[shaft];
+    if (this.carFloors[shaft] >= 0 && deck >= 0 && deck < this.carDecks[shaft]) {
+      g.setColor(this.carsOutOfService[shaft] ? OUT_OF_SERVICE_COLOR : CAR_COLOR);
+      g.fillRect(left + 3, top + 2, SHAFT_WIDTH - 6, FLOOR_HEIGHT - 4);
+      if (!this.carDoorsClosed[shaft]) {
+        // an open door is drawn as a gap in the middle of the car
+        g.setColor(DOOR_COLOR);
+        g.fillRect(left + SHAFT_WIDTH / 2 - 3, top + 3, 6, FLOOR_HEIGHT - 6);
+      } else if (this.carDirections[shaft] != Direction.STOPPED) {
+        g.setColor(Color.WHITE);
+        g.drawString(this.carDirections[shaft].toString(), left + SHAFT_WIDTH / 2 - 3,
+                top + FLOOR_HEIGHT - 6);
+      }
+    } else if (this.carStops[shaft][floor]) {
+      g.setColor(STOP_COLOR);
+      g.fillOval(left + SHAFT_WIDTH / 2 - 3, top + FLOOR_HEIGHT / 2 - 3, 6, 6);
+    }
+  }
+
+  private void repaintCar(int floor, int decks, int shaft) {
+    for (int deck = floor; deck < floor + decks && deck < this.numberOfFloors; deck++) {
+      this.repaint(this.cellBounds(deck, shaft));
+    }
+  }
+
+  private Rectangle cellBounds(int floor, int shaft) {
+    return new Rectangle(GUTTER_WIDTH + shaft * SHAFT_WIDTH, this.floorTop(floor),
+            SHAFT_WIDTH, FLOOR_HEIGHT);
+  }
+
+  private int floorTop(int floor) {
+    return (this.numberOfFloors - 1 - floor) * FLOOR_HEIGHT;
+  }
+
+  @Override
+  public Dimension getPreferredScrollableViewportSize() {
+    Dimension size = this.getPreferredSize();
+    return new Dimension(Math.min(size.width, 900), Math.min(size.height, 500));
+  }
+
+  @Override
+  public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+    return orientation == SwingConstants.VERTICAL ? FLOOR_HEIGHT : SHAFT_WIDTH;
+  }
+
+  @Override
+  public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+    return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    return false;
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportHeight() {
+    return false;
+  }
+}
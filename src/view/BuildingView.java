@@ -45,6 +45,14 @@ public interface BuildingView {
    */
   void updateElevator(ElevatorReport report, int elevatorId);
 
+  /**
+   * Updates the depth of the queues on every floor.
+   *
+   * @param upDepths the number of people waiting to go up on every floor.
+   * @param downDepths the number of people waiting to go down on every floor.
+   */
+  void updateQueueDepths(int[] upDepths, int[] downDepths);
+
   /**
    * Updates the elevator in the building table.
    *
@@ -89,6 +97,20 @@ public interface BuildingView {
    */
   String getBuildingElevatorCapacity();
 
+  /**
+   * Gets the selected time warp.
+   *
+   * @return the selected time warp, for example "10x".
+   */
+  String getTimeWarp();
+
+  /**
+   * Shows whether the building is running on its own.
+   *
+   * @param running true if the building is running on its own.
+   */
+  void setAutoRunning(boolean running);
+
   /**
    * Sets the text field to default.
    */
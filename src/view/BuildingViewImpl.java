@@ -6,10 +6,12 @@ import java.awt.Color;
 import java.awt.GridLayout;
 import java.awt.event.ActionListener;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
@@ -22,6 +24,8 @@ public class BuildingViewImpl implements BuildingView {
   private final int numberOfElevators;
   private final JFrame frame;
   private final JTable table;
+  private final ElevatorTableModel tableModel;
+  private final BuildingCanvas canvas;
   private final JLabel statusLabel;
   private final JLabel errorMessageLabel;
   private final JLabel upRequestLabel;
@@ -34,6 +38,8 @@ public class BuildingViewImpl implements BuildingView {
   private final JButton startButton;
   private final JButton stopButton;
   private final JButton stepButton;
+  private final JButton runButton;
+  private final JComboBox<String> timeWarpBox;
   private final JButton submitButton;
   private final JButton changeBuildingButton;
 
@@ -57,20 +63,19 @@ public class BuildingViewImpl implements BuildingView {
     frame.add(statusLabel, BorderLayout.NORTH);
 
     // Table for the building
-    String[][] data = new String[this.numberOfFloors][this.numberOfElevators + 1];
-    for (int i = 0; i < this.numberOfFloors; i++) {
-      data[i][0] = "Floor " + (this.numberOfFloors - 1 - i);
-    }
-    String[] columnNames = new String[this.numberOfElevators + 1];
-    columnNames[0] = "";
-    for (int i = 1; i <= numberOfElevators; i++) {
-      columnNames[i] = "Elevator " + i;
-    }
-    table = new JTable(data, columnNames);
+    tableModel = new ElevatorTableModel(this.numberOfFloors, this.numberOfElevators);
+    table = new JTable(tableModel);
     table.setGridColor(Color.BLACK);
     table.setRowHeight(30);
     JScrollPane sp = new JScrollPane(table);
-    frame.add(sp, BorderLayout.CENTER);
+
+    // Canvas for the building, the default for large buildings
+    canvas = new BuildingCanvas(this.numberOfFloors, this.numberOfElevators);
+    JScrollPane canvasScrollPane = new JScrollPane(canvas);
+    JTabbedPane buildingTabs = new JTabbedPane();
+    buildingTabs.addTab("Shafts", canvasScrollPane);
+    buildingTabs.addTab("Table", sp);
+    frame.add(buildingTabs, BorderLayout.CENTER);
 
     // Buttons for the building
     startButton = new JButton("Start");
@@ -79,6 +84,10 @@ public class BuildingViewImpl implements BuildingView {
     stopButton.setActionCommand("Stop Building");
     stepButton = new JButton("Step");
     stepButton.setActionCommand("Step Building");
+    runButton = new JButton("Run");
+    runButton.setActionCommand("Run Building");
+    timeWarpBox = new JComboBox<>(new String[] {"1x", "10x", "100x", "Unthrottled"});
+    timeWarpBox.setActionCommand("Change Time Warp");
 
     // Request list display
     JPanel requestDisplayPanel = new JPanel(new BorderLayout());
@@ -94,6 +103,8 @@ public class BuildingViewImpl implements BuildingView {
     controlPanel.add(startButton);
     controlPanel.add(stopButton);
     controlPanel.add(stepButton);
+    controlPanel.add(runButton);
+    controlPanel.add(timeWarpBox);
     JPanel userPanel = new JPanel(new BorderLayout());
     userPanel.add(requestDisplayPanel, BorderLayout.NORTH);
     userPanel.add(errorMessageLabel, BorderLayout.CENTER);
@@ -137,6 +148,8 @@ public class BuildingViewImpl implements BuildingView {
     this.startButton.addActionListener(clicks);
     this.stopButton.addActionListener(clicks);
     this.stepButton.addActionListener(clicks);
+    this.runButton.addActionListener(clicks);
+    this.timeWarpBox.addActionListener(clicks);
     this.submitButton.addActionListener(clicks);
     this.changeBuildingButton.addActionListener(clicks);
   }
@@ -159,39 +172,18 @@ public class BuildingViewImpl implements BuildingView {
 
   @Override
   public void updateElevator(ElevatorReport report, int elevatorId) {
-    StringBuilder status = new StringBuilder();
-    status.append(report.getDirection().toString());
-    if (report.getFloorRequests() != null) {
-      for (int i = 0; i < report.getFloorRequests().length; i++) {
-        if (report.getFloorRequests()[i]) {
-          status.append(i).append(" ");
-        }
-      }
-    }
-    if (!report.isDoorClosed()) {
-      status.append("\n" + "Door Open ");
-      status.append(report.getDoorOpenTimer());
-    }
-    if (report.getEndWaitTimer() > 0) {
-      status.append("\n" + "Wait: ").append(report.getEndWaitTimer());
-    }
-    if (report.isOutOfService()) {
-      status.setLength(0);
-      status.append("Out of Service");
-    }
-    int currentFloor = report.getCurrentFloor();
-    updateElevatorInBuildingTable(currentFloor, elevatorId, status.toString());
+    this.tableModel.updateElevator(report, elevatorId);
+    this.canvas.updateElevator(report, elevatorId);
+  }
+
+  @Override
+  public void updateQueueDepths(int[] upDepths, int[] downDepths) {
+    this.canvas.updateQueueDepths(upDepths, downDepths);
   }
 
   @Override
   public void updateElevatorInBuildingTable(int floor, int elevatorId, String status) {
-    for (int i = 0; i < this.numberOfFloors; i++) {
-      if (i == (this.numberOfFloors - 1 - floor)) {
-        table.setValueAt(status, i, elevatorId + 1);
-      } else {
-        table.setValueAt("", i, elevatorId + 1);
-      }
-    }
+    this.tableModel.moveElevator(elevatorId, floor, status);
   }
 
   @Override
@@ -219,6 +211,22 @@ public class BuildingViewImpl implements BuildingView {
     return buildingElevatorCapacityField.getText();
   }
 
+  @Override
+  public String getTimeWarp() {
+    return (String) timeWarpBox.getSelectedItem();
+  }
+
+  @Override
+  public void setAutoRunning(boolean running) {
+    if (running) {
+      runButton.setText("Pause");
+      runButton.setActionCommand("Pause Building");
+    } else {
+      runButton.setText("Run");
+      runButton.setActionCommand("Run Building");
+    }
+  }
+
   @Override
   public void setTextFieldDefault() {
     fromFloorField.setText("");
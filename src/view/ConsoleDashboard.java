@@ -0,0 +1,167 @@
+package view;
+
+import building.BuildingReport;
+import elevator.ElevatorReport;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * This class draws the building as a dashboard in an ANSI terminal.
+ * The dashboard stays in place at the top of the screen and only the lines
+ * that changed since the last render are redrawn.
+ * All formatting goes through builders that are reused between renders.
+ */
+public class ConsoleDashboard {
+  private static final String ESC = "\u001b[";
+
+  private final PrintStream out;
+  private final StringBuilder line;
+  private final StringBuilder frame;
+  private final List<StringBuilder> shownLines;
+  private String message;
+  private boolean cleared;
+
+  /**
+   * The constructor for the console dashboard.
+   *
+   * @param out the terminal to draw on.
+   */
+  public ConsoleDashboard(PrintStream out) {
+    this.out = out;
+    this.line = new StringBuilder(256);
+    this.frame = new StringBuilder(4096);
+    this.shownLines = new ArrayList<>();
+    this.message = "";
+    this.cleared = false;
+  }
+
+  /**
+   * Sets the message shown under the dashboard, for example an error.
+   *
+   * @param message the message to show, empty for none.
+   */
+  public void setMessage(String message) {
+    this.message = message == null ? "" : message;
+  }
+
+  /**
+   * Forces the next render to redraw the whole screen.
+   */
+  public void invalidate() {
+    this.cleared = false;
+    this.shownLines.clear();
+  }
+
+  /**
+   * Renders the building, redrawing only the lines that changed.
+   * The cursor is left on the prompt line under the dashboard.
+   *
+   * @param report the report of the building.
+   */
+  public void render(BuildingReport report) {
+    this.frame.setLength(0);
+    if (!this.cleared) {
+      this.frame.append(ESC).append("2J");
+      this.cleared = true;
+    }
+    int row = 0;
+
+    this.line.setLength(0);
+    this.line.append("Elevator System: ").append(report.getSystemStatus())
+        .append("   floors ").append(report.getNumFloors())
+        .append("   elevators ").append(report.getNumElevators())
+        .append("   capacity ").append(report.getElevatorCapacity());
+    this.emit(row++);
+
+    this.line.setLength(0);
+    this.line.append("Up requests:   ");
+    this.appendRequests(report.getUpRequests());
+    this.emit(row++);
+
+    this.line.setLength(0);
+    this.line.append("Down requests: ");
+    this.appendRequests(report.getDownRequests());
+    this.emit(row++);
+
+    for (ElevatorReport elevatorReport : report.getElevatorReports()) {
+      this.line.setLength(0);
+      this.line.append("Elevator No.").append(elevatorReport.getElevatorId()).append(": ");
+      elevatorReport.appendTo(this.line);
+      this.emit(row++);
+    }
+
+    this.line.setLength(0);
+    this.line.append(this.message);
+    this.emit(row++);
+
+    // lines left over from a larger dashboard are blanked
+    while (this.shownLines.size() > row) {
+      this.line.setLength(0);
+      this.emit(this.shownLines.size() - 1);
+      this.shownLines.remove(this.shownLines.size() - 1);
+    }
+
+    // the prompt line is always cleared for the next command
+    this.moveTo(row).append("> ").append(ESC).append('K');
+    this.out.print(this.frame);
+    this.out.flush();
+  }
+
+  /**
+   * Appends a list of requests to the line.
+   *
+   * @param requests the requests to append.
+   */
+  private void appendRequests(List<Request> requests) {
+    if (requests.isEmpty()) {
+      this.line.append("None");
+      return;
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      if (i > 0) {
+        this.line.append(", ");
+      }
+      Request request = requests.get(i);
+      this.line.append(request.getStartFloor()).append("->").append(request.getEndFloor());
+      if (request.getPassengerCount() > 1) {
+        this.line.append(" x").append(request.getPassengerCount());
+      }
+    }
+  }
+
+  /**
+   * Draws the current line at a row if it differs from what is shown there.
+   *
+   * @param row the row of the dashboard, starting at 0.
+   */
+  private void emit(int row) {
+    while (this.shownLines.size() <= row) {
+      this.shownLines.add(new StringBuilder());
+    }
+    StringBuilder shown = this.shownLines.get(row);
+    if (sameContent(shown, this.line)) {
+      return;
+    }
+    shown.setLength(0);
+    shown.append(this.line);
+    this.moveTo(row).append(this.line).append(ESC).append('K');
+  }
+
+  private StringBuilder moveTo(int row) {
+    return this.frame.append(ESC).append(row + 1).append(";1H");
+  }
+
+  private static boolean sameContent(CharSequence a, CharSequence b) {
+    if (a.length() != b.length()) {
+      return false;
+    }
+    for (int i = 0; i < a.length(); i++) {
+      if (a.charAt(i) != b.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
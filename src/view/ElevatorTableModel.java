@@ -0,0 +1,155 @@
+package view;
+
+import elevator.ElevatorReport;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * This class is the table model for the building table.
+ * It keeps the floor and status text of every elevator and only fires
+ * cell events for the cells that changed since the last update.
+ */
+public class ElevatorTableModel extends AbstractTableModel {
+  private static final long serialVersionUID = 1L;
+
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final String[] floorLabels;
+  private final String[] columnNames;
+  private final int[] elevatorFloors;
+  private final String[] elevatorStatuses;
+  private final ElevatorReport[] lastReports;
+
+  /**
+   * The constructor for the table model.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   */
+  public ElevatorTableModel(int numberOfFloors, int numberOfElevators) {
+    this.numberOfFloors = numberOfFloors;
+    this.numberOfElevators = numberOfElevators;
+    this.floorLabels = new String[numberOfFloors];
+    for (int i = 0; i < numberOfFloors; i++) {
+      this.floorLabels[i] = "Floor " + (numberOfFloors - 1 - i);
+    }
+    this.columnNames = new String[numberOfElevators + 1];
+    this.columnNames[0] = "";
+    for (int i = 1; i <= numberOfElevators; i++) {
+      this.columnNames[i] = "Elevator " + i;
+    }
+    // -1 means the elevator has not been drawn yet
+    this.elevatorFloors = new int[numberOfElevators];
+    this.elevatorStatuses = new String[numberOfElevators];
+    for (int i = 0; i < numberOfElevators; i++) {
+      this.elevatorFloors[i] = -1;
+      this.elevatorStatuses[i] = "";
+    }
+    this.lastReports = new ElevatorReport[numberOfElevators];
+  }
+
+  @Override
+  public int getRowCount() {
+    return this.numberOfFloors;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return this.numberOfElevators + 1;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return this.columnNames[column];
+  }
+
+  @Override
+  public Object getValueAt(int rowIndex, int columnIndex) {
+    if (columnIndex == 0) {
+      return this.floorLabels[rowIndex];
+    }
+    int elevatorId = columnIndex - 1;
+    if (this.elevatorFloors[elevatorId] == this.floorOfRow(rowIndex)) {
+      return this.elevatorStatuses[elevatorId];
+    }
+    return "";
+  }
+
+  @Override
+  public boolean isCellEditable(int rowIndex, int columnIndex) {
+    return false;
+  }
+
+  /**
+   * Updates an elevator from its report.
+   * Nothing is rebuilt or fired if the report is the same as the last one.
+   *
+   * @param report the report of the elevator.
+   * @param elevatorId the id number of the elevator.
+   */
+  public void updateElevator(ElevatorReport report, int elevatorId) {
+    if (report.equals(this.lastReports[elevatorId])) {
+      return;
+    }
+    this.lastReports[elevatorId] = report;
+    this.moveElevator(elevatorId, report.getCurrentFloor(), statusText(report));
+  }
+
+  /**
+   * Moves an elevator to a floor with a new status.
+   * Fires an update for the old cell and the new cell only.
+   *
+   * @param elevatorId the id number of the elevator.
+   * @param floor the new floor of the elevator.
+   * @param status the new status of the elevator.
+   */
+  public void moveElevator(int elevatorId, int floor, String status) {
+    int oldFloor = this.elevatorFloors[elevatorId];
+    if (oldFloor == floor && this.elevatorStatuses[elevatorId].equals(status)) {
+      return;
+    }
+    this.elevatorFloors[elevatorId] = floor;
+    this.elevatorStatuses[elevatorId] = status;
+    int column = elevatorId + 1;
+    if (oldFloor != floor && oldFloor >= 0) {
+      this.fireTableCellUpdated(this.rowOfFloor(oldFloor), column);
+    }
+    this.fireTableCellUpdated(this.rowOfFloor(floor), column);
+  }
+
+  /**
+   * Builds the status text of an elevator.
+   *
+   * @param report the report of the elevator.
+   * @return the status text of the elevator.
+   */
+  static String statusText(ElevatorReport report) {
+    if (report.isOutOfService()) {
+      return "Out of Service";
+    }
+    StringBuilder status = new StringBuilder();
+    status.append(report.getDirection().toString());
+    if (report.getFloorRequests() != null) {
+      for (int i = 0; i < report.getFloorRequests().length; i++) {
+        if (report.getFloorRequests()[i]) {
+          status.append(i).append(" ");
+        }
+      }
+    }
+    if (!report.isDoorClosed()) {
+      status.append("\n" + "Door Open ");
+      status.append(report.getDoorOpenTimer());
+    }
+    if (report.getEndWaitTimer() > 0) {
+      status.append("\n" + "Wait: ").append(report.getEndWaitTimer());
+    }
+    return status.toString();
+  }
+
+  private int rowOfFloor(int floor) {
+    return this.numberOfFloors - 1 - floor;
+  }
+
+  private int floorOfRow(int row) {
+    return this.numberOfFloors - 1 - row;
+  }
+}
@@ -0,0 +1,139 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+
+import elevator.CarClass;
+import elevator.DoorTiming;
+import elevator.Elevator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the AssignmentDispatcher class.
+ */
+public class AssignmentDispatcherTest {
+  private Elevator lobby;
+  private Elevator parked;
+
+  /**
+   * Set up an elevator at the lobby and one parked at floor 6.
+   */
+  @Before
+  public void setUp() {
+    lobby = new Elevator(10, 5);
+    lobby.start();
+    parked = new Elevator(10, 5);
+    parked.start();
+    parked.setParkWhenIdle(true);
+    parked.park(6);
+    while (!parked.isParked()) {
+      parked.step();
+    }
+  }
+
+  /**
+   * Test the people given to an elevator never exceed its room, splitting a group.
+   */
+  @Test
+  public void testAssignmentHonorsCapacity() {
+    List<RequestGroup> calls = Arrays.asList(new RequestGroup(0, 3, 3),
+        new RequestGroup(0, 4, 3));
+    List<CallAssignment> assignments = new AssignmentDispatcher()
+        .assign(Arrays.asList(lobby), calls, 0);
+    int given = 0;
+    for (CallAssignment assignment : assignments) {
+      given += assignment.getPassengerCount();
+    }
+    assertEquals(5, given);
+    assertEquals(2, assignments.size());
+  }
+
+  /**
+   * Test each group goes to the elevator that can reach it, and a parked elevator
+   * only takes groups going one way.
+   */
+  @Test
+  public void testAssignmentKeepsElevatorsOnTheirWay() {
+    List<RequestGroup> calls = Arrays.asList(new RequestGroup(7, 9, 1),
+        new RequestGroup(4, 2, 1), new RequestGroup(1, 8, 1));
+    List<CallAssignment> assignments = new AssignmentDispatcher()
+        .assign(Arrays.asList(lobby, parked), calls, 0);
+    assertEquals(2, assignments.size());
+    for (CallAssignment assignment : assignments) {
+      if (assignment.getCallIndex() == 2) {
+        assertEquals(0, assignment.getElevatorIndex());
+      } else {
+        assertEquals(1, assignment.getElevatorIndex());
+      }
+    }
+  }
+
+  /**
+   * Test an overdue group is given out before a nearer one that fills the elevator.
+   */
+  @Test
+  public void testOverdueGroupGoesFirst() {
+    RequestGroup near = new RequestGroup(0, 3, 5);
+    RequestGroup far = new RequestGroup(4, 9, 1);
+    far.markOverdue();
+    List<CallAssignment> assignments = new AssignmentDispatcher(0)
+        .assign(Arrays.asList(lobby), Arrays.asList(near, far), 0);
+    assertEquals(1, assignments.get(0).getCallIndex());
+    assertEquals(4, assignments.get(1).getPassengerCount());
+  }
+
+  /**
+   * Test the wait weight cannot be negative.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWaitWeight() {
+    new AssignmentDispatcher(-1);
+  }
+
+  /**
+   * Test a large group goes whole to the large car and a small one to the small car.
+   */
+  @Test
+  public void testLargeGroupGoesToLargeCar() {
+    Elevator large = new Elevator(10, 5);
+    large.setCarClass(new CarClass("freight", 12, 1, DoorTiming.fixed(3), null));
+    large.start();
+    List<RequestGroup> calls = Arrays.asList(new RequestGroup(0, 3, 2),
+        new RequestGroup(0, 4, 10));
+    List<CallAssignment> assignments = new AssignmentDispatcher(0)
+        .assign(Arrays.asList(lobby, large), calls, 0);
+    assertEquals(2, assignments.size());
+    for (CallAssignment assignment : assignments) {
+      assertEquals(assignment.getCallIndex(), assignment.getElevatorIndex());
+    }
+  }
+
+  /**
+   * Test one dispatcher sizes its working arrays for a wide problem after a narrow one.
+   */
+  @Test
+  public void testDispatcherReusedForWiderProblem() {
+    AssignmentDispatcher dispatcher = new AssignmentDispatcher();
+    List<Elevator> many = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      Elevator elevator = new Elevator(10, 5);
+      elevator.start();
+      many.add(elevator);
+    }
+    assertEquals(1, dispatcher.assign(many,
+        Arrays.asList(new RequestGroup(0, 5, 1)), 0).size());
+    List<Elevator> few = new ArrayList<>(many.subList(0, 3));
+    List<RequestGroup> calls = new ArrayList<>();
+    for (int i = 0; i < 19; i++) {
+      calls.add(new RequestGroup(0, 1 + i % 9, 1));
+    }
+    int given = 0;
+    for (CallAssignment assignment : dispatcher.assign(few, calls, 0)) {
+      given += assignment.getPassengerCount();
+    }
+    assertEquals(15, given);
+  }
+}
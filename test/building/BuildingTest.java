@@ -4,9 +4,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import building.enums.AdmissionStatus;
 import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
+import building.enums.ParkingMode;
+import building.enums.TrafficMode;
+import elevator.CarClass;
+import elevator.DeparturePolicy;
+import elevator.DoorTiming;
 import elevator.ElevatorReport;
+import elevator.Kinematics;
+import elevator.MotionProfile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import scanerzus.Request;
@@ -530,4 +545,834 @@ public class BuildingTest {
     assertTrue(getElevatorReportHelper(building3, 0).isDoorClosed());
   }
 
-}
\ No newline at end of file
+  /**
+   * Test the isIdle method,
+   * when elevator system is out of service and running without requests.
+   */
+  @Test
+  public void testIsIdleWithoutRequests() {
+    assertTrue(building3.isIdle());
+    building3.startElevatorSystem();
+    assertTrue(building3.isIdle());
+  }
+
+  /**
+   * Test the isIdle method,
+   * the building is busy until the request is delivered.
+   */
+  @Test
+  public void testIsIdleUntilRequestDelivered() {
+    building3.startElevatorSystem();
+    building3.addRequest(new Request(1, 2));
+    assertFalse(building3.isIdle());
+    int steps = 0;
+    while (!building3.isIdle() && steps < 100) {
+      building3.step();
+      steps++;
+    }
+    assertTrue(building3.isIdle());
+    assertEquals(2, getElevatorReportHelper(building3, 0).getCurrentFloor());
+  }
+
+  /**
+   * Test the isIdle method,
+   * when elevator system is stopping.
+   */
+  @Test
+  public void testIsIdleStopping() {
+    building3.startElevatorSystem();
+    building3.stopElevatorSystem();
+    assertFalse(building3.isIdle());
+    building3.step();
+    building3.step();
+    assertTrue(building3.isIdle());
+  }
+
+  /**
+   * Test requests added from many threads are all queued by the next step.
+   */
+  @Test
+  public void testAddRequestFromManyThreads() throws InterruptedException {
+    Building building = new Building(11, 1, 3);
+    building.startElevatorSystem();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 250; j++) {
+          building.addRequest(new Request(1, 5));
+          building.addRequest(new Request(5, 1));
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    BuildingReport report = building.getElevatorSystemStatus();
+    assertEquals(1000, report.getUpRequests().get(0).getPassengerCount());
+    assertEquals(1000, report.getDownRequests().get(0).getPassengerCount());
+  }
+
+  /**
+   * Test offerRequest accepts requests without an admission policy.
+   */
+  @Test
+  public void testOfferRequestAccepted() {
+    building1.startElevatorSystem();
+    assertEquals(AdmissionStatus.accepted, building1.offerRequest(new Request(1, 2)).getStatus());
+    assertEquals(1, building1.getBacklog());
+  }
+
+  /**
+   * Test offerRequest rejects requests over the global limit,
+   * with a time to retry.
+   */
+  @Test
+  public void testOfferRequestRejectedOverGlobalLimit() {
+    building1.setAdmissionPolicy(new AdmissionPolicy(10, 2));
+    building1.startElevatorSystem();
+    assertTrue(building1.offerRequest(new Request(1, 2)).isAdmitted());
+    assertTrue(building1.offerRequest(new Request(3, 2)).isAdmitted());
+    AdmissionResult result = building1.offerRequest(new Request(4, 5));
+    assertEquals(AdmissionStatus.rejected, result.getStatus());
+    assertTrue(result.getRetryAfterTicks() > 0);
+    assertFalse(building1.addRequest(new Request(4, 5)));
+    assertEquals(2, building1.getBacklog());
+  }
+
+  /**
+   * Test offerRequest defers requests over the per-floor limit,
+   * and queues them once the floor has room.
+   */
+  @Test
+  public void testOfferRequestDeferredOverFloorLimit() {
+    building1.setAdmissionPolicy(new AdmissionPolicy(2, 100));
+    building1.startElevatorSystem();
+    assertEquals(AdmissionStatus.accepted, building1.offerRequest(new Request(1, 2)).getStatus());
+    assertEquals(AdmissionStatus.accepted, building1.offerRequest(new Request(1, 3)).getStatus());
+    assertEquals(AdmissionStatus.deferred, building1.offerRequest(new Request(1, 4)).getStatus());
+    assertEquals(3, building1.getElevatorSystemStatus().getUpRequests().size());
+    assertEquals("1->4", building1.getElevatorSystemStatus().getUpRequests().get(2).toString());
+    // the elevator takes the two queued requests and the deferred one moves up
+    building1.step();
+    assertEquals(1, building1.getElevatorSystemStatus().getUpRequests().size());
+    assertEquals(1, building1.getBacklog());
+    building1.stopElevatorSystem();
+    assertEquals(0, building1.getBacklog());
+  }
+
+  /**
+   * Test the blocking offerRequest gives up after the timeout.
+   */
+  @Test
+  public void testOfferRequestTimesOut() throws InterruptedException {
+    building1.setAdmissionPolicy(new AdmissionPolicy(10, 1));
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(1, 2));
+    AdmissionResult result = building1.offerRequest(new Request(2, 3), 20, TimeUnit.MILLISECONDS);
+    assertEquals(AdmissionStatus.rejected, result.getStatus());
+  }
+
+  /**
+   * Test the blocking offerRequest is admitted once a step makes room.
+   */
+  @Test
+  public void testOfferRequestWaitsForRoom() throws InterruptedException {
+    building1.setAdmissionPolicy(new AdmissionPolicy(10, 1));
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(1, 2));
+    Thread stepper = new Thread(() -> {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        return;
+      }
+      building1.step();
+    });
+    stepper.start();
+    AdmissionResult result = building1.offerRequest(new Request(2, 3), 5, TimeUnit.SECONDS);
+    stepper.join();
+    assertEquals(AdmissionStatus.accepted, result.getStatus());
+  }
+
+  /**
+   * Test the admission policy cannot have limits of 0.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdmissionPolicyInvalidLimit() {
+    new AdmissionPolicy(0, 10);
+  }
+
+  /**
+   * Test requests for the same trip are counted in one group.
+   */
+  @Test
+  public void testAddRequestCoalescesSameTrip() {
+    building1.startElevatorSystem();
+    for (int i = 0; i < 10; i++) {
+      building1.addRequest(new Request(0, 5));
+    }
+    building1.addRequest(new Request(0, 6));
+    building1.addRequest(new Request(0, 5));
+    BuildingReport report = building1.getElevatorSystemStatus();
+    assertEquals(2, report.getUpRequests().size());
+    assertEquals("0->5 x11", report.getUpRequests().get(0).toString());
+    assertEquals("0->6", report.getUpRequests().get(1).toString());
+  }
+
+  /**
+   * Test a group is only split when the elevator has no room for all of it.
+   */
+  @Test
+  public void testGroupSplitByCapacity() {
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(0, 1));
+    for (int i = 0; i < 4; i++) {
+      building1.addRequest(new Request(0, 2));
+    }
+    building1.step();
+    // the elevator takes 0->1 and two of the 0->2 group, the rest keeps waiting
+    BuildingReport report = building1.getElevatorSystemStatus();
+    assertEquals(1, report.getUpRequests().size());
+    assertEquals("0->2 x2", report.getUpRequests().get(0).toString());
+    assertTrue(getElevatorReportHelper(building1, 0).getFloorRequests()[1]);
+    assertTrue(getElevatorReportHelper(building1, 0).getFloorRequests()[2]);
+    assertEquals(2, building1.getBacklog());
+  }
+
+  /**
+   * Test addRequests skips invalid requests and reports them in the bitmap.
+   */
+  @Test
+  public void testAddRequestsBitmap() {
+    building1.startElevatorSystem();
+    BitSet admitted = building1.addRequests(new Request[] {
+        new Request(0, 5), new Request(3, 3), null, new Request(9, 1), new Request(0, 11),
+        new Request(0, 5)});
+    assertEquals("{0, 3, 5}", admitted.toString());
+    BuildingReport report = building1.getElevatorSystemStatus();
+    assertEquals("0->5 x2", report.getUpRequests().get(0).toString());
+    assertEquals("9->1", report.getDownRequests().get(0).toString());
+    assertEquals(3, building1.getBacklog());
+  }
+
+  /**
+   * Test addRequests throws when the system is not running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testAddRequestsNotRunning() {
+    building1.addRequests(Arrays.asList(new Request(0, 5)));
+  }
+
+  /**
+   * Test a group too large for the global backlog limit does not reject the
+   * requests after it.
+   */
+  @Test
+  public void testAddRequestsSkipsGroupThatDoesNotFit() {
+    building1.setAdmissionPolicy(new AdmissionPolicy(100, 3));
+    building1.startElevatorSystem();
+    BitSet admitted = building1.addRequests(Arrays.asList(
+        new Request(0, 5), new RequestGroup(0, 6, 5), new Request(0, 7), new Request(9, 1)));
+    assertEquals("{0, 2, 3}", admitted.toString());
+    assertEquals(3, building1.getBacklog());
+  }
+
+  /**
+   * Test addRequests is trimmed to the global backlog limit.
+   */
+  @Test
+  public void testAddRequestsGlobalLimit() {
+    building1.setAdmissionPolicy(new AdmissionPolicy(100, 3));
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(1, 2));
+    BitSet admitted = building1.addRequests(Arrays.asList(
+        new Request(0, 5), new Request(5, 5), new Request(0, 6), new Request(0, 7)));
+    assertEquals("{0, 2}", admitted.toString());
+    assertEquals(3, building1.getBacklog());
+  }
+
+  /**
+   * Test the stats count the people dispatched and delivered and their waits.
+   */
+  @Test
+  public void testStatsDeliveredAndWait() {
+    building3.startElevatorSystem();
+    building3.addRequest(new Request(0, 3));
+    building3.addRequest(new Request(0, 3));
+    int steps = 0;
+    while (!building3.isIdle() && steps < 100) {
+      building3.step();
+      steps++;
+    }
+    BuildingStats stats = building3.getStats();
+    assertEquals(steps, stats.getTicks());
+    assertEquals(2, stats.getDispatchedCount());
+    assertEquals(2, stats.getDeliveredCount());
+    // the requests were queued before the first step and taken on it
+    assertEquals(1.0, stats.getAverageWaitTicks(), 0.001);
+    assertTrue(stats.getAverageJourneyTicks() >= 3);
+  }
+
+  /**
+   * Test a held elevator keeps taking requests at the lobby until its load threshold.
+   */
+  @Test
+  public void testDeparturePolicyHoldsForLoad() {
+    building1.setDeparturePolicy(new DeparturePolicy(3, 20), DeparturePolicy.firstRequest());
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(0, 4));
+    building1.step();
+    building1.addRequest(new Request(0, 6));
+    building1.step();
+    ElevatorReport report = getElevatorReportHelper(building1, 0);
+    assertTrue(report.isTakingRequests());
+    assertTrue(report.getFloorRequests()[4]);
+    assertTrue(report.getFloorRequests()[6]);
+    building1.addRequest(new Request(0, 8));
+    building1.step();
+    report = getElevatorReportHelper(building1, 0);
+    assertFalse(report.isTakingRequests());
+    assertTrue(report.getFloorRequests()[4]);
+    assertTrue(report.getFloorRequests()[8]);
+    assertEquals(3, building1.getStats().getDispatchedCount());
+  }
+
+  /**
+   * Test requests are routed to the queue of the zone serving both floors,
+   * and a zone elevator turns around at the top of its zone.
+   */
+  @Test
+  public void testZonesRouteRequests() {
+    Building building = new Building(11, 2, 3);
+    building.setZones(Arrays.asList(
+        new Zone("low-rise", 1, 5, 1), new Zone("high-rise", 6, 10, 1)));
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 3));
+    building.addRequest(new Request(0, 8));
+    building.step();
+    assertTrue(getElevatorReportHelper(building, 0).getFloorRequests()[3]);
+    assertFalse(getElevatorReportHelper(building, 0).getFloorRequests()[8]);
+    assertTrue(getElevatorReportHelper(building, 1).getFloorRequests()[8]);
+    int highest = 0;
+    for (int i = 0; i < 40; i++) {
+      building.step();
+      highest = Math.max(highest, getElevatorReportHelper(building, 0).getCurrentFloor());
+    }
+    assertEquals(5, highest);
+  }
+
+  /**
+   * Test trips to and from the lobby go to an express zone serving both floors,
+   * and trips within its band go to the local zone.
+   */
+  @Test
+  public void testExpressZoneTakesLongTrips() {
+    Building building = new Building(11, 2, 3);
+    building.setZones(Arrays.asList(
+        new Zone("local", 1, 10, 1), Zone.express("express", 7, 10, 1)));
+    assertTrue(building.getZones().get(1).isExpress());
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 9));
+    building.addRequest(new Request(7, 8));
+    building.addRequest(new Request(0, 3));
+    building.step();
+    ElevatorReport local = getElevatorReportHelper(building, 0);
+    ElevatorReport express = getElevatorReportHelper(building, 1);
+    assertTrue(express.getFloorRequests()[9]);
+    assertFalse(express.getFloorRequests()[7]);
+    assertTrue(local.getFloorRequests()[7]);
+    assertTrue(local.getFloorRequests()[3]);
+    assertFalse(local.getFloorRequests()[9]);
+  }
+
+  /**
+   * Test the stats of the people going to a range of floors.
+   */
+  @Test
+  public void testStatsByDestination() {
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(0, 2));
+    building1.addRequest(new Request(0, 8));
+    int steps = 0;
+    while (!building1.isIdle() && steps < 100) {
+      building1.step();
+      steps++;
+    }
+    BuildingStats low = building1.getStats(1, 5);
+    BuildingStats high = building1.getStats(6, 10);
+    assertEquals(1, low.getDeliveredCount());
+    assertEquals(1, high.getDeliveredCount());
+    assertTrue(high.getAverageJourneyTicks() > low.getAverageJourneyTicks());
+    assertEquals(building1.getStats().getAverageJourneyTicks() * 2,
+        low.getAverageJourneyTicks() + high.getAverageJourneyTicks(), 1e-9);
+  }
+
+  /**
+   * Test a request no zones can take to its end floor is not valid.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testZonesRejectJourneyNoZonesComplete() {
+    Building building = new Building(11, 2, 3);
+    building.setZones(Arrays.asList(
+        new Zone("low-rise", 1, 5, 1), Zone.skyLobby("upper", 8, 10, 1)));
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 9));
+  }
+
+  /**
+   * Test a request between two zones changes elevators at the lobby,
+   * and is delivered once at the end of its journey.
+   */
+  @Test
+  public void testCrossZoneJourneyChangesAtLobby() {
+    Building building = new Building(11, 2, 3);
+    building.setZones(Arrays.asList(
+        new Zone("low-rise", 1, 5, 1), new Zone("high-rise", 6, 10, 1)));
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 8));
+    int steps = 0;
+    while (!building.isIdle() && steps < 200) {
+      building.step();
+      steps++;
+    }
+    BuildingStats stats = building.getStats();
+    assertEquals(2, stats.getDispatchedCount());
+    assertEquals(1, stats.getTransferCount());
+    assertEquals(1, stats.getDeliveredCount());
+    assertEquals(0, building.getStats(0, 0).getDeliveredCount());
+    assertEquals(1, building.getStats(8, 8).getDeliveredCount());
+  }
+
+  /**
+   * Test a journey through a sky lobby rides the shuttle there first, then
+   * the elevator running from the sky lobby, and its journey time covers both.
+   */
+  @Test
+  public void testSkyLobbyJourneyChangesElevators() {
+    Building building = new Building(11, 2, 3);
+    building.setZones(Arrays.asList(
+        Zone.express("shuttle", 5, 5, 1), Zone.skyLobby("upper", 5, 10, 1)));
+    assertEquals(5, getElevatorReportHelper(building, 1).getCurrentFloor());
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 8));
+    building.step();
+    assertTrue(getElevatorReportHelper(building, 0).getFloorRequests()[5]);
+    assertFalse(getElevatorReportHelper(building, 1).getFloorRequests()[8]);
+    int steps = 1;
+    while (!getElevatorReportHelper(building, 1).getFloorRequests()[8] && steps < 100) {
+      building.step();
+      steps++;
+    }
+    // the second leg is given out after the shuttle lets the person out
+    assertTrue(steps >= 5);
+    assertEquals(1, building.getStats().getTransferCount());
+    assertEquals(0, building.getStats().getDeliveredCount());
+    while (!building.isIdle() && steps < 200) {
+      building.step();
+      steps++;
+    }
+    BuildingStats stats = building.getStats();
+    assertEquals(1, stats.getDeliveredCount());
+    assertTrue(stats.getAverageJourneyTicks() > 8);
+    assertEquals(stats.getAverageJourneyTicks(),
+        building.getStats(8, 8).getAverageJourneyTicks(), 1e-9);
+  }
+
+  /**
+   * Test the zones must have every elevator in the building.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testZonesMustHaveEveryElevator() {
+    building2.setZones(Arrays.asList(
+        new Zone("low-rise", 1, 2, 1), new Zone("high-rise", 3, 4, 1)));
+  }
+
+  /**
+   * Test the zones cannot change while the system is running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testZonesWhileRunning() {
+    building2.startElevatorSystem();
+    building2.setZones(Arrays.asList(new Zone("all", 1, 4, 3)));
+  }
+
+  /**
+   * Test an idle elevator parks at its fixed home floor instead of cycling.
+   */
+  @Test
+  public void testParkingAtHomeFloor() {
+    building3.setParkingPolicy(ParkingPolicy.fixed(2));
+    building3.startElevatorSystem();
+    for (int i = 0; i < 20; i++) {
+      building3.step();
+    }
+    ElevatorReport report = getElevatorReportHelper(building3, 0);
+    assertEquals(2, report.getCurrentFloor());
+    assertEquals(Direction.STOPPED, report.getDirection());
+    assertTrue(report.isTakingRequests());
+    assertEquals(2, building3.getStats().getFloorsTravelled());
+  }
+
+  /**
+   * Test a parked elevator takes a request on its way up from its floor.
+   */
+  @Test
+  public void testParkedElevatorTakesRequestOnTheWay() {
+    building3.setParkingPolicy(ParkingPolicy.fixed(2));
+    building3.startElevatorSystem();
+    for (int i = 0; i < 20; i++) {
+      building3.step();
+    }
+    building3.addRequest(new Request(3, 4));
+    building3.step();
+    ElevatorReport report = getElevatorReportHelper(building3, 0);
+    assertEquals(Direction.UP, report.getDirection());
+    assertTrue(report.getFloorRequests()[3]);
+    assertTrue(report.getFloorRequests()[4]);
+  }
+
+  /**
+   * Test a parked elevator is recalled to the lobby for a request there.
+   */
+  @Test
+  public void testParkedElevatorRecalledToLobby() {
+    building3.setParkingPolicy(ParkingPolicy.fixed(2));
+    building3.startElevatorSystem();
+    for (int i = 0; i < 20; i++) {
+      building3.step();
+    }
+    building3.addRequest(new Request(0, 1));
+    building3.step();
+    assertEquals(Direction.DOWN, getElevatorReportHelper(building3, 0).getDirection());
+    int steps = 0;
+    while (!building3.isIdle() && steps < 100) {
+      building3.step();
+      steps++;
+    }
+    assertEquals(1, building3.getStats().getDeliveredCount());
+  }
+
+  /**
+   * Test learned parking sends an idle elevator to where people have been asking.
+   */
+  @Test
+  public void testLearnedParkingFollowsDemand() {
+    building1.setParkingPolicy(ParkingPolicy.learned(1000));
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(7, 2));
+    for (int i = 0; i < 80; i++) {
+      building1.step();
+    }
+    assertEquals(1, building1.getStats().getDeliveredCount());
+    assertEquals(7, getElevatorReportHelper(building1, 0).getCurrentFloor());
+    assertEquals(Direction.STOPPED, getElevatorReportHelper(building1, 0).getDirection());
+  }
+
+  /**
+   * Test every person of a group of identical lobby trips counts towards the demand.
+   */
+  @Test
+  public void testLearnedParkingCountsEveryPersonOfAGroup() {
+    building1.setParkingPolicy(ParkingPolicy.learned(1000));
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(7, 2));
+    building1.addRequest(new Request(7, 3));
+    for (int i = 0; i < 6; i++) {
+      building1.addRequest(new Request(0, 5));
+    }
+    for (int i = 0; i < 200; i++) {
+      building1.step();
+    }
+    assertEquals(8, building1.getStats().getDeliveredCount());
+    assertEquals(0, getElevatorReportHelper(building1, 0).getCurrentFloor());
+    assertEquals(Direction.STOPPED, getElevatorReportHelper(building1, 0).getDirection());
+  }
+
+  /**
+   * Test the building switches to the dispatch plan of the detected traffic.
+   */
+  @Test
+  public void testTrafficClassifierSwitchesPlan() {
+    building1.setTrafficClassifier(new TrafficClassifier(10, 0.1, 0.6, 2));
+    assertEquals(TrafficMode.light, building1.getTrafficMode());
+    building1.startElevatorSystem();
+    for (int i = 0; i < 6; i++) {
+      building1.addRequest(new Request(0, 5));
+      building1.step();
+    }
+    assertEquals(TrafficMode.upPeak, building1.getTrafficMode());
+    assertEquals(ParkingMode.fixed, building1.getParkingPolicy().getMode());
+    assertEquals(building1.getDispatchPlan(TrafficMode.upPeak).getParkingPolicy(),
+        building1.getParkingPolicy());
+  }
+
+  /**
+   * Test the assignment dispatcher gives each request to the nearest parked elevator.
+   */
+  @Test
+  public void testAssignmentDispatcherPicksNearestElevator() {
+    Building building = new Building(16, 2, 5);
+    building.setParkingPolicy(ParkingPolicy.fixed(3, 10));
+    building.setDispatcher(new AssignmentDispatcher());
+    building.startElevatorSystem();
+    for (int i = 0; i < 30; i++) {
+      building.step();
+    }
+    building.addRequest(new Request(11, 13));
+    building.addRequest(new Request(4, 6));
+    building.step();
+    ElevatorReport low = getElevatorReportHelper(building, 0);
+    ElevatorReport high = getElevatorReportHelper(building, 1);
+    assertTrue(low.getFloorRequests()[4]);
+    assertFalse(low.getFloorRequests()[11]);
+    assertTrue(high.getFloorRequests()[11]);
+    assertFalse(high.getFloorRequests()[4]);
+    assertEquals(2, building.getStats().getDispatchedCount());
+  }
+
+  /**
+   * Test a dispatcher cannot give an elevator more people than it has room for.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testDispatcherCannotOverfillElevator() {
+    building1.setDispatcher((elevators, calls, tick) ->
+        Arrays.asList(new CallAssignment(0, 0, 4)));
+    building1.startElevatorSystem();
+    for (int i = 0; i < 4; i++) {
+      building1.addRequest(new Request(0, 5));
+    }
+    building1.step();
+  }
+
+  /**
+   * Test a group becomes overdue once it has waited as long as the aging policy
+   * allows, and the longest wait is kept in the stats.
+   */
+  @Test
+  public void testGroupBecomesOverdue() {
+    boolean[] overdue = new boolean[1];
+    building1.setAgingPolicy(new AgingPolicy(3));
+    building1.setDispatcher((elevators, calls, tick) -> {
+      overdue[0] = calls.get(0).isOverdue();
+      return tick < 4 ? Collections.emptyList()
+          : Arrays.asList(new CallAssignment(0, 0, 1));
+    });
+    building1.startElevatorSystem();
+    building1.addRequest(new Request(0, 5));
+    building1.step();
+    building1.step();
+    assertFalse(overdue[0]);
+    building1.step();
+    building1.step();
+    assertTrue(overdue[0]);
+    assertEquals(3, building1.getStats().getMaxWaitTicks());
+  }
+
+  /**
+   * Test the maximum wait of an aging policy must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAgingPolicyNeedsPositiveWait() {
+    new AgingPolicy(0);
+  }
+
+
+  /**
+   * Test double-deck elevators deliver people to every floor, upper and lower deck alike.
+   */
+  @Test
+  public void testDoubleDeckBuildingDeliversEveryFloor() {
+    Building building = new Building(11, 2, 5);
+    building.setDeckCount(2);
+    building.startElevatorSystem();
+    for (int floor = 1; floor < 11; floor++) {
+      building.addRequest(new Request(0, floor));
+    }
+    int steps = 0;
+    while (building.getStats().getDeliveredCount() < 10 && steps < 200) {
+      building.step();
+      steps++;
+    }
+    assertEquals(10, building.getStats().getDeliveredCount());
+  }
+
+  /**
+   * Test the decks cannot change while the elevator system is running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testDeckCountWhileRunning() {
+    Building building = new Building(11, 2, 5);
+    building.startElevatorSystem();
+    building.setDeckCount(2);
+  }
+
+  /**
+   * Test the cars of a shared shaft never meet and deliver everyone, in both movement modes.
+   */
+  @Test
+  public void testSharedShaftCarsNeverMeet() {
+    for (boolean kinematic : new boolean[] {false, true}) {
+      Building building = new Building(20, 3, 5);
+      building.setZones(Arrays.asList(new Zone("low", 1, 9, 1),
+              Zone.express("shuttle", 10, 10, 1), Zone.skyLobby("upper", 10, 19, 1)));
+      building.shareShaft(1, 2);
+      // both cars of the shaft want to park at the sky lobby
+      building.setParkingPolicy(ParkingPolicy.fixed(10));
+      if (kinematic) {
+        building.setKinematics(Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), 20, 3.5,
+                1.0));
+      }
+      building.startElevatorSystem();
+      Random random = new Random(7);
+      int requested = 0;
+      for (int step = 0; step < 3000 && (step < 600 || !building.isIdle()); step++) {
+        if (step < 600 && random.nextInt(4) == 0) {
+          int floor = 1 + random.nextInt(19);
+          building.addRequest(random.nextBoolean() ? new Request(0, floor)
+                  : new Request(floor, 0));
+          requested++;
+        }
+        building.step();
+        ElevatorReport[] reports = building.getElevatorSystemStatus().getElevatorReports();
+        assertTrue(reports[1].getCurrentFloor() < reports[2].getCurrentFloor());
+      }
+      assertTrue(building.isIdle());
+      assertEquals(requested, building.getStats().getDeliveredCount());
+    }
+  }
+
+  /**
+   * Test a car cannot share a shaft below a car that runs lower than it.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testShareShaftCarsOutOfOrder() {
+    Building building = new Building(20, 2, 5);
+    building.setZones(Arrays.asList(new Zone("low", 1, 10, 1),
+            Zone.skyLobby("upper", 10, 19, 1)));
+    building.shareShaft(1, 0);
+  }
+
+  /**
+   * Test two cars with the same bottom floor cannot share a shaft.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testShareShaftSameBottomFloor() {
+    Building building = new Building(20, 2, 5);
+    building.shareShaft(0, 1);
+  }
+
+  /**
+   * Test the shafts cannot change while the elevator system is running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testShareShaftWhileRunning() {
+    Building building = new Building(20, 2, 5);
+    building.setZones(Arrays.asList(new Zone("low", 1, 10, 1),
+            Zone.skyLobby("upper", 10, 19, 1)));
+    building.startElevatorSystem();
+    building.shareShaft(0, 1);
+  }
+
+  /**
+   * Test the stats are broken down by car class, with large groups going to the freight car.
+   */
+  @Test
+  public void testStatsByCarClass() {
+    Building building = new Building(10, 3, 5);
+    building.setCarClass(2, new CarClass("freight", 20, 1, DoorTiming.fixed(4), null));
+    building.startElevatorSystem();
+    building.addRequest(new RequestGroup(0, 5, 15));
+    for (int floor = 1; floor < 10; floor++) {
+      building.addRequest(new Request(0, floor));
+    }
+    for (int step = 0; step < 200 && !building.isIdle(); step++) {
+      building.step();
+    }
+    Map<String, BuildingStats> stats = building.getStatsByCarClass();
+    assertEquals(Arrays.asList("standard", "freight"), new ArrayList<>(stats.keySet()));
+    // the group goes whole to the freight car, which is offered requests first
+    assertTrue(stats.get("freight").getDeliveredCount() >= 15);
+    assertEquals(24, stats.get("freight").getDeliveredCount()
+        + stats.get("standard").getDeliveredCount());
+    assertEquals(24, building.getStats().getDeliveredCount());
+  }
+
+  /**
+   * Test the car classes cannot change while the elevator system is running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testCarClassWhileRunning() {
+    Building building = new Building(10, 3, 5);
+    building.startElevatorSystem();
+    building.setCarClass(0, CarClass.standard(8));
+  }
+
+  /**
+   * Test a trip to a secured floor goes only to the car that serves it.
+   */
+  @Test
+  public void testServedFloorsPickTheCar() {
+    Building building = new Building(10, 2, 5);
+    building.setCarClass(0, new CarClass("public", 5, 1, DoorTiming.fixed(3), null));
+    building.setCarClass(1, new CarClass("secure", 5, 1, DoorTiming.fixed(3), null));
+    BitSet publicFloors = new BitSet();
+    publicFloors.set(0, 9);
+    building.setServedFloors(0, publicFloors);
+    building.startElevatorSystem();
+    for (int i = 0; i < 3; i++) {
+      building.addRequest(new Request(0, 9));
+    }
+    for (int step = 0; step < 200 && !building.isIdle(); step++) {
+      building.step();
+    }
+    Map<String, BuildingStats> stats = building.getStatsByCarClass();
+    assertEquals(0, stats.get("public").getDeliveredCount());
+    assertEquals(3, stats.get("secure").getDeliveredCount());
+  }
+
+  /**
+   * Test a journey no one car serves changes elevators at a floor both cars serve.
+   */
+  @Test
+  public void testServedFloorsChangeElevators() {
+    Building building = new Building(10, 2, 5);
+    BitSet low = new BitSet();
+    low.set(0, 6);
+    BitSet high = new BitSet();
+    high.set(5, 10);
+    building.setServedFloors(0, low);
+    building.setServedFloors(1, high);
+    building.startElevatorSystem();
+    building.addRequest(new Request(2, 8));
+    for (int step = 0; step < 200 && !building.isIdle(); step++) {
+      building.step();
+    }
+    assertEquals(1, building.getStats().getDeliveredCount());
+    assertEquals(1, building.getStats().getTransferCount());
+  }
+
+  /**
+   * Test a journey to a floor no car serves is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testServedFloorsRejectJourney() {
+    Building building = new Building(10, 2, 5);
+    BitSet floors = new BitSet();
+    floors.set(0, 9);
+    building.setServedFloors(0, floors);
+    building.setServedFloors(1, floors);
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 9));
+  }
+
+  /**
+   * Test the served floors cannot change while the elevator system is running.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testServedFloorsWhileRunning() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.setServedFloors(0, null);
+  }
+}
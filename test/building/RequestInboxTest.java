@@ -0,0 +1,104 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * Test the RequestInbox class.
+ */
+public class RequestInboxTest {
+  private RequestInbox inbox;
+
+  /**
+   * Set up the inbox.
+   */
+  @Before
+  public void setUp() {
+    inbox = new RequestInbox();
+  }
+
+  /**
+   * Test a new inbox is empty.
+   */
+  @Test
+  public void testNewInboxIsEmpty() {
+    assertTrue(inbox.isEmpty());
+    assertEquals(0, inbox.drain(request -> { }));
+  }
+
+  /**
+   * Test requests from one producer are drained in order.
+   */
+  @Test
+  public void testDrainInOrder() {
+    inbox.offer(new Request(0, 1));
+    inbox.offer(new Request(0, 2));
+    inbox.offer(new Request(3, 1));
+    assertFalse(inbox.isEmpty());
+    List<Request> drained = new ArrayList<>();
+    assertEquals(3, inbox.drain(drained::add));
+    assertEquals("0->1", drained.get(0).toString());
+    assertEquals("0->2", drained.get(1).toString());
+    assertEquals("3->1", drained.get(2).toString());
+    assertTrue(inbox.isEmpty());
+  }
+
+  /**
+   * Test the inbox can be used again after a drain.
+   */
+  @Test
+  public void testOfferAfterDrain() {
+    inbox.offer(new Request(0, 1));
+    inbox.drain(request -> { });
+    inbox.offer(new Request(2, 1));
+    List<Request> drained = new ArrayList<>();
+    assertEquals(1, inbox.drain(drained::add));
+    assertEquals("2->1", drained.get(0).toString());
+  }
+
+  /**
+   * Test no request is lost with many producers and a draining consumer.
+   */
+  @Test
+  public void testManyProducers() throws InterruptedException {
+    final int producers = 8;
+    final int perProducer = 10000;
+    Thread[] threads = new Thread[producers];
+    for (int i = 0; i < producers; i++) {
+      final int producer = i;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < perProducer; j++) {
+          inbox.offer(new Request(producer, j));
+        }
+      });
+      threads[i].start();
+    }
+    int[] lastSeen = new int[producers];
+    for (int i = 0; i < producers; i++) {
+      lastSeen[i] = -1;
+    }
+    int total = 0;
+    boolean inOrder = true;
+    while (total < producers * perProducer) {
+      List<Request> drained = new ArrayList<>();
+      total += inbox.drain(drained::add);
+      for (Request request : drained) {
+        inOrder &= request.getEndFloor() == lastSeen[request.getStartFloor()] + 1;
+        lastSeen[request.getStartFloor()] = request.getEndFloor();
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(producers * perProducer, total);
+    assertTrue(inOrder);
+    assertTrue(inbox.isEmpty());
+  }
+}
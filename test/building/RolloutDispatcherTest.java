@@ -0,0 +1,123 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import elevator.Elevator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * Test the RolloutDispatcher class.
+ */
+public class RolloutDispatcherTest {
+  private static final Dispatcher LEAVE_WAITING = (elevators, calls, tick) ->
+      Collections.emptyList();
+  private static final Dispatcher GIVE_TO_LOBBY = (elevators, calls, tick) ->
+      Collections.singletonList(new CallAssignment(0, 0, 1));
+
+  private List<Elevator> elevators;
+  private List<RequestGroup> calls;
+
+  /**
+   * Set up an elevator at the lobby and one person waiting there.
+   */
+  @Before
+  public void setUp() {
+    Elevator lobby = new Elevator(10, 5);
+    lobby.start();
+    elevators = Collections.singletonList(lobby);
+    calls = Collections.singletonList(new RequestGroup(0, 5, 1));
+  }
+
+  /**
+   * Makes a dispatcher that plays its runs on the calling thread.
+   *
+   * @param budgetNanos the time budget of a step in nanoseconds.
+   * @param candidates the candidate dispatchers.
+   * @return the dispatcher.
+   */
+  private static RolloutDispatcher inline(long budgetNanos, Dispatcher... candidates) {
+    return new RolloutDispatcher(Arrays.asList(candidates), 20, budgetNanos,
+        TimeUnit.NANOSECONDS, Runnable::run);
+  }
+
+  /**
+   * Test a building dispatched by looking ahead delivers everyone.
+   */
+  @Test
+  public void testRolloutDispatcherDeliversEveryone() {
+    Building building = new Building(10, 3, 5);
+    RolloutDispatcher dispatcher = new RolloutDispatcher(20, 50, TimeUnit.MILLISECONDS);
+    building.setParkingPolicy(ParkingPolicy.fixed(0, 4, 8));
+    building.setDispatcher(dispatcher);
+    building.startElevatorSystem();
+    for (int i = 0; i < 30; i++) {
+      building.addRequest(new Request(i % 10, (i * 7 + 3) % 10));
+      building.step();
+    }
+    int steps = 0;
+    while (!building.isIdle() && steps < 500) {
+      building.step();
+      steps++;
+    }
+    assertEquals(30, building.getStats().getDeliveredCount());
+    assertTrue(dispatcher.getRolloutCount() > 0);
+  }
+
+  /**
+   * Test the dispatcher needs a candidate and a positive horizon.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRolloutDispatcherNeedsCandidates() {
+    new RolloutDispatcher(Collections.emptyList(), 30, 1, TimeUnit.MILLISECONDS, Runnable::run);
+  }
+
+  /**
+   * Test the candidate whose run keeps people waiting less wins over the first one.
+   */
+  @Test
+  public void testLowerCostProposalWins() {
+    RolloutDispatcher dispatcher = inline(TimeUnit.SECONDS.toNanos(10),
+        LEAVE_WAITING, GIVE_TO_LOBBY);
+    List<CallAssignment> assignments = dispatcher.assign(elevators, calls, 0);
+    assertEquals(1, assignments.size());
+    assertEquals(0, assignments.get(0).getElevatorIndex());
+    assertEquals(2, dispatcher.getRolloutCount());
+    assertEquals(0, dispatcher.getLateCount());
+  }
+
+  /**
+   * Test candidates proposing the same assignments are only played once.
+   */
+  @Test
+  public void testIdenticalProposalsPlayedOnce() {
+    Dispatcher sameAsLobby = (cars, groups, tick) ->
+        Collections.singletonList(new CallAssignment(0, 0, 1));
+    RolloutDispatcher dispatcher = inline(TimeUnit.SECONDS.toNanos(10),
+        GIVE_TO_LOBBY, sameAsLobby);
+    assertEquals(1, dispatcher.assign(elevators, calls, 0).size());
+    assertEquals(0, dispatcher.getRolloutCount());
+    dispatcher = inline(TimeUnit.SECONDS.toNanos(10), GIVE_TO_LOBBY, sameAsLobby,
+        LEAVE_WAITING);
+    dispatcher.assign(elevators, calls, 0);
+    assertEquals(2, dispatcher.getRolloutCount());
+  }
+
+  /**
+   * Test runs past the time budget count as late and the first candidate is used.
+   */
+  @Test
+  public void testLateRunsFallBackToFirstCandidate() {
+    RolloutDispatcher dispatcher = inline(1, LEAVE_WAITING, GIVE_TO_LOBBY);
+    List<CallAssignment> assignments = dispatcher.assign(elevators, calls, 0);
+    assertTrue(assignments.isEmpty());
+    assertEquals(2, dispatcher.getRolloutCount());
+    assertEquals(2, dispatcher.getLateCount());
+  }
+}
@@ -0,0 +1,129 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.TrafficMode;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * Test the TrafficClassifier class.
+ */
+public class TrafficClassifierTest {
+  private TrafficClassifier classifier;
+
+  /**
+   * Set up a classifier over 20 steps, light under 0.5 people per step,
+   * a peak from 60% and 3 steps to confirm.
+   */
+  @Before
+  public void setUp() {
+    classifier = new TrafficClassifier(20, 0.5, 0.6, 3);
+  }
+
+  /**
+   * Runs steps with some people arriving in each.
+   */
+  private void run(int steps, int lobbyUp, int lobbyDown, int interfloor) {
+    for (int step = 0; step < steps; step++) {
+      for (int i = 0; i < lobbyUp; i++) {
+        classifier.record(new Request(0, 5));
+      }
+      for (int i = 0; i < lobbyDown; i++) {
+        classifier.record(new Request(5, 0));
+      }
+      for (int i = 0; i < interfloor; i++) {
+        classifier.record(new Request(3, 6));
+      }
+      classifier.advance();
+    }
+  }
+
+  /**
+   * Test traffic starts light and stays light with few arrivals.
+   */
+  @Test
+  public void testLightTraffic() {
+    assertEquals(TrafficMode.light, classifier.getMode());
+    for (int step = 0; step < 40; step++) {
+      if (step % 4 == 0) {
+        classifier.record(new Request(0, 5));
+      }
+      classifier.advance();
+    }
+    assertEquals(TrafficMode.light, classifier.getMode());
+  }
+
+  /**
+   * Test the peaks and two way traffic are detected.
+   */
+  @Test
+  public void testDetectsModes() {
+    run(30, 3, 0, 1);
+    assertEquals(TrafficMode.upPeak, classifier.getMode());
+    run(30, 0, 3, 1);
+    assertEquals(TrafficMode.downPeak, classifier.getMode());
+    run(30, 1, 1, 1);
+    assertEquals(TrafficMode.twoWay, classifier.getMode());
+    run(30, 0, 0, 0);
+    assertEquals(TrafficMode.light, classifier.getMode());
+  }
+
+  /**
+   * Test a new mode is only taken once it held for the confirm steps.
+   */
+  @Test
+  public void testModeNeedsConfirming() {
+    assertFalse(classifier.advance());
+    // enough people in one step for the whole window not to be light
+    for (int i = 0; i < 15; i++) {
+      classifier.record(new Request(0, 5));
+    }
+    assertFalse(classifier.advance());
+    assertFalse(classifier.advance());
+    assertTrue(classifier.advance());
+    assertEquals(TrafficMode.upPeak, classifier.getMode());
+    assertEquals(1, classifier.getModeChanges());
+  }
+
+  /**
+   * Test the mode does not flap when the traffic hovers around the peak share.
+   */
+  @Test
+  public void testHysteresis() {
+    run(30, 2, 0, 1);
+    assertEquals(TrafficMode.upPeak, classifier.getMode());
+    // 55% from the lobby is not enough to enter up peak, but enough to stay in it
+    run(40, 11, 0, 9);
+    assertEquals(TrafficMode.upPeak, classifier.getMode());
+    assertEquals(1, classifier.getModeChanges());
+    run(40, 1, 0, 2);
+    assertEquals(TrafficMode.twoWay, classifier.getMode());
+  }
+
+  /**
+   * Test a peak is left once most people go the other way, even within the
+   * looser limits for leaving it.
+   */
+  @Test
+  public void testPeakLeftWhenFlowReverses() {
+    run(30, 3, 0, 1);
+    assertEquals(TrafficMode.upPeak, classifier.getMode());
+    // 48% up and 52% down is within 0.6 x 0.8 of up peak, but not half
+    run(40, 12, 13, 0);
+    assertEquals(TrafficMode.twoWay, classifier.getMode());
+    run(40, 8, 17, 0);
+    assertEquals(TrafficMode.downPeak, classifier.getMode());
+  }
+
+  /**
+   * Test the peak share must be more than half.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPeakShare() {
+    new TrafficClassifier(20, 0.5, 0.5, 3);
+  }
+}
@@ -0,0 +1,150 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.CallAssignment;
+import building.enums.ElevatorSystemStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * Test the SimulationEngine class.
+ */
+public class SimulationEngineTest {
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private Building building;
+  private SimulationEngine engine;
+
+  /**
+   * Set up a building and its engine.
+   */
+  @Before
+  public void setUp() {
+    building = new Building(10, 1, 5);
+    engine = new SimulationEngine(building);
+  }
+
+  /**
+   * Stop the simulation thread.
+   */
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  /**
+   * Waits until the engine publishes a snapshot past a version.
+   *
+   * @param version the version to wait past.
+   * @return the snapshot.
+   */
+  private SimulationSnapshot awaitPast(long version) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (engine.getLatest().getVersion() <= version
+            && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    return engine.getLatest();
+  }
+
+  /**
+   * Test a failing step stops the run and publishes its message, and the
+   * simulation thread keeps taking commands.
+   */
+  @Test
+  public void testFailingStepStopsRun() throws InterruptedException {
+    building.setDispatcher((elevators, calls, tick) ->
+        Collections.singletonList(new CallAssignment(5, 0, 1)));
+    engine.submit(building::startElevatorSystem);
+    engine.submit(() -> building.addRequest(new Request(0, 5)));
+    engine.run(TimeWarp.unthrottled);
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    SimulationSnapshot snapshot = engine.getLatest();
+    while (snapshot.getErrorMessage().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+      snapshot = engine.getLatest();
+    }
+    assertEquals("The dispatcher gave an elevator a request it cannot take.",
+        snapshot.getErrorMessage());
+    assertFalse(snapshot.isAutoRunning());
+    engine.refresh();
+    SimulationSnapshot next = awaitPast(snapshot.getVersion());
+    assertTrue(next.getVersion() > snapshot.getVersion());
+    assertEquals("", next.getErrorMessage());
+  }
+
+  /**
+   * Test queued commands run in order on the simulation thread.
+   */
+  @Test
+  public void testCommandsRunInOrderOnSimulationThread() throws InterruptedException {
+    List<String> ran = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    for (int i = 0; i < 20; i++) {
+      int index = i;
+      engine.submit(() -> ran.add(index + " " + Thread.currentThread().getName()));
+    }
+    engine.submit(done::countDown);
+    assertTrue(done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    assertEquals(20, ran.size());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i + " building-simulation", ran.get(i));
+    }
+  }
+
+  /**
+   * Test commands queued while the simulation thread is busy are published
+   * as one snapshot, and every publish has a higher version.
+   */
+  @Test
+  public void testCommandsCoalesceIntoOneSnapshot() throws InterruptedException {
+    long start = engine.getLatest().getVersion();
+    CountDownLatch busy = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    engine.submit(() -> {
+      busy.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(busy.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    engine.submit(building::startElevatorSystem);
+    for (int i = 0; i < 5; i++) {
+      engine.submit(building::step);
+    }
+    release.countDown();
+    SimulationSnapshot snapshot = awaitPast(start);
+    // give a second publish the chance to show up if the batch was split
+    Thread.sleep(100);
+    assertEquals(start + 1, engine.getLatest().getVersion());
+    assertSame(snapshot, engine.getLatest());
+    assertEquals(ElevatorSystemStatus.running, snapshot.getReport().getSystemStatus());
+    engine.refresh();
+    assertEquals(start + 2, awaitPast(start + 1).getVersion());
+  }
+
+  /**
+   * Test the message of a failing command reaches the snapshot.
+   */
+  @Test
+  public void testFailingCommandPublishesMessage() throws InterruptedException {
+    long start = engine.getLatest().getVersion();
+    engine.submit(() -> building.addRequest(new Request(0, 5)));
+    SimulationSnapshot snapshot = awaitPast(start);
+    assertEquals("The elevator system is not running.", snapshot.getErrorMessage());
+  }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import building.enums.Direction;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -1048,4 +1049,351 @@ public class ElevatorTest {
 
   }
 
-}
\ No newline at end of file
+  /**
+   * Test that the door stays open longer when more people board at a stop.
+   */
+  @Test
+  public void elevatorDoorDwellGrowsWithLoad() {
+    System.out.println("Testing: elevatorDoorDwellGrowsWithLoad");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setDoorTiming(new DoorTiming(1, 1, 1.0, 3, false));
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      requests.add(new Request(0, 2));
+    }
+    elevator.processRequests(requests);
+    elevator.step();
+    // 1 to open, 4 people, 1 to close
+    assertFalse(elevator.getElevatorStatus().isDoorClosed());
+    assertEquals(6, elevator.getElevatorStatus().getDoorOpenTimer());
+  }
+
+  /**
+   * Test that a light stop keeps the door open for the hold time unless it closes early.
+   */
+  @Test
+  public void elevatorDoorEarlyClose() {
+    System.out.println("Testing: elevatorDoorEarlyClose");
+    DoorTiming held = new DoorTiming(1, 1, 0.5, 5, false);
+    DoorTiming early = new DoorTiming(1, 1, 0.5, 5, true);
+    assertEquals(5, held.dwellTicks(1));
+    assertEquals(3, early.dwellTicks(1));
+    assertEquals(7, early.dwellTicks(10));
+    assertEquals(3, DoorTiming.fixed(3).dwellTicks(20));
+    assertEquals(1, new DoorTiming(0, 0, 0, 0, true).dwellTicks(0));
+  }
+
+  /**
+   * Test that a door timing cannot have negative times.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorDoorTimingNegative() {
+    System.out.println("Testing: elevatorDoorTimingNegative");
+    new DoorTiming(-1, 1, 1.0, 3, false);
+  }
+
+  /**
+   * Test that a held elevator leaves once the hold time is over, even without its load.
+   */
+  @Test
+  public void elevatorDepartureHoldTimesOut() {
+    System.out.println("Testing: elevatorDepartureHoldTimesOut");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setDeparturePolicy(new DeparturePolicy(4, 3), DeparturePolicy.firstRequest());
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 2));
+    elevator.processRequests(requests);
+    assertTrue(elevator.isTakingRequests());
+    assertEquals(1, elevator.getTripLoad());
+    assertEquals(4, elevator.getFreeCapacity());
+    for (int i = 0; i < 3; i++) {
+      elevator.step();
+    }
+    assertFalse(elevator.isTakingRequests());
+    // the door opens at the lobby, then the elevator goes to its stop
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+    for (int i = 0; i < 5; i++) {
+      elevator.step();
+    }
+    assertEquals(2, elevator.getCurrentFloor());
+    elevator.step();
+    assertEquals(1, elevator.getDeliveredCount());
+    assertEquals(0, elevator.getTripLoad());
+  }
+
+  /**
+   * Test that a departure policy must have a threshold and hold time of at least 1.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorDeparturePolicyInvalid() {
+    System.out.println("Testing: elevatorDeparturePolicyInvalid");
+    new DeparturePolicy(0, 5);
+  }
+
+  /**
+   * Test that in kinematic mode the elevator runs to its stop by the travel time.
+   */
+  @Test
+  public void elevatorKinematicRun() {
+    System.out.println("Testing: elevatorKinematicRun");
+    Elevator elevator = new Elevator(10, 5);
+    Kinematics kinematics = Kinematics.uniform(new MotionProfile(2.5, 1.0, 1.5), 10, 3.5, 0.5);
+    elevator.setKinematics(kinematics);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 8));
+    elevator.processRequests(requests);
+    // open and close the door at the lobby
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    assertTrue(elevator.isDoorClosed());
+    int ticks = kinematics.travelTicks(0, 8);
+    for (int i = 0; i < ticks - 1; i++) {
+      elevator.step();
+      assertTrue(elevator.isMoving());
+      assertTrue(elevator.getCurrentFloor() < 8);
+    }
+    elevator.step();
+    assertFalse(elevator.isMoving());
+    assertEquals(8, elevator.getCurrentFloor());
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+  }
+
+  /**
+   * Test that a parked elevator can take requests away from the bottom and top floors.
+   */
+  @Test
+  public void elevatorParkAndTakeRequest() {
+    System.out.println("Testing: elevatorParkAndTakeRequest");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.park(3);
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    assertEquals(3, elevator.getCurrentFloor());
+    assertTrue(elevator.isParked());
+    assertTrue(elevator.isTakingRequests());
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(4, 6));
+    elevator.processRequests(requests);
+    assertFalse(elevator.isParked());
+    assertEquals(Direction.UP, elevator.getDirection());
+    elevator.step();
+    assertEquals(4, elevator.getCurrentFloor());
+  }
+
+  /**
+   * Test that a copy keeps the id and state of the elevator and runs on its own.
+   */
+  @Test
+  public void elevatorCopyRunsOnItsOwn() {
+    System.out.println("Testing: elevatorCopyRunsOnItsOwn");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.processRequests(upTenRequests);
+    elevator.step();
+    Elevator copy = new Elevator(elevator);
+    assertEquals(elevator.getElevatorId(), copy.getElevatorId());
+    assertEquals(elevator.getElevatorStatus(), copy.getElevatorStatus());
+    for (int i = 0; i < 10; i++) {
+      copy.step();
+    }
+    assertEquals(0, elevator.getCurrentFloor());
+    assertTrue(elevator.getFloorRequests()[1]);
+    assertFalse(copy.getFloorRequests()[1]);
+    assertTrue(copy.getCurrentFloor() > 1);
+    assertEquals(new Elevator(10, 5).getElevatorId(), copy.getElevatorId() + 1);
+  }
+
+  /**
+   * Test that an elevator running from a sky lobby takes its up requests
+   * there, turns around there, and goes back there when out of service.
+   */
+  @Test
+  public void elevatorRunsFromSkyLobby() {
+    System.out.println("Testing: elevatorRunsFromSkyLobby");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setBottomFloor(4);
+    assertEquals(4, elevator.getCurrentFloor());
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(4, 7));
+    elevator.processRequests(requests);
+    int steps = 0;
+    while (elevator.getDeliveredCount() == 0 && steps < 50) {
+      elevator.step();
+      steps++;
+    }
+    assertEquals(7, elevator.getCurrentFloor());
+    while (elevator.getCurrentFloor() != 4 && steps < 100) {
+      elevator.step();
+      assertTrue(elevator.getCurrentFloor() >= 4);
+      steps++;
+    }
+    elevator.step();
+    assertTrue(elevator.isTakingRequests());
+    elevator.takeOutOfService();
+    for (int i = 0; i < 5; i++) {
+      elevator.step();
+    }
+    assertEquals(4, elevator.getCurrentFloor());
+    assertFalse(elevator.isDoorClosed());
+  }
+
+  /**
+   * Test that the bottom floor must be below the top floor.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorBottomFloorBelowTop() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setTopFloor(4);
+    elevator.setBottomFloor(4);
+  }
+
+
+  /**
+   * Test that a double-deck car serves a pair of floors at every stop.
+   */
+  @Test
+  public void elevatorDoubleDeckServesFloorPair() {
+    System.out.println("Testing: elevatorDoubleDeckServesFloorPair");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setDeckCount(2);
+    assertEquals(2, elevator.getDeckCount());
+    assertEquals(8, elevator.getTopFloor());
+    assertEquals(4, elevator.getStopFloor(5));
+    assertEquals(10, elevator.getFreeCapacity());
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 4));
+    requests.add(new Request(0, 5));
+    elevator.processRequests(requests);
+    int steps = 0;
+    while (elevator.getDeliveredCount() == 0 && steps < 50) {
+      elevator.step();
+      steps++;
+    }
+    assertEquals(4, elevator.getCurrentFloor());
+    assertEquals(2, elevator.getDeliveredCount());
+    assertEquals(1, elevator.getDeliveredCount(4));
+    assertEquals(1, elevator.getDeliveredCount(5));
+    assertTrue(elevator.getElevatorStatus().isAtFloor(5));
+  }
+
+  /**
+   * Test that the decks of a running elevator cannot change.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void elevatorDeckCountWhileRunning() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.setDeckCount(2);
+  }
+
+  /**
+   * Test that a car waits at its travel limit until the limit is lifted.
+   */
+  @Test
+  public void elevatorWaitsAtTravelLimit() {
+    System.out.println("Testing: elevatorWaitsAtTravelLimit");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 7));
+    elevator.processRequests(requests);
+    elevator.setTravelLimits(0, 4);
+    assertFalse(elevator.canRunTo(5));
+    for (int i = 0; i < 30; i++) {
+      elevator.step();
+    }
+    assertEquals(4, elevator.getCurrentFloor());
+    assertTrue(elevator.isHeld());
+    elevator.setTravelLimits(0, 9);
+    int steps = 0;
+    while (elevator.getDeliveredCount() == 0 && steps < 30) {
+      elevator.step();
+      steps++;
+    }
+    assertEquals(7, elevator.getCurrentFloor());
+    assertFalse(elevator.isHeld());
+  }
+
+  /**
+   * Test that a fast car passes floors several at a time but stops at its stops.
+   */
+  @Test
+  public void elevatorFastCarStopsAtItsStops() {
+    System.out.println("Testing: elevatorFastCarStopsAtItsStops");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setCarClass(new CarClass("fast", 8, 3, DoorTiming.fixed(2), null));
+    assertEquals(8, elevator.getMaxOccupancy());
+    assertEquals("fast", elevator.getCarClass().getName());
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 4));
+    elevator.processRequests(requests);
+    List<Integer> floors = new ArrayList<>();
+    while (elevator.getDeliveredCount() == 0 && floors.size() < 30) {
+      elevator.step();
+      if (floors.isEmpty() || floors.get(floors.size() - 1) != elevator.getCurrentFloor()) {
+        floors.add(elevator.getCurrentFloor());
+      }
+    }
+    assertEquals("[0, 3, 4]", floors.toString());
+  }
+
+  /**
+   * Test that the class of a running elevator cannot change.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void elevatorCarClassWhileRunning() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.setCarClass(CarClass.standard(8));
+  }
+
+  /**
+   * Test that an elevator serves the floors it is given, and every floor again after null.
+   */
+  @Test
+  public void elevatorServedFloors() {
+    System.out.println("Testing: elevatorServedFloors");
+    Elevator elevator = new Elevator(10, 5);
+    assertTrue(elevator.serves(9));
+    BitSet floors = new BitSet();
+    floors.set(0, 9);
+    elevator.setServedFloors(floors);
+    assertTrue(elevator.serves(8));
+    assertFalse(elevator.serves(9));
+    assertEquals(floors, elevator.getServedFloors());
+    assertFalse(new Elevator(elevator).serves(9));
+    elevator.setServedFloors(null);
+    assertTrue(elevator.serves(9));
+  }
+
+  /**
+   * Test that the served floors must be in the building.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorServedFloorsOutsideBuilding() {
+    BitSet floors = new BitSet();
+    floors.set(10);
+    new Elevator(10, 5).setServedFloors(floors);
+  }
+
+  /**
+   * Test that the served floors of a running elevator cannot change.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void elevatorServedFloorsWhileRunning() {
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.setServedFloors(null);
+  }
+}
@@ -0,0 +1,93 @@
+package elevator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the MotionProfile and Kinematics classes.
+ */
+public class MotionProfileTest {
+  private MotionProfile profile;
+
+  /**
+   * Set up the test.
+   */
+  @Before
+  public void setUp() {
+    profile = new MotionProfile(2.5, 1.0, 1.5);
+  }
+
+  /**
+   * Test that a long run cruises at the rated speed between the two ramps.
+   */
+  @Test
+  public void testTravelTimeLongRun() {
+    // the ramp to 2.5 m/s takes 2.5 / 1.0 + 1.0 / 1.5 seconds and covers 2.5 * ramp / 2
+    double ramp = 2.5 + 1.0 / 1.5;
+    double expected = 2 * ramp + (56 - 2.5 * ramp) / 2.5;
+    assertEquals(expected, profile.travelTime(56), 1e-9);
+  }
+
+  /**
+   * Test that long runs take less time per meter than short runs.
+   */
+  @Test
+  public void testLongRunsFasterPerFloor() {
+    double previous = Double.MAX_VALUE;
+    for (int floors = 1; floors <= 16; floors *= 2) {
+      double perFloor = profile.travelTime(floors * 3.5) / floors;
+      assertTrue(perFloor < previous);
+      previous = perFloor;
+    }
+  }
+
+  /**
+   * Test that the position starts at 0, ends at the distance, and never goes back.
+   */
+  @Test
+  public void testPositionIsSmooth() {
+    for (double distance : new double[] {0.3, 3.5, 7, 40}) {
+      double total = profile.travelTime(distance);
+      assertEquals(0, profile.position(distance, 0), 1e-12);
+      assertEquals(distance, profile.position(distance, total), 1e-9);
+      assertEquals(distance / 2, profile.position(distance, total / 2), 1e-9);
+      double previous = 0;
+      for (int i = 1; i <= 1000; i++) {
+        double position = profile.position(distance, total * i / 1000);
+        assertTrue(position >= previous - 1e-12);
+        previous = position;
+      }
+    }
+  }
+
+  /**
+   * Test the motion profile values must be greater than 0.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidProfile() {
+    new MotionProfile(2.5, 0, 1.5);
+  }
+
+  /**
+   * Test that the kinematics round a run up to whole steps.
+   */
+  @Test
+  public void testTravelTicks() {
+    Kinematics kinematics = Kinematics.uniform(profile, 10, 3.5, 0.5);
+    int ticks = kinematics.travelTicks(0, 8);
+    assertEquals((int) Math.ceil(profile.travelTime(28) / 0.5), ticks);
+    assertEquals(ticks, kinematics.travelTicks(8, 0));
+    assertTrue(ticks < 8 * kinematics.travelTicks(0, 1));
+  }
+
+  /**
+   * Test the floor levels must go up from 0.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFloorLevels() {
+    new Kinematics(profile, new double[] {0, 4, 4, 8}, 0.5);
+  }
+}
@@ -0,0 +1,90 @@
+package view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the ConsoleDashboard class.
+ */
+public class ConsoleDashboardTest {
+  private static final String ESC = "\u001b[";
+
+  private Building building;
+  private ByteArrayOutputStream buffer;
+  private ConsoleDashboard dashboard;
+
+  /**
+   * Set up a building of 2 elevators and a dashboard drawing into a buffer.
+   */
+  @Before
+  public void setUp() {
+    building = new Building(10, 2, 5);
+    buffer = new ByteArrayOutputStream();
+    dashboard = new ConsoleDashboard(new PrintStream(buffer, true));
+  }
+
+  /**
+   * Renders the building and returns what was written for the frame.
+   *
+   * @return the output of the frame.
+   */
+  private String render() {
+    buffer.reset();
+    dashboard.render(building.getElevatorSystemStatus());
+    return buffer.toString();
+  }
+
+  /**
+   * Test the first frame clears the screen and draws every line.
+   */
+  @Test
+  public void testFirstFrameDrawsEverything() {
+    String frame = render();
+    assertTrue(frame.startsWith(ESC + "2J"));
+    // the empty message line is blank on a cleared screen already
+    for (int row = 1; row <= 5; row++) {
+      assertTrue(frame.contains(ESC + row + ";1H"));
+    }
+    assertFalse(frame.contains(ESC + "6;1H"));
+    assertTrue(frame.endsWith(ESC + "7;1H> " + ESC + "K"));
+  }
+
+  /**
+   * Test a later frame only rewrites the lines that changed, each moved to
+   * with a cursor position and ended with an erase.
+   */
+  @Test
+  public void testOnlyChangedLinesRewritten() {
+    render();
+    building.startElevatorSystem();
+    String frame = render();
+    assertFalse(frame.contains(ESC + "2J"));
+    assertTrue(frame.startsWith(ESC + "1;1HElevator System: Running"));
+    assertTrue(frame.contains(ESC + "4;1HElevator No."));
+    assertTrue(frame.contains(ESC + "5;1HElevator No."));
+    assertFalse(frame.contains(ESC + "2;1H"));
+    assertFalse(frame.contains(ESC + "3;1H"));
+    assertFalse(frame.contains(ESC + "6;1H"));
+    assertFalse(frame.contains("requests"));
+    // every rewritten line and the prompt end with an erase to the end of the line
+    String erase = ESC + "K";
+    assertEquals(4, (frame.length() - frame.replace(erase, "").length()) / erase.length());
+    assertTrue(frame.endsWith(ESC + "7;1H> " + ESC + "K"));
+  }
+
+  /**
+   * Test an unchanged frame only clears the prompt line.
+   */
+  @Test
+  public void testUnchangedFrameOnlyClearsPrompt() {
+    render();
+    assertEquals(ESC + "7;1H> " + ESC + "K", render());
+  }
+}
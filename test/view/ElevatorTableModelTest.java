@@ -0,0 +1,88 @@
+package view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import elevator.Elevator;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TableModelEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the ElevatorTableModel class.
+ */
+public class ElevatorTableModelTest {
+  private ElevatorTableModel model;
+  private List<TableModelEvent> events;
+
+  /**
+   * Set up a model of 10 floors and 2 elevators that records its events.
+   */
+  @Before
+  public void setUp() {
+    model = new ElevatorTableModel(10, 2);
+    events = new ArrayList<>();
+    model.addTableModelListener(events::add);
+  }
+
+  /**
+   * Asserts an event updates only one cell.
+   *
+   * @param event the event.
+   * @param row the row of the cell.
+   * @param column the column of the cell.
+   */
+  private static void assertCellUpdate(TableModelEvent event, int row, int column) {
+    assertEquals(TableModelEvent.UPDATE, event.getType());
+    assertEquals(row, event.getFirstRow());
+    assertEquals(row, event.getLastRow());
+    assertEquals(column, event.getColumn());
+  }
+
+  /**
+   * Test moving one car fires updates for its old and new cell only.
+   */
+  @Test
+  public void testMoveFiresOldAndNewCell() {
+    model.moveElevator(0, 0, "UP");
+    assertEquals(1, events.size());
+    assertCellUpdate(events.get(0), 9, 1);
+    events.clear();
+    model.moveElevator(0, 1, "UP");
+    assertEquals(2, events.size());
+    assertCellUpdate(events.get(0), 9, 1);
+    assertCellUpdate(events.get(1), 8, 1);
+    assertEquals("", model.getValueAt(9, 1));
+    assertEquals("UP", model.getValueAt(8, 1));
+    assertEquals("", model.getValueAt(8, 2));
+  }
+
+  /**
+   * Test a new status on the same floor fires one cell, and no change fires nothing.
+   */
+  @Test
+  public void testStatusChangeFiresOneCell() {
+    model.moveElevator(1, 4, "UP");
+    events.clear();
+    model.moveElevator(1, 4, "UP");
+    assertTrue(events.isEmpty());
+    model.moveElevator(1, 4, "STOPPED");
+    assertEquals(1, events.size());
+    assertCellUpdate(events.get(0), 5, 2);
+  }
+
+  /**
+   * Test an equal report fires nothing.
+   */
+  @Test
+  public void testSameReportFiresNothing() {
+    Elevator elevator = new Elevator(10, 5);
+    model.updateElevator(elevator.getElevatorStatus(), 0);
+    assertEquals(1, events.size());
+    events.clear();
+    model.updateElevator(elevator.getElevatorStatus(), 0);
+    assertTrue(events.isEmpty());
+  }
+}